@@ -0,0 +1,89 @@
+package com.epam.benchmark;
+
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.service.OrganisationOptimisationService;
+import com.epam.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the phases of an analysis over synthetic organisations.
+ * <p>
+ * Reports are generated by {@link SyntheticOrganisation} into {@code target/benchmark-data} on first use and
+ * reused by later runs. Run with {@code mvn -Pbenchmarks verify}; pass JMH options with {@code -Djmh.args=...},
+ * e.g. {@code -Djmh.args="-p size=10000000 -p shape=BALANCED"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class OrganisationBenchmark {
+    private static final Path DATA_DIRECTORY = Path.of("target", "benchmark-data");
+
+    @Param({"DEEP", "WIDE", "BALANCED"})
+    private SyntheticOrganisation.Shape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private String reportPath;
+    private ReportService reportService;
+    private OrganisationOptimisationService organisationOptimisationService;
+    private List<Employee> employees;
+    private Map<Integer, List<Employee>> subordinatesMap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(DATA_DIRECTORY);
+        Path report = DATA_DIRECTORY.resolve(shape.name().toLowerCase() + "-" + size + ".csv");
+        if (!Files.exists(report)) {
+            SyntheticOrganisation.write(report, shape, size, 42);
+        }
+        reportPath = report.toString();
+        reportService = new ReportService(0, false);
+        organisationOptimisationService = new OrganisationOptimisationService();
+        employees = reportService.readEmployeesFromCsv(reportPath);
+        subordinatesMap = organisationOptimisationService.buildSubordinatesMap(employees);
+    }
+
+    @Benchmark
+    public List<Employee> readEmployeesFromCsv() {
+        return reportService.readEmployeesFromCsv(reportPath);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Employee>> buildSubordinatesMap() {
+        return organisationOptimisationService.buildSubordinatesMap(employees);
+    }
+
+    @Benchmark
+    public Map<Employee, Integer> getLongReportingLines() {
+        return organisationOptimisationService.getLongReportingLines(employees, subordinatesMap);
+    }
+
+    @Benchmark
+    public Map<Employee, SalaryDiscrepancy> getEmployeeWithSalaryDiscrepancies() {
+        return organisationOptimisationService.getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap);
+    }
+}
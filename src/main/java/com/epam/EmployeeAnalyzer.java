@@ -1,39 +1,458 @@
 package com.epam;
 
+import com.epam.cache.ResultCache;
 import com.epam.config.PropertyHolder;
-import com.epam.model.Employee;
+import com.epam.graph.OrgGraph;
+import com.epam.io.CsvReadResult;
+import com.epam.io.IncrementalCsvReader;
+import com.epam.io.MappedCsvFile;
+import com.epam.io.ReportWatcher;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+import com.epam.rules.RuleEngine;
+import com.epam.server.OrganisationServer;
+import com.epam.service.BatchAnalysisService;
 import com.epam.service.OrganisationOptimisationService;
+import com.epam.service.PartitionedAnalysisService;
 import com.epam.service.ReportService;
+import com.epam.service.StreamingAnalysisService;
+import com.epam.service.SweepPoint;
+import com.epam.service.ThresholdSweep;
+import com.epam.validation.OrganisationValidationException;
+import com.epam.validation.OrganisationValidator;
+import com.epam.validation.ValidationMode;
+import com.epam.validation.ValidationResult;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 
 /**
  * The EmployeeAnalyzer class is the entry point of the application that analyzes employee data.
- * It reads employee data from a CSV file, builds a subordinates map, and generates reports on
+ * It reads employee data from a CSV file, builds a graph of the organisation, and generates reports on
  * long reporting lines and salary discrepancies.
  */
 public class EmployeeAnalyzer {
+    private static final int REJECTED_EXIT_STATUS = 2;
 
     /**
      * The main method that starts the application.
      *
      * @param args Command-line arguments. It should include the path to the employee report CSV file in the format
-     *             --app.report.path=<path_to_csv_file>.
+     *             --app.report.path=<path_to_csv_file>. With --app.analysis.streaming=true the report is analysed in
+     *             streaming mode, without holding the organisation in memory. The findings are written in the format
+     *             given by --app.report.format (text, csv or jsonl) to the file given by --app.report.output, or to
+     *             standard output. The structure of the organisation is validated first, as configured by
+     *             --app.validation.mode (fail_fast or quarantine); a rejected report exits with status 2. With
+     *             --app.server.port=<port> the organisation is loaded once and served over a local HTTP API until the
+     *             process is stopped. With --app.metrics.summary=text or json a summary of the phases of the run is
+     *             written to the file given by --app.metrics.output, or to {@code System.err}. With
+     *             --app.batch.path=<directory or glob> every selected report is analysed on --app.batch.threads threads
+     *             and a combined report is written instead. With --app.cache.dir=<directory> the findings are cached by
+     *             report content and settings, and replayed without analysing the report again while it is unchanged.
+     *             The organisation rules checked are listed by --app.rules, see {@link RuleEngine}. With
+     *             --app.watch=true the report is analysed again whenever it changes, once it has been left unchanged
+     *             for --app.watch.debounce.ms. With --app.sweep.depths, --app.sweep.low or --app.sweep.high the
+     *             findings are counted for every combination of the listed thresholds instead, see
+     *             {@link ThresholdSweep}. With --app.partition.workers=<count> the rules are evaluated in up to that
+     *             many worker processes, see {@link PartitionedAnalysisService}.
      */
     public static void main(String[] args) {
-        ReportService reportService = new ReportService();
-        OrganisationOptimisationService organisationOptimisationService = new OrganisationOptimisationService();
+        ValidationMode validationMode = ValidationMode.valueOf(getSetting(args, "app.validation.mode", "quarantine").toUpperCase(Locale.ROOT));
+
+        String batchPath = getSetting(args, "app.batch.path", "");
+        if (!batchPath.isEmpty()) {
+            PhaseMetrics.run("analysis", () -> analyzeBatch(args, batchPath, validationMode));
+            writeMetricsSummary(getSetting(args, "app.metrics.summary", "none"), getSetting(args, "app.metrics.output", ""));
+            return;
+        }
 
         String filePath = getFilePath(args);
 
-        List<Employee> employees = reportService.readEmployeesFromCsv(filePath);
-        Map<Integer, List<Employee>> subordinates = organisationOptimisationService.buildSubordinatesMap(employees);
+        String serverPort = getSetting(args, "app.server.port", "");
+        if (!serverPort.isEmpty()) {
+            serve(args, filePath, Integer.parseInt(serverPort), validationMode);
+            return;
+        }
+
+        if (Boolean.parseBoolean(getSetting(args, "app.watch", "false"))) {
+            watch(args, filePath, validationMode);
+            return;
+        }
 
-        organisationOptimisationService.reportLongReportingLines(employees, subordinates);
-        organisationOptimisationService.reportSalaryDiscrepancies(employees, subordinates);
+        boolean analysed;
+        Phase phase = PhaseMetrics.start("analysis");
+        try {
+            analysed = isSweep(args) ? sweep(args, filePath, validationMode) : analyze(args, filePath, validationMode);
+        } finally {
+            phase.close();
+        }
+        writeMetricsSummary(getSetting(args, "app.metrics.summary", "none"), getSetting(args, "app.metrics.output", ""));
+        if (!analysed) {
+            System.exit(REJECTED_EXIT_STATUS);
+        }
     }
+
+    /**
+     * Analyses the report and writes the findings to the configured sink.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param filePath The path to the CSV file.
+     * @param validationMode How to treat an organisation with structural issues.
+     * @return False if the report was rejected by validation, true otherwise.
+     */
+    private static boolean analyze(String[] args, String filePath, ValidationMode validationMode) {
+        ReportFormat format = ReportFormat.valueOf(getSetting(args, "app.report.format", "text").toUpperCase(Locale.ROOT));
+
+        try (ReportSink sink = ReportSinks.open(format, getSetting(args, "app.report.output", ""))) {
+            Properties settings = getSettings(args);
+            if (Boolean.parseBoolean(settings.getProperty("app.analysis.streaming", "false"))) {
+                new StreamingAnalysisService(settings).report(filePath, sink);
+                return true;
+            }
+
+            RuleEngine ruleEngine = RuleEngine.fromProperties(settings);
+            int partitionWorkers = Integer.parseInt(settings.getProperty("app.partition.workers", "0"));
+            PartitionedAnalysisService partitioned = partitionWorkers > 0 ? new PartitionedAnalysisService(partitionWorkers, settings) : null;
+
+            String cacheDirectory = getSetting(args, "app.cache.dir", "");
+            if (cacheDirectory.isEmpty()) {
+                return analyzeGraph(filePath, validationMode, new ReportService(settings), ruleEngine, partitioned, sink);
+            }
+
+            ResultCache cache = new ResultCache(Path.of(cacheDirectory), Long.parseLong(getSetting(args, "app.cache.max.bytes", "268435456")));
+            String key;
+            Phase phase = PhaseMetrics.start("cacheLookup");
+            try {
+                key = ResultCache.key(Path.of(filePath), ruleEngine + "\n" + validationMode);
+                if (cache.replay(key, sink)) {
+                    return true;
+                }
+            } finally {
+                phase.close();
+            }
+            ResultCache.Recorder recorder = cache.record(key, sink);
+            if (!analyzeGraph(filePath, validationMode, new ReportService(settings), ruleEngine, partitioned, recorder)) {
+                return false;
+            }
+            recorder.commit();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    /**
+     * Reads, validates and analyses the organisation, writing the findings to a sink.
+     *
+     * @param filePath The path to the CSV file.
+     * @param validationMode How to treat an organisation with structural issues.
+     * @param reportService The service reading the report as configured.
+     * @param ruleEngine The engine evaluating the configured organisation rules.
+     * @param partitioned The service evaluating the rules in worker processes, or null to evaluate them in this one.
+     * @param sink The sink receiving the findings; it is not closed.
+     * @return True if the organisation was analysed, false if it was rejected.
+     * @throws IOException if the sink cannot be written or a worker process fails
+     */
+    private static boolean analyzeGraph(String filePath, ValidationMode validationMode, ReportService reportService,
+                                        RuleEngine ruleEngine, PartitionedAnalysisService partitioned,
+                                        ReportSink sink) throws IOException {
+        if (partitioned != null && filePath.endsWith(".gz")) {
+            // Partitions are copied from the mapped report, which a compressed one is not
+            System.err.println("Compressed reports are analysed in this process, not partitioned");
+            partitioned = null;
+        }
+        if (partitioned == null) {
+            OrgGraph graph = validate(reportService.readOrgGraphFromCsv(filePath), validationMode);
+            if (graph == null) {
+                return false;
+            }
+            ruleEngine.report(graph, sink);
+            return true;
+        }
+
+        MappedCsvFile file = MappedCsvFile.map(Path.of(filePath));
+        CsvReadResult result = reportService.readMappedCsv(file);
+        OrgGraph graph = validate(result.graph(), validationMode);
+        if (graph == null) {
+            return false;
+        }
+        // Quarantine renumbers the employees; the row of an ID is the one kept by the validator
+        long[] rowOffsets = new long[graph.size()];
+        for (int index = 0; index < rowOffsets.length; index++) {
+            rowOffsets[index] = result.rowOffsets()[result.graph().indexOf(graph.id(index))];
+        }
+        partitioned.report(graph, file, rowOffsets, sink);
+        return true;
+    }
+
+    /**
+     * Analyses the report, then analyses it again every time it changes, until the process is stopped.
+     * The rule engine and the rows of the unchanged part of the report are kept between changes.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param filePath The path to the CSV file.
+     * @param validationMode How to treat an organisation with structural issues.
+     */
+    private static void watch(String[] args, String filePath, ValidationMode validationMode) {
+        ReportFormat format = ReportFormat.valueOf(getSetting(args, "app.report.format", "text").toUpperCase(Locale.ROOT));
+        String output = getSetting(args, "app.report.output", "");
+        RuleEngine ruleEngine = RuleEngine.fromProperties(getSettings(args));
+        IncrementalCsvReader reader = new IncrementalCsvReader();
+        Path path = Path.of(filePath);
+        Duration debounce = Duration.ofMillis(Long.parseLong(getSetting(args, "app.watch.debounce.ms", "500")));
+
+        try (ReportWatcher watcher = new ReportWatcher(path, debounce)) {
+            while (true) {
+                analyzeVersion(path, reader, validationMode, ruleEngine, format, output);
+                watcher.awaitChange();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the current version of a watched report and writes its findings, replacing the content of the output
+     * file. A version that cannot be read or is rejected is reported to {@code System.err} and the next one is awaited.
+     */
+    private static void analyzeVersion(Path path, IncrementalCsvReader reader, ValidationMode validationMode,
+                                       RuleEngine ruleEngine, ReportFormat format, String output) {
+        try (Phase phase = PhaseMetrics.start("analyzeVersion")) {
+            CsvReadResult result = reader.read(path);
+            phase.rows(result.graph().size());
+            System.err.printf("Read %s: %d employees, %d unchanged rows reused%n", path, result.graph().size(), reader.reusedRows());
+            result.malformedRows().forEach(row ->
+                    System.err.printf("Skipping malformed row at line %d: %s%n", row.lineNumber(), row.reason()));
+            OrgGraph graph = validate(result.graph(), validationMode);
+            if (graph == null) {
+                return;
+            }
+            try (ReportSink sink = ReportSinks.open(format, output)) {
+                ruleEngine.report(graph, sink);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("Could not analyse %s: %s%n", path, e);
+        }
+    }
+
+    /**
+     * @param args Command-line arguments passed to the application.
+     * @return True if thresholds to sweep are listed.
+     */
+    private static boolean isSweep(String[] args) {
+        return !getSetting(args, "app.sweep.depths", "").isEmpty() || !getSetting(args, "app.sweep.low", "").isEmpty()
+                || !getSetting(args, "app.sweep.high", "").isEmpty();
+    }
+
+    /**
+     * Counts the findings of the organisation for every combination of the listed thresholds and writes them as CSV
+     * to the configured output file, or to standard output. A threshold that is not listed keeps its configured value.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param filePath The path to the CSV file.
+     * @param validationMode How to treat an organisation with structural issues.
+     * @return False if the report was rejected by validation, true otherwise.
+     */
+    private static boolean sweep(String[] args, String filePath, ValidationMode validationMode) {
+        int[] depths = parseSweepValues(getSetting(args, "app.sweep.depths", ""), getSetting(args, "app.hierarchy.depth")).stream()
+                .mapToInt(BigDecimal::intValueExact).toArray();
+        double[] lows = parseSweepValues(getSetting(args, "app.sweep.low", ""), getSetting(args, "app.salary.ration.low")).stream()
+                .mapToDouble(BigDecimal::doubleValue).toArray();
+        double[] highs = parseSweepValues(getSetting(args, "app.sweep.high", ""), getSetting(args, "app.salary.ration.high")).stream()
+                .mapToDouble(BigDecimal::doubleValue).toArray();
+
+        OrgGraph graph = validate(new ReportService(getSettings(args)).readOrgGraphFromCsv(filePath), validationMode);
+        if (graph == null) {
+            return false;
+        }
+        List<SweepPoint> points = new OrganisationOptimisationService().prepareThresholdSweep(graph).sweep(depths, lows, highs);
+
+        String output = getSetting(args, "app.report.output", "");
+        try {
+            if (output.isEmpty()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+                writeSweep(points, writer);
+                // Not closed, System.out stays open
+                writer.flush();
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Path.of(output))) {
+                    writeSweep(points, writer);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    private static void writeSweep(List<SweepPoint> points, Writer writer) throws IOException {
+        writer.write("hierarchyDepth,lowSalaryRation,highSalaryRation,longReportingLines,underpaidManagers,overpaidManagers");
+        writer.write(System.lineSeparator());
+        for (SweepPoint point : points) {
+            writer.write(point.hierarchyDepthThreshold() + "," + point.lowSalaryRation() + "," + point.highSalaryRation()
+                    + "," + point.longReportingLines() + "," + point.underpaidManagers() + "," + point.overpaidManagers());
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Parses the values of a swept threshold: a comma-separated list of values and {@code from:to:step} ranges,
+     * which include {@code to} if it is reached by whole steps.
+     *
+     * @param spec The listed values, or an empty string.
+     * @param configured The configured value, used if no values are listed.
+     * @return The values, in the order listed.
+     */
+    private static List<BigDecimal> parseSweepValues(String spec, String configured) {
+        if (spec.isBlank()) {
+            return List.of(new BigDecimal(configured.trim()));
+        }
+        List<BigDecimal> values = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] range = item.trim().split(":");
+            if (range.length == 1) {
+                values.add(new BigDecimal(range[0]));
+            } else if (range.length == 3) {
+                BigDecimal to = new BigDecimal(range[1].trim());
+                BigDecimal step = new BigDecimal(range[2].trim());
+                if (step.signum() <= 0) {
+                    throw new IllegalArgumentException("Step of sweep range must be positive: " + item);
+                }
+                for (BigDecimal value = new BigDecimal(range[0].trim()); value.compareTo(to) <= 0; value = value.add(step)) {
+                    values.add(value);
+                }
+            } else {
+                throw new IllegalArgumentException("Sweep values must be numbers or from:to:step ranges: " + item);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Analyses every report selected by a directory or glob pattern and writes the combined report.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param batchPath The directory or glob pattern selecting the CSV files.
+     * @param validationMode How to treat an organisation with structural issues.
+     */
+    private static void analyzeBatch(String[] args, String batchPath, ValidationMode validationMode) {
+        ReportFormat format = ReportFormat.valueOf(getSetting(args, "app.report.format", "text").toUpperCase(Locale.ROOT));
+        BatchAnalysisService batchAnalysisService = new BatchAnalysisService(
+                Integer.parseInt(getSetting(args, "app.batch.threads", "0")), validationMode, getSettings(args));
+        String output = getSetting(args, "app.report.output", "");
+        try {
+            if (output.isEmpty()) {
+                // Not closed, System.out stays open
+                batchAnalysisService.analyze(batchPath, format, new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset())));
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Path.of(output))) {
+                    batchAnalysisService.analyze(batchPath, format, writer);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts the resident server mode. The server keeps running after this method returns and is stopped
+     * when the JVM shuts down.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param filePath The path to the CSV file.
+     * @param port The port to listen on.
+     * @param validationMode How to treat an organisation with structural issues.
+     */
+    private static void serve(String[] args, String filePath, int port, ValidationMode validationMode) {
+        Properties settings = getSettings(args);
+        OrganisationServer server = new OrganisationServer(Path.of(filePath), new ReportService(settings),
+                new OrganisationValidator(validationMode), new OrganisationOptimisationService(settings),
+                RuleEngine.fromProperties(settings));
+        try {
+            server.start(port);
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.printf("Serving %s on http://127.0.0.1:%d%n", filePath, server.port());
+    }
+
+    /**
+     * Validates the structure of the organisation and reports the issues found to {@code System.err}. Quarantined
+     * employees are also counted in a warning on {@code System.out}, as they are left out of the findings.
+     *
+     * @param graph The organisation read from the report.
+     * @param mode How to treat an organisation with issues.
+     * @return The organisation to analyse, or null if it was rejected.
+     */
+    private static OrgGraph validate(OrgGraph graph, ValidationMode mode) {
+        try (Phase phase = PhaseMetrics.start("validate")) {
+            phase.rows(graph.size());
+            ValidationResult result = new OrganisationValidator(mode).validate(graph);
+            result.issues().forEach(issue -> System.err.println(issue.message()));
+            if (result.quarantined() > 0) {
+                System.out.printf("WARNING: quarantined %d of %d employees (duplicate IDs, cycles and their subordinates), "
+                        + "analysing the remaining %d%n", result.quarantined(), graph.size(), result.graph().size());
+            }
+            return result.graph();
+        } catch (OrganisationValidationException e) {
+            e.getIssues().forEach(issue -> System.err.println(issue.message()));
+            System.err.printf("Report rejected: %d structural issues found%n", e.getIssues().size());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the summary of the phases of the run.
+     *
+     * @param summary The format of the summary: none, text or json.
+     * @param output The path of the file to write to, or an empty string for {@code System.err}.
+     */
+    private static void writeMetricsSummary(String summary, String output) {
+        if ("none".equalsIgnoreCase(summary)) {
+            return;
+        }
+        try {
+            if (output.isEmpty()) {
+                // Not closed, System.err stays open
+                writeMetricsSummary(summary, new OutputStreamWriter(System.err, Charset.defaultCharset()));
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Path.of(output))) {
+                    writeMetricsSummary(summary, writer);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeMetricsSummary(String summary, Writer writer) throws IOException {
+        if ("json".equalsIgnoreCase(summary)) {
+            PhaseMetrics.writeJson(writer);
+        } else {
+            PhaseMetrics.writeText(writer);
+        }
+    }
+
     /**
      * Retrieves the file path to the employee report CSV file from the command-line arguments or properties.
      *
@@ -41,18 +460,53 @@ public class EmployeeAnalyzer {
      * @return The file path to the employee report CSV file. If the path is not specified, returns null.
      */
     private static String getFilePath(String[] args) {
-        String filePathPropertyName = "app.report.path";
-        Map<String, String> arguments = parseArguments(args);
-        String filePath = arguments.get(filePathPropertyName);
-        if (filePath == null) {
-            filePath = PropertyHolder.properties.getProperty(filePathPropertyName);
-        }
+        String filePath = getSetting(args, "app.report.path");
         if (filePath == null) {
             System.err.println("Path to report is not specified");
         }
         return filePath;
     }
 
+    /**
+     * Retrieves a setting from the command-line arguments or, if it is not passed there, from properties.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param name The name of the setting.
+     * @return The value of the setting, or null if it is not specified.
+     */
+    private static String getSetting(String[] args, String name) {
+        String value = parseArguments(args).get(name);
+        if (value == null) {
+            value = PropertyHolder.properties.getProperty(name);
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves a setting from the command-line arguments or properties, falling back to a default value.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @param name The name of the setting.
+     * @param defaultValue The value used if the setting is not specified.
+     * @return The value of the setting.
+     */
+    private static String getSetting(String[] args, String name, String defaultValue) {
+        String value = getSetting(args, name);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Collects the settings of the run: the command-line arguments, falling back to properties.
+     *
+     * @param args Command-line arguments passed to the application.
+     * @return The settings, with the properties as defaults.
+     */
+    private static Properties getSettings(String[] args) {
+        Properties settings = new Properties(PropertyHolder.properties);
+        settings.putAll(parseArguments(args));
+        return settings;
+    }
+
     /**
      * Parses the command-line arguments into a map of argument names and values.
      *
@@ -0,0 +1,300 @@
+package com.epam.cache;
+
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code ResultCache} class keeps the findings of previous analyses on disk, addressed by the content of the
+ * analysed report and the settings that affect the findings.
+ * <p>
+ * The key is the SHA-256 hash of the CSV bytes followed by a description of the settings: the configured organisation
+ * rules and the validation mode. An entry holds the findings in the order they were reported, and is
+ * replayed into a {@link ReportSink} on a hit, so an unchanged report is only hashed: it is neither parsed nor
+ * turned into a graph, and {@link Employee} records are created only for the replayed findings.
+ * </p>
+ * <p>
+ * Entries are files named {@code <key>.results} in the cache directory, written next to their final name and moved
+ * into place. The modification time of an entry is its last access; when the directory grows beyond its size limit
+ * the least recently used entries are deleted. Entries that fail their CRC-32C checksum are deleted and treated as
+ * misses.
+ * </p>
+ * <p>
+ * Only single-file runs of {@code EmployeeAnalyzer} use the cache. A batch run writes per-file counts of employees,
+ * malformed rows and structural issues that an entry does not hold, so {@code BatchAnalysisService} always analyses
+ * its files.
+ * </p>
+ */
+public final class ResultCache {
+    static final String ENTRY_SUFFIX = ".results";
+    private static final int MAGIC = 0x4F524752; // "ORGR"
+    private static final int VERSION = 2;
+    private static final int HASH_CHUNK_SIZE = 1 << 24;
+    private static final byte END = 0;
+    private static final byte LONG_REPORTING_LINE = 1;
+    private static final byte SALARY_DISCREPANCY = 2;
+    private static final byte RULE_VIOLATION = 3;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory the directory holding the entries; created if missing
+     * @param maxBytes the total size of the entries above which the least recently used ones are deleted
+     * @throws IOException if the directory cannot be created
+     */
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Computes the key of a report analysed with the given settings.
+     *
+     * @param report the CSV file
+     * @param settings a description of every setting that affects the findings, such as the organisation rules
+     *                 and their limits and the validation mode
+     * @return the key, as a hexadecimal string
+     * @throws IOException if the file cannot be read
+     */
+    public static String key(Path report, String settings) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(report, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_CHUNK_SIZE) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_CHUNK_SIZE, size - position)));
+            }
+        }
+        digest.update(("\n" + settings).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Replays a cached entry into a sink and marks it as recently used.
+     *
+     * @param key the key of the entry
+     * @param sink the sink receiving the findings; it is not closed
+     * @return {@code true} on a hit, {@code false} if there is no valid entry for the key and nothing was written
+     * @throws IOException if the sink cannot be written
+     */
+    public boolean replay(String key, ReportSink sink) throws IOException {
+        Path entry = entry(key);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(entry);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (!isValid(content)) {
+            System.err.printf("Discarding corrupted cache entry %s%n", entry);
+            Files.deleteIfExists(entry);
+            return false;
+        }
+        touch(entry);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(content, 8, content.length - 16));
+        for (byte tag = input.readByte(); tag != END; tag = input.readByte()) {
+            Employee employee = readEmployee(input);
+            if (tag == LONG_REPORTING_LINE) {
+                sink.longReportingLine(employee, input.readInt());
+            } else if (tag == RULE_VIOLATION) {
+                sink.ruleViolation(input.readUTF(), employee, new BigDecimal(input.readUTF()), input.readUTF());
+            } else {
+                DiscrepancyType type = DiscrepancyType.values()[input.readByte()];
+                sink.salaryDiscrepancy(employee, new SalaryDiscrepancy(type, new BigDecimal(input.readUTF())));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts recording the findings of an analysis for a key. The findings are passed on to the sink as they are
+     * produced and stored when the recorder is committed.
+     *
+     * @param key the key of the entry
+     * @param sink the sink receiving the findings; it is not closed by the recorder
+     * @return the recording sink
+     */
+    public Recorder record(String key, ReportSink sink) {
+        return new Recorder(key, sink);
+    }
+
+    /**
+     * Writes an entry and evicts the least recently used entries while the cache is over its size limit.
+     */
+    private synchronized void store(String key, byte[] body) throws IOException {
+        CRC32C checksum = new CRC32C();
+        checksum.update(body);
+        ByteBuffer content = ByteBuffer.allocate(8 + body.length + 8);
+        content.putInt(MAGIC).putInt(VERSION).put(body).putLong(checksum.getValue());
+
+        Path entry = entry(key);
+        Path temporary = entry.resolveSibling(entry.getFileName() + ".tmp");
+        Files.write(temporary, content.array());
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    private void evict() throws IOException {
+        List<StoredEntry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    StoredEntry entry = new StoredEntry(file, Files.size(file), Files.getLastModifiedTime(file));
+                    entries.add(entry);
+                    total += entry.size();
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(StoredEntry::accessed));
+        for (int i = 0; i < entries.size() && total > maxBytes; i++) {
+            Files.deleteIfExists(entries.get(i).path());
+            total -= entries.get(i).size();
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // An entry evicted concurrently is still replayed from the bytes already read
+        }
+    }
+
+    private static boolean isValid(byte[] content) {
+        if (content.length < 17) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return false;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(content, 8, content.length - 16);
+        return checksum.getValue() == buffer.getLong(content.length - 8);
+    }
+
+    private static Employee readEmployee(DataInputStream input) throws IOException {
+        int id = input.readInt();
+        String firstName = input.readUTF();
+        String lastName = input.readUTF();
+        BigDecimal salary = new BigDecimal(input.readUTF());
+        Integer managerId = input.readBoolean() ? input.readInt() : null;
+        return new Employee(id, firstName, lastName, salary, managerId);
+    }
+
+    /**
+     * An entry found in the cache directory, with its size and last access.
+     */
+    private record StoredEntry(Path path, long size, FileTime accessed) {
+    }
+
+    /**
+     * A sink passing findings on to another sink while serialising them for the cache.
+     * Nothing is stored unless {@link #commit()} is called, so an analysis that fails leaves no entry behind.
+     */
+    public final class Recorder implements ReportSink {
+        private final String key;
+        private final ReportSink delegate;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(body);
+
+        private Recorder(String key, ReportSink delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException {
+            delegate.longReportingLine(employee, hierarchyDepthDifference);
+            output.writeByte(LONG_REPORTING_LINE);
+            writeEmployee(employee);
+            output.writeInt(hierarchyDepthDifference);
+        }
+
+        @Override
+        public void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException {
+            delegate.salaryDiscrepancy(manager, salaryDiscrepancy);
+            output.writeByte(SALARY_DISCREPANCY);
+            writeEmployee(manager);
+            output.writeByte(salaryDiscrepancy.type().ordinal());
+            output.writeUTF(salaryDiscrepancy.discrepancy().toString());
+        }
+
+        @Override
+        public void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException {
+            delegate.ruleViolation(rule, employee, amount, detail);
+            output.writeByte(RULE_VIOLATION);
+            writeEmployee(employee);
+            output.writeUTF(rule);
+            output.writeUTF(amount.toString());
+            output.writeUTF(detail);
+        }
+
+        /**
+         * Stores the recorded findings. A failure to write the cache is reported to {@code System.err} and does
+         * not affect the analysis.
+         */
+        public void commit() {
+            try {
+                output.writeByte(END);
+                store(key, body.toByteArray());
+            } catch (IOException e) {
+                System.err.printf("Could not write cache entry %s: %s%n", entry(key), e.getMessage());
+            }
+        }
+
+        /**
+         * Does nothing; the delegate sink is owned by the caller.
+         */
+        @Override
+        public void close() {
+        }
+
+        private void writeEmployee(Employee employee) throws IOException {
+            output.writeInt(employee.id());
+            output.writeUTF(employee.firstName());
+            output.writeUTF(employee.lastName());
+            output.writeUTF(employee.salary().toString());
+            output.writeBoolean(employee.managerId() != null);
+            if (employee.managerId() != null) {
+                output.writeInt(employee.managerId());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.epam.graph;
+
+/**
+ * The {@code IntIndexMap} class is an open-addressing hash map from {@code int} keys to non-negative {@code int} values.
+ * <p>
+ * It is used to resolve employee IDs to their positions in an {@link OrgGraph} without boxing.
+ * Keys and values are kept in two parallel arrays that are probed linearly, so a lookup touches
+ * at most a few adjacent cache lines.
+ * </p>
+ */
+public final class IntIndexMap {
+    /**
+     * Value returned by {@link #get(int)} and {@link #put(int, int)} when a key is not present.
+     */
+    public static final int ABSENT = -1;
+
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    // Stores value + 1 so that 0 marks an empty slot and any int can be used as a key
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructs an {@code IntIndexMap} sized to hold the expected number of keys without resizing.
+     *
+     * @param expectedSize the expected number of keys
+     */
+    public IntIndexMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Restores a map from its slot arrays, as written by {@link #keys()} and {@link #slots()}.
+     */
+    IntIndexMap(int[] keys, int[] slots, int size) {
+        this.keys = keys;
+        this.slots = slots;
+        this.mask = slots.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the non-negative value
+     * @return the previous value, or {@link #ABSENT} if the key was not present
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non-negative: " + value);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length << 1);
+        }
+        int slot = slotOf(key);
+        int previous = slots[slot] - 1;
+        if (slots[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        slots[slot] = value + 1;
+        return previous;
+    }
+
+    /**
+     * Returns the value associated with the key.
+     *
+     * @param key the key
+     * @return the value, or {@link #ABSENT} if the key is not present
+     */
+    public int get(int key) {
+        return slots[slotOf(key)] - 1;
+    }
+
+    /**
+     * @param key the key
+     * @return {@code true} if the key is present
+     */
+    public boolean containsKey(int key) {
+        return get(key) != ABSENT;
+    }
+
+    /**
+     * @return the number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    int[] keys() {
+        return keys;
+    }
+
+    int[] slots() {
+        return slots;
+    }
+
+    private int slotOf(int key) {
+        int slot = mix(key) & mask;
+        while (slots[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
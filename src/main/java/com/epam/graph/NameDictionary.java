@@ -0,0 +1,135 @@
+package com.epam.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code NameDictionary} class stores every distinct name of an organisation once and identifies it by a code.
+ * <p>
+ * Names are interned straight from the bytes of a report: the bytes are hashed and compared in place, and copied into
+ * a shared byte pool only the first time a name is seen, so repeated names cost no allocation while loading. A name
+ * is decoded into a {@code String} the first time it is materialised, and the same instance is returned afterwards.
+ * </p>
+ * <p>
+ * Interning is not thread-safe. Once filled, {@link #name(int)} may be called from several threads.
+ * </p>
+ */
+public final class NameDictionary {
+    private static final int EMPTY = 0;
+
+    private byte[] pool = new byte[1 << 12];
+    private int poolSize;
+    // Code c is stored at pool[starts[c]] .. pool[starts[c + 1] - 1]
+    private int[] starts = new int[17];
+    private int[] hashes = new int[16];
+    private String[] strings = new String[16];
+    private int size;
+    // Stores code + 1 so that 0 marks an empty slot
+    private int[] table = new int[32];
+
+    /**
+     * Returns the code of a name, adding the name if it is new.
+     *
+     * @param buffer the buffer holding the UTF-8 bytes of the name
+     * @param start the position of the first byte of the name
+     * @param end the position after the last byte of the name
+     * @return the code of the name
+     */
+    public int intern(ByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int position = start; position < end; position++) {
+            hash = 31 * hash + buffer.get(position);
+        }
+        hash ^= hash >>> 16;
+
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (table[slot] == EMPTY) {
+                code = add(buffer, start, end, hash);
+                table[slot] = code + 1;
+                if (size * 2 > table.length) {
+                    rehash(table.length << 1);
+                }
+                return code;
+            }
+            if (hashes[code] == hash && matches(code, buffer, start, end)) {
+                return code;
+            }
+        }
+    }
+
+    /**
+     * @param code the code of a name
+     * @return the name; the same instance for every call with the same code
+     */
+    public String name(int code) {
+        String name = strings[code];
+        if (name == null) {
+            // Racing threads may decode the same name twice; either instance is correct
+            name = new String(pool, starts[code], starts[code + 1] - starts[code], StandardCharsets.UTF_8);
+            strings[code] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @return the number of distinct names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of the distinct names
+     */
+    public int byteSize() {
+        return poolSize;
+    }
+
+    private int add(ByteBuffer buffer, int start, int end, int hash) {
+        int length = end - start;
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(poolSize + length, pool.length + (pool.length >> 1)));
+        }
+        buffer.get(start, pool, poolSize, length);
+        if (size == hashes.length) {
+            int capacity = hashes.length + (hashes.length >> 1);
+            hashes = Arrays.copyOf(hashes, capacity);
+            strings = Arrays.copyOf(strings, capacity);
+            starts = Arrays.copyOf(starts, capacity + 1);
+        }
+        int code = size++;
+        hashes[code] = hash;
+        starts[code] = poolSize;
+        poolSize += length;
+        starts[size] = poolSize;
+        return code;
+    }
+
+    private boolean matches(int code, ByteBuffer buffer, int start, int end) {
+        int from = starts[code];
+        if (starts[code + 1] - from != end - start) {
+            return false;
+        }
+        for (int position = start; position < end; position++) {
+            if (pool[from++] != buffer.get(position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.epam.graph;
+
+import com.epam.model.Employee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code OrgGraph} class is a compact, columnar representation of an organisation.
+ * <p>
+ * Every employee is identified by its position (index) in the graph. Per-employee attributes are stored
+ * in primitive arrays: the employee ID, the manager ID, the index of the manager (parent), and the salary
+ * in minor units (cents) together with its original decimal scale. The rare salaries that cannot be represented this
+ * way, with more than two significant fraction digits or too large for a {@code long} of cents, are kept as
+ * {@code BigDecimal} instead (see {@link #hasDecimalSalaries()}). Subordinates are stored in
+ * compressed sparse row (CSR) form: the subordinates of the employee at index {@code i} are
+ * {@code child(childStart(i))} .. {@code child(childEnd(i) - 1)}, in file order.
+ * </p>
+ * <p>
+ * Full {@link Employee} records are not kept by the graph; they are materialised on demand through
+ * {@link #employee(int)}, typically only for employees that appear in a report, either from the source the graph
+ * was built from or from a {@link NameDictionary} (see {@link #withNames}).
+ * </p>
+ */
+public final class OrgGraph {
+    /**
+     * Parent index of an employee that has no manager.
+     */
+    public static final int NO_PARENT = -1;
+    /**
+     * Parent index of an employee whose manager ID does not belong to any employee in the graph.
+     */
+    public static final int UNKNOWN_PARENT = -2;
+
+    static final int MONEY_SCALE = 2;
+
+    private final int size;
+    private final int[] ids;
+    private final int[] managerIds;
+    private final int[] parents;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final long[] salaryCents;
+    private final byte[] salaryScales;
+    // Null unless some salaries cannot be represented in cents; non-null only for those salaries
+    private final BigDecimal[] decimalSalaries;
+    private final IntIndexMap indexById;
+    private final IntFunction<Employee> employeeResolver;
+
+    OrgGraph(int size, int[] ids, int[] managerIds, int[] parents, int[] childOffsets, int[] children,
+             long[] salaryCents, byte[] salaryScales, BigDecimal[] decimalSalaries, IntIndexMap indexById,
+             IntFunction<Employee> employeeResolver) {
+        this.size = size;
+        this.ids = ids;
+        this.managerIds = managerIds;
+        this.parents = parents;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.salaryCents = salaryCents;
+        this.salaryScales = salaryScales;
+        this.decimalSalaries = decimalSalaries;
+        this.indexById = indexById;
+        this.employeeResolver = employeeResolver;
+    }
+
+    /**
+     * Builds a graph from a list of employees. The index of every employee in the graph equals its position in the list.
+     *
+     * @param employees List of employees.
+     * @return the graph of the organisation
+     */
+    public static OrgGraph of(List<Employee> employees) {
+        Builder builder = new Builder(employees.size());
+        for (Employee employee : employees) {
+            builder.add(employee.id(), employee.salary(), employee.managerId());
+        }
+        return builder.build(employees::get);
+    }
+
+    /**
+     * @return a graph without employees
+     */
+    public static OrgGraph empty() {
+        return new Builder(0).build(index -> {
+            throw new IndexOutOfBoundsException(index);
+        });
+    }
+
+    /**
+     * @return the number of employees in the graph
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the ID of the employee
+     */
+    public int id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return {@code true} if the employee has a manager ID, even one that is not present in the graph
+     */
+    public boolean hasManager(int index) {
+        return parents[index] != NO_PARENT;
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the manager ID of the employee; only meaningful when {@link #hasManager(int)} is {@code true}
+     */
+    public int managerId(int index) {
+        return managerIds[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the index of the manager, {@link #NO_PARENT} or {@link #UNKNOWN_PARENT}
+     */
+    public int parent(int index) {
+        return parents[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the position in the child array of the first subordinate of the employee
+     */
+    public int childStart(int index) {
+        return childOffsets[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the position in the child array after the last subordinate of the employee
+     */
+    public int childEnd(int index) {
+        return childOffsets[index + 1];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the number of direct subordinates of the employee
+     */
+    public int childCount(int index) {
+        return childOffsets[index + 1] - childOffsets[index];
+    }
+
+    /**
+     * @param position a position in the child array, between {@link #childStart(int)} and {@link #childEnd(int)}
+     * @return the index of the subordinate stored at the position
+     */
+    public int child(int position) {
+        return children[position];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the salary of the employee in minor units (cents); rounded down, and limited to the range of a
+     *         {@code long}, if the salary is a {@linkplain #isDecimalSalary(int) decimal salary}
+     */
+    public long salaryCents(int index) {
+        return salaryCents[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the decimal scale the salary of the employee was written with
+     */
+    public int salaryScale(int index) {
+        return isDecimalSalary(index) ? decimalSalaries[index].scale() : salaryScales[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the salary of the employee with its original scale
+     */
+    public BigDecimal salary(int index) {
+        return isDecimalSalary(index)
+                ? decimalSalaries[index]
+                : BigDecimal.valueOf(salaryCents[index], MONEY_SCALE).setScale(salaryScales[index]);
+    }
+
+    /**
+     * Approximates a salary that cannot be represented in cents, for the calculations that only need an estimate.
+     *
+     * @param salary the salary
+     * @return the salary in cents, rounded down and limited to the range of a {@code long}
+     */
+    public static long approximateCents(BigDecimal salary) {
+        BigDecimal cents = salary.movePointRight(MONEY_SCALE).setScale(0, RoundingMode.FLOOR);
+        return cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE
+                : cents.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0 ? Long.MIN_VALUE : cents.longValue();
+    }
+
+    /**
+     * @return {@code true} if the salary of some employee cannot be represented in cents, so calculations in cents
+     *         must fall back to {@link #salary(int)} for the employees where {@link #isDecimalSalary(int)} holds
+     */
+    public boolean hasDecimalSalaries() {
+        return decimalSalaries != null;
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return {@code true} if the salary of the employee cannot be represented in cents and {@link #salaryCents(int)}
+     *         is only an approximation of it
+     */
+    public boolean isDecimalSalary(int index) {
+        return decimalSalaries != null && decimalSalaries[index] != null;
+    }
+
+    /**
+     * @param id the ID of the employee
+     * @return the index of the employee, or {@link IntIndexMap#ABSENT} if there is no employee with the ID
+     */
+    public int indexOf(int id) {
+        return indexById.get(id);
+    }
+
+    IntIndexMap indexById() {
+        return indexById;
+    }
+
+    /**
+     * Materialises the full record of an employee.
+     *
+     * @param index the index of the employee
+     * @return the employee
+     */
+    public Employee employee(int index) {
+        return employeeResolver.apply(index);
+    }
+
+    /**
+     * Returns a graph sharing the columns of this graph that materialises employees from a name dictionary instead
+     * of its employee source, so the source of this graph (a mapped report, a list) is no longer referenced.
+     *
+     * @param names the dictionary holding the names
+     * @param firstNames the code of the first name of every employee, indexed like the graph
+     * @param lastNames the code of the last name of every employee, indexed like the graph
+     * @return the graph
+     */
+    public OrgGraph withNames(NameDictionary names, int[] firstNames, int[] lastNames) {
+        return new OrgGraph(size, ids, managerIds, parents, childOffsets, children, salaryCents, salaryScales,
+                decimalSalaries, indexById,
+                index -> new Employee(ids[index], names.name(firstNames[index]), names.name(lastNames[index]),
+                        salary(index), parents[index] != NO_PARENT ? managerIds[index] : null));
+    }
+
+    /**
+     * Incrementally collects employee columns and builds an {@link OrgGraph} from them.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private int[] managerIds;
+        private boolean[] hasManager;
+        private long[] salaryCents;
+        private byte[] salaryScales;
+        private BigDecimal[] decimalSalaries;
+        private int decimalSalaryCount;
+
+        /**
+         * @param expectedSize the expected number of employees
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new int[capacity];
+            managerIds = new int[capacity];
+            hasManager = new boolean[capacity];
+            salaryCents = new long[capacity];
+            salaryScales = new byte[capacity];
+        }
+
+        /**
+         * Adds an employee.
+         *
+         * @param id the ID of the employee
+         * @param salary the salary of the employee
+         * @param managerId the manager ID of the employee, or {@code null} if the employee has no manager
+         * @return this builder
+         */
+        public Builder add(int id, BigDecimal salary, Integer managerId) {
+            return add(id, salary, managerId != null, managerId != null ? managerId : 0);
+        }
+
+        /**
+         * Adds an employee whose salary may not be representable in cents. Salaries that are representable are
+         * stored in cents like those added by {@link #add(int, long, int, boolean, int)}, the others are kept as
+         * {@code BigDecimal}.
+         *
+         * @param id the ID of the employee
+         * @param salary the salary of the employee
+         * @param hasManager {@code true} if the employee has a manager
+         * @param managerId the manager ID of the employee; ignored when {@code hasManager} is {@code false}
+         * @return this builder
+         */
+        public Builder add(int id, BigDecimal salary, boolean hasManager, int managerId) {
+            if (salary.scale() >= Byte.MIN_VALUE && salary.scale() <= Byte.MAX_VALUE) {
+                try {
+                    return add(id, salary.movePointRight(MONEY_SCALE).longValueExact(), salary.scale(), hasManager, managerId);
+                } catch (ArithmeticException e) {
+                    // More than two significant fraction digits, or too large for a long of cents
+                }
+            }
+            add(id, approximateCents(salary), 0, hasManager, managerId);
+            if (decimalSalaries == null) {
+                decimalSalaries = new BigDecimal[ids.length];
+            }
+            decimalSalaries[size - 1] = salary;
+            decimalSalaryCount++;
+            return this;
+        }
+
+        /**
+         * Adds a copy of an employee of another graph.
+         *
+         * @param graph the graph holding the employee
+         * @param index the index of the employee in that graph
+         * @return this builder
+         */
+        public Builder add(OrgGraph graph, int index) {
+            if (graph.isDecimalSalary(index)) {
+                return add(graph.id(index), graph.salary(index), graph.hasManager(index), graph.managerId(index));
+            }
+            return add(graph.id(index), graph.salaryCents(index), graph.salaryScale(index), graph.hasManager(index),
+                    graph.managerId(index));
+        }
+
+        /**
+         * Adds an employee from primitive columns.
+         *
+         * @param id the ID of the employee
+         * @param salaryCents the salary of the employee in minor units (cents)
+         * @param salaryScale the decimal scale the salary was written with; a scale that does not fit in a byte keeps
+         *                    the salary as {@code BigDecimal}
+         * @param hasManager {@code true} if the employee has a manager
+         * @param managerId the manager ID of the employee; ignored when {@code hasManager} is {@code false}
+         * @return this builder
+         * @throws IllegalArgumentException if the scale is below {@link Byte#MIN_VALUE}
+         */
+        public Builder add(int id, long salaryCents, int salaryScale, boolean hasManager, int managerId) {
+            if (salaryScale > Byte.MAX_VALUE) {
+                return add(id, BigDecimal.valueOf(salaryCents, MONEY_SCALE).setScale(salaryScale), hasManager, managerId);
+            }
+            if (salaryScale < Byte.MIN_VALUE) {
+                throw new IllegalArgumentException("Salary scale out of range: " + salaryScale);
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            this.ids[size] = id;
+            this.managerIds[size] = managerId;
+            this.hasManager[size] = hasManager;
+            this.salaryCents[size] = salaryCents;
+            this.salaryScales[size] = (byte) salaryScale;
+            if (decimalSalaries != null) {
+                decimalSalaries[size] = null;
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the number of employees added so far
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Removes every employee, keeping the allocated columns for reuse. Graphs already built are not affected,
+         * they do not share columns with the builder.
+         *
+         * @return this builder
+         */
+        public Builder clear() {
+            size = 0;
+            decimalSalaries = null;
+            decimalSalaryCount = 0;
+            return this;
+        }
+
+        /**
+         * Resolves manager IDs to indexes and lays out subordinates in CSR form.
+         * If several employees share an ID, managers are resolved to the last of them.
+         *
+         * @param employeeResolver function materialising the employee at a given index
+         * @return the graph
+         */
+        public OrgGraph build(IntFunction<Employee> employeeResolver) {
+            IntIndexMap indexById = new IntIndexMap(size);
+            for (int i = 0; i < size; i++) {
+                indexById.put(ids[i], i);
+            }
+
+            int[] parents = new int[size];
+            int[] childOffsets = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                int parent = hasManager[i] ? indexById.get(managerIds[i]) : NO_PARENT;
+                if (parent == IntIndexMap.ABSENT && hasManager[i]) {
+                    parent = UNKNOWN_PARENT;
+                }
+                parents[i] = parent;
+                if (parent >= 0) {
+                    childOffsets[parent + 1]++;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                childOffsets[i + 1] += childOffsets[i];
+            }
+
+            // Counting sort keeps subordinates of each manager in file order
+            int[] children = new int[childOffsets[size]];
+            int[] cursor = Arrays.copyOf(childOffsets, size);
+            for (int i = 0; i < size; i++) {
+                if (parents[i] >= 0) {
+                    children[cursor[parents[i]]++] = i;
+                }
+            }
+
+            return new OrgGraph(size, Arrays.copyOf(ids, size), Arrays.copyOf(managerIds, size), parents,
+                    childOffsets, children, Arrays.copyOf(salaryCents, size), Arrays.copyOf(salaryScales, size),
+                    decimalSalaryCount > 0 ? Arrays.copyOf(decimalSalaries, size) : null, indexById, employeeResolver);
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            managerIds = Arrays.copyOf(managerIds, capacity);
+            hasManager = Arrays.copyOf(hasManager, capacity);
+            salaryCents = Arrays.copyOf(salaryCents, capacity);
+            salaryScales = Arrays.copyOf(salaryScales, capacity);
+            if (decimalSalaries != null) {
+                decimalSalaries = Arrays.copyOf(decimalSalaries, capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.epam.graph;
+
+import com.epam.model.Employee;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code OrgGraphSnapshot} class writes an {@link OrgGraph} to a versioned binary file and loads it back
+ * through memory maps, so that repeated runs over the same report do not parse text again.
+ * <p>
+ * The file starts with a fixed header: magic number, format version, size, last-modified time and content fingerprint
+ * of the source CSV, number of employees, number of child links, capacity and size of the ID index, number of
+ * salaries that cannot be represented in cents and length of their text, and a CRC-32C checksum of the body. The body
+ * holds the graph columns in order: IDs, manager IDs, parent indexes, child offsets, children, salaries in cents,
+ * salary scales, row offsets in the source CSV, the key and slot arrays of the ID index, and the indexes of the
+ * salaries that cannot be represented in cents followed by those salaries as UTF-8 text, one per line. All values are
+ * big-endian.
+ * </p>
+ * <p>
+ * Names are not part of the snapshot; employees are materialised from the rows of the source CSV.
+ * </p>
+ */
+public final class OrgGraphSnapshot {
+    private static final int MAGIC = 0x4F524753; // "ORGS"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private OrgGraphSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot. The file is written next to its final location and then moved into place,
+     * so a concurrent reader never sees a partially written snapshot.
+     *
+     * @param snapshot the path of the snapshot file
+     * @param graph the graph to write
+     * @param rowOffsets the byte offset in the source CSV of the row of every employee, indexed like the graph
+     * @param sourceSize the size of the source CSV in bytes
+     * @param sourceLastModified the last-modified time of the source CSV in milliseconds
+     * @param sourceFingerprint a fingerprint of the content of the source CSV
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path snapshot, OrgGraph graph, long[] rowOffsets, long sourceSize, long sourceLastModified,
+                             long sourceFingerprint) throws IOException {
+        int size = graph.size();
+        int childCount = size == 0 ? 0 : graph.childEnd(size - 1);
+        int[] ids = new int[size];
+        int[] managerIds = new int[size];
+        int[] parents = new int[size];
+        int[] childOffsets = new int[size + 1];
+        int[] children = new int[childCount];
+        long[] salaryCents = new long[size];
+        byte[] salaryScales = new byte[size];
+        for (int index = 0; index < size; index++) {
+            ids[index] = graph.id(index);
+            managerIds[index] = graph.managerId(index);
+            parents[index] = graph.parent(index);
+            childOffsets[index] = graph.childStart(index);
+            salaryCents[index] = graph.salaryCents(index);
+            // Scales that do not fit in a byte are decimal salaries, written with their scale in the decimal section
+            if (!graph.isDecimalSalary(index)) {
+                salaryScales[index] = (byte) graph.salaryScale(index);
+            }
+        }
+        int[] decimalIndexes = IntStream.range(0, size).filter(graph::isDecimalSalary).toArray();
+        StringBuilder decimalSalaries = new StringBuilder();
+        for (int index : decimalIndexes) {
+            decimalSalaries.append(graph.salary(index)).append('\n');
+        }
+        byte[] decimalText = decimalSalaries.toString().getBytes(StandardCharsets.UTF_8);
+        childOffsets[size] = childCount;
+        for (int position = 0; position < childCount; position++) {
+            children[position] = graph.child(position);
+        }
+        IntIndexMap indexById = graph.indexById();
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SectionWriter writer = new SectionWriter(channel);
+            writer.ints(ids);
+            writer.ints(managerIds);
+            writer.ints(parents);
+            writer.ints(childOffsets);
+            writer.ints(children);
+            writer.longs(salaryCents);
+            writer.bytes(salaryScales);
+            writer.longs(rowOffsets);
+            writer.ints(indexById.keys());
+            writer.ints(indexById.slots());
+            writer.ints(decimalIndexes);
+            writer.bytes(decimalText);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceLastModified).putLong(sourceFingerprint)
+                    .putInt(size).putInt(childCount).putInt(indexById.slots().length).putInt(indexById.size())
+                    .putInt(decimalIndexes.length).putInt(decimalText.length)
+                    .putLong(writer.checksum.getValue())
+                    .flip();
+            channel.write(header, 0);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot.
+     *
+     * @param snapshot the path of the snapshot file
+     * @param sourceSize the current size of the source CSV in bytes
+     * @param sourceLastModified the current last-modified time of the source CSV in milliseconds
+     * @param sourceFingerprint the current fingerprint of the content of the source CSV
+     * @param rowResolver function materialising the employee stored at a byte offset of the source CSV
+     * @return the graph
+     * @throws IOException if the snapshot cannot be read, has another format version, does not match the source CSV
+     *                     or fails the checksum
+     */
+    public static OrgGraph read(Path snapshot, long sourceSize, long sourceLastModified, long sourceFingerprint,
+                                LongFunction<Employee> rowResolver) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Snapshot " + snapshot + " is truncated");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(snapshot + " is not an organisation snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Snapshot " + snapshot + " has unsupported version " + version);
+            }
+            if (header.getLong() != sourceSize || header.getLong() != sourceLastModified
+                    || header.getLong() != sourceFingerprint) {
+                throw new IOException("Snapshot " + snapshot + " does not match its source file");
+            }
+            int size = header.getInt();
+            int childCount = header.getInt();
+            int indexCapacity = header.getInt();
+            int indexSize = header.getInt();
+            int decimalCount = header.getInt();
+            int decimalTextLength = header.getInt();
+            long checksum = header.getLong();
+
+            SectionReader reader = new SectionReader(channel);
+            int[] ids = reader.ints(size);
+            int[] managerIds = reader.ints(size);
+            int[] parents = reader.ints(size);
+            int[] childOffsets = reader.ints(size + 1);
+            int[] children = reader.ints(childCount);
+            long[] salaryCents = reader.longs(size);
+            byte[] salaryScales = reader.bytes(size);
+            long[] rowOffsets = reader.longs(size);
+            int[] indexKeys = reader.ints(indexCapacity);
+            int[] indexSlots = reader.ints(indexCapacity);
+            int[] decimalIndexes = reader.ints(decimalCount);
+            byte[] decimalText = reader.bytes(decimalTextLength);
+            if (reader.checksum.getValue() != checksum || reader.position != channel.size()) {
+                throw new IOException("Snapshot " + snapshot + " is corrupted");
+            }
+
+            BigDecimal[] decimalSalaries = null;
+            if (decimalCount > 0) {
+                decimalSalaries = new BigDecimal[size];
+                String[] salaries = new String(decimalText, StandardCharsets.UTF_8).split("\n");
+                for (int i = 0; i < decimalCount; i++) {
+                    decimalSalaries[decimalIndexes[i]] = new BigDecimal(salaries[i]);
+                }
+            }
+
+            return new OrgGraph(size, ids, managerIds, parents, childOffsets, children, salaryCents, salaryScales,
+                    decimalSalaries, new IntIndexMap(indexKeys, indexSlots, indexSize), index -> rowResolver.apply(rowOffsets[index]));
+        }
+    }
+
+    /**
+     * Writes arrays after the header in chunks, updating the checksum.
+     */
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        private final CRC32C checksum = new CRC32C();
+        private long position = HEADER_SIZE;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ints(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, CHUNK_SIZE / Integer.BYTES);
+                buffer.clear();
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.limit(length * Integer.BYTES);
+                flush();
+                offset += length;
+            }
+        }
+
+        void longs(long[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, CHUNK_SIZE / Long.BYTES);
+                buffer.clear();
+                buffer.asLongBuffer().put(values, offset, length);
+                buffer.limit(length * Long.BYTES);
+                flush();
+                offset += length;
+            }
+        }
+
+        void bytes(byte[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, CHUNK_SIZE);
+                buffer.clear();
+                buffer.put(values, offset, length);
+                buffer.flip();
+                flush();
+                offset += length;
+            }
+        }
+
+        private void flush() throws IOException {
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * Maps the sections of the body one by one and copies them into arrays, updating the checksum.
+     */
+    private static final class SectionReader {
+        private final FileChannel channel;
+        private final CRC32C checksum = new CRC32C();
+        private long position = HEADER_SIZE;
+
+        SectionReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int[] ints(int length) throws IOException {
+            int[] values = new int[length];
+            map((long) length * Integer.BYTES).asIntBuffer().get(values);
+            return values;
+        }
+
+        long[] longs(int length) throws IOException {
+            long[] values = new long[length];
+            map((long) length * Long.BYTES).asLongBuffer().get(values);
+            return values;
+        }
+
+        byte[] bytes(int length) throws IOException {
+            byte[] values = new byte[length];
+            map(length).get(values);
+            return values;
+        }
+
+        private ByteBuffer map(long length) throws IOException {
+            if (length < 0 || position + length > channel.size()) {
+                throw new IOException("Snapshot is truncated");
+            }
+            ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            checksum.update(section.duplicate());
+            position += length;
+            return section;
+        }
+    }
+}
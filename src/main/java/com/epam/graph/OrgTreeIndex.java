@@ -0,0 +1,257 @@
+package com.epam.graph;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Precomputed index over the reporting tree of an {@link OrgGraph}, answering subtree and common-manager queries
+ * without walking the organisation.
+ * <p>
+ * Employees are laid out in Euler-tour (pre-order) order, so the subtree of every employee is a contiguous range
+ * {@code [entry, exit)} of that order. Headcounts are range lengths and payrolls are differences of salary prefix
+ * sums over the order, both answered in O(1). The prefix sums are in cents, or {@code BigDecimal} if the graph
+ * {@linkplain OrgGraph#hasDecimalSalaries() has salaries that cannot be represented in cents}. The deepest level
+ * below every employee is computed in one pass over the reversed order. Ancestors and lowest common managers are
+ * found by binary lifting in O(log depth).
+ * </p>
+ * <p>
+ * Every employee without a manager in the graph, including employees whose manager is unknown, is the top of its own
+ * tree with depth 0. Employees of different trees have no common manager. Instances are immutable.
+ * </p>
+ */
+public final class OrgTreeIndex {
+    private static final int NONE = -1;
+
+    private final OrgGraph graph;
+    private final int[] entry;
+    private final int[] exit;
+    private final int[] depths;
+    private final int[] maxDepths;
+    private final long[] payrollPrefix;
+    private final BigDecimal[] decimalPayrollPrefix;
+    /**
+     * {@code ancestors[k][index]} is the manager {@code 2^k} levels above the employee, or {@link #NONE}.
+     */
+    private final int[][] ancestors;
+
+    private OrgTreeIndex(OrgGraph graph, int[] entry, int[] exit, int[] depths, int[] maxDepths,
+                         long[] payrollPrefix, BigDecimal[] decimalPayrollPrefix, int[][] ancestors) {
+        this.graph = graph;
+        this.entry = entry;
+        this.exit = exit;
+        this.depths = depths;
+        this.maxDepths = maxDepths;
+        this.payrollPrefix = payrollPrefix;
+        this.decimalPayrollPrefix = decimalPayrollPrefix;
+        this.ancestors = ancestors;
+    }
+
+    /**
+     * Builds the index in O(n log depth) time and memory.
+     *
+     * @param graph the organisation
+     * @return the index
+     * @throws IllegalStateException if some reporting lines contain a cycle
+     * @throws ArithmeticException if the total payroll does not fit in a {@code long} of cents
+     */
+    public static OrgTreeIndex of(OrgGraph graph) {
+        int size = graph.size();
+        int[] entry = new int[size];
+        int[] exit = new int[size];
+        int[] depths = new int[size];
+        int[] order = new int[size];
+        int[] stack = new int[size];
+        int[] nextChild = new int[size];
+        int visited = 0;
+        int maxDepth = 0;
+
+        // Iterative pre-order walk of every tree; an employee leaves the stack once all subordinates are visited
+        for (int root = 0; root < size; root++) {
+            if (graph.parent(root) >= 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            depths[root] = 0;
+            entry[root] = visited;
+            order[visited++] = root;
+            nextChild[root] = graph.childStart(root);
+            while (top > 0) {
+                int manager = stack[top - 1];
+                if (nextChild[manager] < graph.childEnd(manager)) {
+                    int subordinate = graph.child(nextChild[manager]++);
+                    depths[subordinate] = depths[manager] + 1;
+                    maxDepth = Math.max(maxDepth, depths[subordinate]);
+                    entry[subordinate] = visited;
+                    order[visited++] = subordinate;
+                    nextChild[subordinate] = graph.childStart(subordinate);
+                    stack[top++] = subordinate;
+                } else {
+                    exit[manager] = visited;
+                    top--;
+                }
+            }
+        }
+        if (visited < size) {
+            throw new IllegalStateException((size - visited) + " employees have reporting lines that contain a cycle");
+        }
+
+        long[] payrollPrefix = null;
+        BigDecimal[] decimalPayrollPrefix = null;
+        if (graph.hasDecimalSalaries()) {
+            decimalPayrollPrefix = new BigDecimal[size + 1];
+            decimalPayrollPrefix[0] = BigDecimal.ZERO;
+            for (int position = 0; position < size; position++) {
+                decimalPayrollPrefix[position + 1] = decimalPayrollPrefix[position].add(graph.salary(order[position]));
+            }
+        } else {
+            payrollPrefix = new long[size + 1];
+            for (int position = 0; position < size; position++) {
+                payrollPrefix[position + 1] = Math.addExact(payrollPrefix[position], graph.salaryCents(order[position]));
+            }
+        }
+
+        // Subordinates come after their manager in the order, so a reversed pass sees every subtree complete
+        int[] maxDepths = depths.clone();
+        for (int position = size - 1; position >= 0; position--) {
+            int index = order[position];
+            int parent = graph.parent(index);
+            if (parent >= 0 && maxDepths[index] > maxDepths[parent]) {
+                maxDepths[parent] = maxDepths[index];
+            }
+        }
+
+        int levels = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maxDepth));
+        int[][] ancestors = new int[levels][];
+        ancestors[0] = new int[size];
+        for (int index = 0; index < size; index++) {
+            ancestors[0][index] = Math.max(graph.parent(index), NONE);
+        }
+        for (int level = 1; level < levels; level++) {
+            int[] previous = ancestors[level - 1];
+            int[] current = new int[size];
+            for (int index = 0; index < size; index++) {
+                current[index] = previous[index] == NONE ? NONE : previous[previous[index]];
+            }
+            ancestors[level] = current;
+        }
+
+        return new OrgTreeIndex(graph, entry, exit, depths, maxDepths, payrollPrefix, decimalPayrollPrefix, ancestors);
+    }
+
+    /**
+     * @return the indexed graph
+     */
+    public OrgGraph graph() {
+        return graph;
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the number of levels between the employee and the top of their tree
+     */
+    public int depth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the number of employees in the subtree of the employee, including the employee
+     */
+    public int subtreeSize(int index) {
+        return exit[index] - entry[index];
+    }
+
+    /**
+     * @param index the index of the manager
+     * @return the number of direct and indirect subordinates of the manager
+     */
+    public int headcountBelow(int index) {
+        return subtreeSize(index) - 1;
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the total salary of the subtree of the employee in cents, including the employee; rounded down if the
+     *         graph has salaries that cannot be represented in cents
+     * @throws ArithmeticException if that total does not fit in a {@code long}
+     */
+    public long subtreePayrollCents(int index) {
+        if (decimalPayrollPrefix != null) {
+            return subtreePayroll(index).movePointRight(OrgGraph.MONEY_SCALE).setScale(0, RoundingMode.FLOOR).longValueExact();
+        }
+        return payrollPrefix[exit[index]] - payrollPrefix[entry[index]];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the total salary of the subtree of the employee, including the employee
+     */
+    public BigDecimal subtreePayroll(int index) {
+        if (decimalPayrollPrefix != null) {
+            return decimalPayrollPrefix[exit[index]].subtract(decimalPayrollPrefix[entry[index]]);
+        }
+        return BigDecimal.valueOf(subtreePayrollCents(index), OrgGraph.MONEY_SCALE);
+    }
+
+    /**
+     * @param index the index of the employee
+     * @return the number of levels between the employee and the deepest employee in their subtree
+     */
+    public int maxDepthBelow(int index) {
+        return maxDepths[index] - depths[index];
+    }
+
+    /**
+     * @param managerIndex the index of the possible manager
+     * @param index the index of the employee
+     * @return {@code true} if the employee is in the subtree of the manager, or is the manager
+     */
+    public boolean isInSubtree(int managerIndex, int index) {
+        return entry[managerIndex] <= entry[index] && entry[index] < exit[managerIndex];
+    }
+
+    /**
+     * @param index the index of the employee
+     * @param levels the number of levels to go up
+     * @return the index of the manager {@code levels} levels above the employee, or {@code -1} if there is none
+     */
+    public int ancestor(int index, int levels) {
+        if (levels > depths[index]) {
+            return NONE;
+        }
+        int current = index;
+        for (int level = 0; levels > 0; level++, levels >>>= 1) {
+            if ((levels & 1) != 0) {
+                current = ancestors[level][current];
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Finds the lowest employee whose subtree contains both employees. If one employee manages the other,
+     * directly or indirectly, that employee is returned.
+     *
+     * @param first the index of the first employee
+     * @param second the index of the second employee
+     * @return the index of the lowest common manager, or {@code -1} if the employees are in different trees
+     */
+    public int lowestCommonManager(int first, int second) {
+        if (isInSubtree(first, second)) {
+            return first;
+        }
+        if (isInSubtree(second, first)) {
+            return second;
+        }
+        int current = first;
+        for (int level = ancestors.length - 1; level >= 0; level--) {
+            int candidate = ancestors[level][current];
+            if (candidate != NONE && !isInSubtree(candidate, second)) {
+                current = candidate;
+            }
+        }
+        int manager = ancestors[0][current];
+        return manager != NONE && isInSubtree(manager, second) ? manager : NONE;
+    }
+}
@@ -0,0 +1,139 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.MalformedRow;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A byte range of a mapped employee report that starts at the beginning of a line and ends after a line terminator
+ * or at the end of the file. Chunks are parsed independently, possibly on different threads, into primitive columns
+ * and then appended to an {@link OrgGraph.Builder} in file order.
+ * <p>
+ * Line numbers of malformed rows are counted from the start of the chunk until the chunk is appended.
+ * The parsed columns live in {@link CsvParseBuffers}, which must not be reused until the chunk is appended.
+ * </p>
+ */
+final class CsvChunk {
+    private final ByteBuffer segment;
+    private final long segmentStart;
+    private final int from;
+    private final int to;
+    private final boolean containsHeader;
+
+    private int rows;
+    private long lines;
+    private CsvParseBuffers buffers;
+    private final List<MalformedRow> malformedRows = new ArrayList<>();
+
+    /**
+     * @param segment the mapped segment holding the chunk
+     * @param segmentStart the byte offset of the segment in the file
+     * @param from the position of the first byte of the chunk in the segment
+     * @param to the position after the last byte of the chunk in the segment
+     * @param containsHeader {@code true} if the first line of the chunk is the header of the file
+     */
+    CsvChunk(ByteBuffer segment, long segmentStart, int from, int to, boolean containsHeader) {
+        this.segment = segment;
+        this.segmentStart = segmentStart;
+        this.from = from;
+        this.to = to;
+        this.containsHeader = containsHeader;
+    }
+
+    /**
+     * Parses every line of the chunk into buffers of its own. The header line and empty lines are skipped.
+     *
+     * @return this chunk
+     */
+    CsvChunk parse() {
+        return parseInto(new CsvParseBuffers());
+    }
+
+    /**
+     * Parses every line of the chunk into the given buffers. The header line and empty lines are skipped.
+     *
+     * @param buffers the buffers holding the parsed columns until the chunk is appended
+     * @return this chunk
+     */
+    CsvChunk parseInto(CsvParseBuffers buffers) {
+        this.buffers = buffers;
+        buffers.reserve(Math.max(16, (to - from) / 32));
+
+        CsvRowParser parser = buffers.parser;
+        int start = from;
+        while (start < to) {
+            int newline = start;
+            while (newline < to && segment.get(newline) != '\n') {
+                newline++;
+            }
+            int end = newline > start && segment.get(newline - 1) == '\r' ? newline - 1 : newline;
+            lines++;
+
+            if ((lines > 1 || !containsHeader) && end > start) {
+                String error = parser.parse(segment, start, end);
+                if (error != null) {
+                    malformedRows.add(new MalformedRow(lines, error));
+                } else {
+                    add(parser, segmentStart + start);
+                }
+            }
+            start = newline + 1;
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of lines in the chunk
+     */
+    long lines() {
+        return lines;
+    }
+
+    /**
+     * @return the number of well-formed rows in the chunk
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Appends the parsed rows to the builder and their offsets to the row offset array.
+     *
+     * @param builder the graph builder
+     * @param offsets the array of row offsets, indexed like the builder
+     * @param firstLineNumber the line number of the first line of the chunk in the file
+     * @param malformed the list collecting malformed rows of the file
+     */
+    void appendTo(OrgGraph.Builder builder, long[] offsets, long firstLineNumber, List<MalformedRow> malformed) {
+        System.arraycopy(buffers.offsets, 0, offsets, builder.size(), rows);
+        for (int row = 0; row < rows; row++) {
+            if (buffers.decimalSalaries[row] != null) {
+                builder.add(buffers.ids[row], buffers.decimalSalaries[row], buffers.hasManager[row], buffers.managerIds[row]);
+            } else {
+                builder.add(buffers.ids[row], buffers.salaryCents[row], buffers.salaryScales[row],
+                        buffers.hasManager[row], buffers.managerIds[row]);
+            }
+        }
+        for (MalformedRow row : malformedRows) {
+            malformed.add(new MalformedRow(firstLineNumber + row.lineNumber() - 1, row.reason()));
+        }
+    }
+
+    private void add(CsvRowParser parser, long rowOffset) {
+        if (rows == buffers.ids.length) {
+            buffers.grow();
+        }
+        buffers.ids[rows] = parser.id;
+        buffers.salaryCents[rows] = parser.salaryCents;
+        // Cents salaries have at most 18 fraction digits; decimal salaries keep their scale in the BigDecimal
+        buffers.salaryScales[rows] = parser.decimalSalary == null ? (byte) parser.salaryScale : 0;
+        buffers.decimalSalaries[rows] = parser.decimalSalary;
+        buffers.hasManager[rows] = parser.hasManager;
+        buffers.managerIds[rows] = parser.managerId;
+        buffers.offsets[rows] = rowOffset;
+        rows++;
+    }
+}
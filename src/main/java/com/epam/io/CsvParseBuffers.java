@@ -0,0 +1,80 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Scratch space for reading employee reports on one thread: the row parser, the columns of the chunk being parsed,
+ * the graph builder and the row offsets of the file.
+ * <p>
+ * Reading many files through {@link MappedCsvReader#read(MappedCsvFile, CsvParseBuffers)} with the same instance
+ * grows these arrays to the largest file once instead of allocating and growing them for every file. The graphs
+ * returned do not share any array with the buffers. An instance must not be used by more than one thread at a time.
+ * </p>
+ */
+public final class CsvParseBuffers {
+    final CsvRowParser parser = new CsvRowParser();
+    final OrgGraph.Builder builder = new OrgGraph.Builder(0);
+
+    int[] ids;
+    long[] salaryCents;
+    byte[] salaryScales;
+    BigDecimal[] decimalSalaries;
+    boolean[] hasManager;
+    int[] managerIds;
+    long[] offsets;
+    private long[] fileOffsets = new long[16];
+
+    /**
+     * Creates empty buffers; they grow as rows are parsed.
+     */
+    public CsvParseBuffers() {
+        allocate(16);
+    }
+
+    /**
+     * Makes room for at least {@code capacity} chunk rows. The chunk columns are not preserved.
+     */
+    void reserve(int capacity) {
+        if (ids.length < capacity) {
+            allocate(capacity);
+        }
+    }
+
+    /**
+     * Grows the chunk columns by half, preserving their content.
+     */
+    void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        salaryCents = Arrays.copyOf(salaryCents, capacity);
+        salaryScales = Arrays.copyOf(salaryScales, capacity);
+        decimalSalaries = Arrays.copyOf(decimalSalaries, capacity);
+        hasManager = Arrays.copyOf(hasManager, capacity);
+        managerIds = Arrays.copyOf(managerIds, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+    }
+
+    /**
+     * @param capacity the number of rows of the file read so far
+     * @return the row offsets of the file, with room for at least {@code capacity} rows
+     */
+    long[] fileOffsets(int capacity) {
+        if (fileOffsets.length < capacity) {
+            fileOffsets = Arrays.copyOf(fileOffsets, Math.max(capacity, fileOffsets.length + (fileOffsets.length >> 1)));
+        }
+        return fileOffsets;
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        salaryCents = new long[capacity];
+        salaryScales = new byte[capacity];
+        decimalSalaries = new BigDecimal[capacity];
+        hasManager = new boolean[capacity];
+        managerIds = new int[capacity];
+        offsets = new long[capacity];
+    }
+}
@@ -0,0 +1,17 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.MalformedRow;
+
+import java.util.List;
+
+/**
+ * The result of reading an employee report: the organisation graph built from the well-formed rows
+ * and the rows that were skipped.
+ *
+ * @param graph the graph of the organisation
+ * @param malformedRows the rows that could not be parsed, in file order
+ * @param rowOffsets the byte offset in the file of the row of every employee, indexed like the graph
+ */
+public record CsvReadResult(OrgGraph graph, List<MalformedRow> malformedRows, long[] rowOffsets) {
+}
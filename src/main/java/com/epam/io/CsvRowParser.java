@@ -0,0 +1,267 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.Employee;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses a single row of an employee report directly from bytes, without allocating intermediate strings.
+ * <p>
+ * The row is expected to have the columns id, firstName, lastName, salary and an optional managerId. Columns after
+ * the fifth one are ignored. Salaries are parsed into cents; the rare salaries that cannot be represented in cents,
+ * that are written with more than 18 fraction digits, or that are not plain decimals, are parsed with
+ * {@link BigDecimal#BigDecimal(String)} like the rest of the application does. After a successful {@link #parse} the
+ * parsed values are available through the {@link EmployeeRow} accessors, and names are decoded only by
+ * {@link #toEmployee()}. Instances are reused from row to row and are not thread-safe.
+ * </p>
+ */
+final class CsvRowParser implements EmployeeRow {
+    private static final int COLUMNS = 5;
+    private static final int MONEY_SCALE = 2;
+    private static final long MAX_SALARY_UNITS = Long.MAX_VALUE / 100;
+    // Beyond this the scale may not fit the byte column of OrgGraph; such salaries are kept as BigDecimal
+    private static final int MAX_FRACTION_DIGITS = 18;
+
+    int id;
+    long salaryCents;
+    int salaryScale;
+    boolean hasManager;
+    int managerId;
+    BigDecimal decimalSalary;
+
+    private ByteBuffer buffer;
+    private final int[] fieldStarts = new int[COLUMNS];
+    private final int[] fieldEnds = new int[COLUMNS];
+    private int parsedInt;
+
+    /**
+     * Parses a row.
+     *
+     * @param buffer the buffer holding the row
+     * @param start the position of the first byte of the row
+     * @param end the position after the last byte of the row, excluding line terminators
+     * @return {@code null} if the row was parsed, or the reason it is malformed
+     */
+    String parse(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        int fields = splitFields(buffer, start, end);
+        if (fields < 4) {
+            return "expected at least 4 columns but found " + fields;
+        }
+        if (!parseInt(buffer, fieldStarts[0], fieldEnds[0])) {
+            return "invalid id '" + text(buffer, fieldStarts[0], fieldEnds[0]) + "'";
+        }
+        id = parsedInt;
+        decimalSalary = null;
+        if (!parseSalary(buffer, fieldStarts[3], fieldEnds[3]) && !parseDecimalSalary(buffer, fieldStarts[3], fieldEnds[3])) {
+            return "invalid salary '" + text(buffer, fieldStarts[3], fieldEnds[3]) + "'";
+        }
+        hasManager = fields == COLUMNS && fieldStarts[4] < fieldEnds[4];
+        managerId = 0;
+        if (hasManager) {
+            if (!parseInt(buffer, fieldStarts[4], fieldEnds[4])) {
+                return "invalid managerId '" + text(buffer, fieldStarts[4], fieldEnds[4]) + "'";
+            }
+            managerId = parsedInt;
+        }
+        return null;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public long salaryCents() {
+        return salaryCents;
+    }
+
+    @Override
+    public int salaryScale() {
+        return salaryScale;
+    }
+
+    @Override
+    public boolean isDecimalSalary() {
+        return decimalSalary != null;
+    }
+
+    @Override
+    public BigDecimal salary() {
+        return decimalSalary != null ? decimalSalary : BigDecimal.valueOf(salaryCents, MONEY_SCALE).setScale(salaryScale);
+    }
+
+    @Override
+    public boolean hasManager() {
+        return hasManager;
+    }
+
+    @Override
+    public int managerId() {
+        return managerId;
+    }
+
+    /**
+     * @param column the index of a column of the last parsed row, at most 4
+     * @return the position of the first byte of the column
+     */
+    int fieldStart(int column) {
+        return fieldStarts[column];
+    }
+
+    /**
+     * @param column the index of a column of the last parsed row, at most 4
+     * @return the position after the last byte of the column
+     */
+    int fieldEnd(int column) {
+        return fieldEnds[column];
+    }
+
+    @Override
+    public Employee toEmployee() {
+        String firstName = text(buffer, fieldStarts[1], fieldEnds[1]);
+        String lastName = text(buffer, fieldStarts[2], fieldEnds[2]);
+        return new Employee(id, firstName, lastName, salary(), hasManager ? managerId : null);
+    }
+
+    private int splitFields(ByteBuffer buffer, int start, int end) {
+        int fields = 0;
+        int fieldStart = start;
+        for (int position = start; position < end && fields < COLUMNS - 1; position++) {
+            if (buffer.get(position) == ',') {
+                fieldStarts[fields] = fieldStart;
+                fieldEnds[fields] = position;
+                fields++;
+                fieldStart = position + 1;
+            }
+        }
+        int fieldEnd = end;
+        if (fields == COLUMNS - 1) {
+            // Ignore any columns after the managerId
+            for (int position = fieldStart; position < end; position++) {
+                if (buffer.get(position) == ',') {
+                    fieldEnd = position;
+                    break;
+                }
+            }
+        }
+        fieldStarts[fields] = fieldStart;
+        fieldEnds[fields] = fieldEnd;
+        return fields + 1;
+    }
+
+    private boolean parseInt(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        int position = start;
+        boolean negative = false;
+        byte first = buffer.get(position);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            position++;
+        }
+        if (position == end) {
+            return false;
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return false;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return false;
+        }
+        parsedInt = (int) value;
+        return true;
+    }
+
+    /**
+     * Parses a plain decimal number into cents and remembers the scale it was written with.
+     * Fraction digits after the second one are accepted only when they are zeros.
+     */
+    private boolean parseSalary(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        boolean negative = false;
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        long units = 0;
+        long fractionCents = 0;
+        int fractionDigits = -1;
+        int digits = 0;
+        for (; position < end; position++) {
+            byte current = buffer.get(position);
+            if (current == '.') {
+                if (fractionDigits >= 0) {
+                    return false;
+                }
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = current - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            digits++;
+            if (fractionDigits < 0) {
+                units = units * 10 + digit;
+                if (units > MAX_SALARY_UNITS) {
+                    return false;
+                }
+            } else {
+                fractionDigits++;
+                if (fractionDigits > MAX_FRACTION_DIGITS) {
+                    return false;
+                }
+                if (fractionDigits <= 2) {
+                    fractionCents = fractionCents * 10 + digit;
+                } else if (digit != 0) {
+                    return false;
+                }
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (fractionDigits == 1) {
+            fractionCents *= 10;
+        }
+        long cents = units * 100 + fractionCents;
+        salaryCents = negative ? -cents : cents;
+        salaryScale = Math.max(fractionDigits, 0);
+        return true;
+    }
+
+    /**
+     * Parses a salary the fast path rejected, keeping it as {@code BigDecimal}.
+     */
+    private boolean parseDecimalSalary(ByteBuffer buffer, int start, int end) {
+        try {
+            decimalSalary = new BigDecimal(text(buffer, start, end));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        salaryCents = OrgGraph.approximateCents(decimalSalary);
+        salaryScale = decimalSalary.scale();
+        return true;
+    }
+
+    static String text(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
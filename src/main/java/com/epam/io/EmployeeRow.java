@@ -0,0 +1,57 @@
+package com.epam.io;
+
+import com.epam.model.Employee;
+
+import java.math.BigDecimal;
+
+/**
+ * A parsed row of an employee report, exposed without materialising an {@link Employee}.
+ * <p>
+ * Instances are reused from row to row while a report is streamed and must not be retained by the caller.
+ * </p>
+ */
+public interface EmployeeRow {
+    /**
+     * @return the ID of the employee
+     */
+    int id();
+
+    /**
+     * @return the salary of the employee in minor units (cents); rounded down, and limited to the range of a
+     *         {@code long}, if {@link #isDecimalSalary()} holds
+     */
+    long salaryCents();
+
+    /**
+     * @return the decimal scale the salary was written with
+     */
+    int salaryScale();
+
+    /**
+     * @return {@code true} if the salary cannot be represented in cents, having more than two significant fraction
+     *         digits or being too large, and must be read with {@link #salary()}
+     */
+    boolean isDecimalSalary();
+
+    /**
+     * @return the exact salary of the employee
+     */
+    BigDecimal salary();
+
+    /**
+     * @return {@code true} if the row has a manager ID
+     */
+    boolean hasManager();
+
+    /**
+     * @return the manager ID; only meaningful when {@link #hasManager()} is {@code true}
+     */
+    int managerId();
+
+    /**
+     * Materialises the row, decoding its names.
+     *
+     * @return the employee
+     */
+    Employee toEmployee();
+}
@@ -0,0 +1,15 @@
+package com.epam.io;
+
+/**
+ * Receives the rows of an employee report while it is streamed.
+ */
+@FunctionalInterface
+public interface EmployeeRowHandler {
+    /**
+     * Handles a well-formed row.
+     *
+     * @param lineNumber the 1-based line number of the row, the header being line 1
+     * @param row the parsed row, valid only for the duration of the call
+     */
+    void handle(long lineNumber, EmployeeRow row);
+}
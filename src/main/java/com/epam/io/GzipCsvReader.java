@@ -0,0 +1,251 @@
+package com.epam.io;
+
+import com.epam.graph.NameDictionary;
+import com.epam.graph.OrgGraph;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.model.MalformedRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@code GzipCsvReader} class reads a gzip-compressed employee report into an {@link OrgGraph} without writing
+ * the decompressed report to disk.
+ * <p>
+ * Reading is a two-stage pipeline. An inflater thread decompresses the file into blocks taken from a small pool,
+ * while the calling thread parses the blocks already inflated, so parsing overlaps decompression and the read takes
+ * about as long as the slower of the two. Blocks go back to the pool as soon as they are parsed; a line that spans
+ * two blocks is completed in a separate buffer. Decompressed bytes are not kept, so names are interned into a
+ * {@link NameDictionary} while parsing, and the row offsets of the result are offsets in the decompressed report.
+ * </p>
+ * <p>
+ * Rows are parsed as by {@link MappedCsvReader}: the header line and empty lines are skipped, and malformed rows are
+ * collected with their line numbers.
+ * </p>
+ */
+public final class GzipCsvReader {
+    static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    static final int DEFAULT_BLOCKS = 4;
+    private static final int INFLATER_BUFFER_SIZE = 1 << 16;
+
+    private GzipCsvReader() {
+    }
+
+    /**
+     * Reads a gzip-compressed employee report.
+     *
+     * @param path the path to the {@code .csv.gz} file
+     * @return the graph of the organisation, with names held in a dictionary, and the malformed rows
+     * @throws IOException if the file cannot be read or is not a valid gzip file
+     */
+    public static CsvReadResult read(Path path) throws IOException {
+        return read(path, DEFAULT_BLOCK_SIZE, DEFAULT_BLOCKS);
+    }
+
+    static CsvReadResult read(Path path, int blockSize, int blocks) throws IOException {
+        BlockingQueue<Block> free = new ArrayBlockingQueue<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            free.add(new Block(new byte[blockSize]));
+        }
+        // Room for every block and the end of the stream, so the inflater never waits to hand a block over
+        BlockingQueue<Block> inflated = new ArrayBlockingQueue<>(blocks + 1);
+
+        InputStream input = new GZIPInputStream(Files.newInputStream(path), INFLATER_BUFFER_SIZE);
+        Thread inflater = new Thread(() -> inflate(input, free, inflated), "gzip-inflater");
+        inflater.setDaemon(true);
+        inflater.start();
+        try {
+            return new Parser().parse(path, free, inflated);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + path, e);
+        } finally {
+            // Stops an inflater still waiting for a free block after a failure; it closes the input itself
+            inflater.interrupt();
+        }
+    }
+
+    /**
+     * The inflater stage: fills free blocks with decompressed bytes until the end of the stream or a failure,
+     * then closes the input.
+     */
+    private static void inflate(InputStream input, BlockingQueue<Block> free, BlockingQueue<Block> inflated) {
+        Phase phase = PhaseMetrics.start("inflateGzip");
+        try (input) {
+            long offset = 0;
+            while (true) {
+                Block block = free.take();
+                block.length = input.readNBytes(block.bytes, 0, block.bytes.length);
+                block.offset = offset;
+                offset += block.length;
+                if (block.length > 0) {
+                    inflated.put(block);
+                }
+                if (block.length < block.bytes.length) {
+                    inflated.put(Block.end(null));
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            inflated.add(Block.end(e));
+        } catch (InterruptedException e) {
+            // The parser gave up
+        } finally {
+            phase.close();
+        }
+    }
+
+    /**
+     * A block of decompressed bytes, or the end of the stream.
+     */
+    private static final class Block {
+        final byte[] bytes;
+        final IOException failure;
+        int length;
+        long offset;
+
+        Block(byte[] bytes) {
+            this(bytes, null);
+        }
+
+        private Block(byte[] bytes, IOException failure) {
+            this.bytes = bytes;
+            this.failure = failure;
+        }
+
+        static Block end(IOException failure) {
+            return new Block(null, failure);
+        }
+
+        boolean isEnd() {
+            return bytes == null;
+        }
+    }
+
+    /**
+     * The parser stage, run on the calling thread.
+     */
+    private static final class Parser {
+        private final CsvRowParser parser = new CsvRowParser();
+        private final OrgGraph.Builder builder = new OrgGraph.Builder(0);
+        private final NameDictionary names = new NameDictionary();
+        private final List<MalformedRow> malformedRows = new ArrayList<>();
+        private long[] rowOffsets = new long[16];
+        private int[] firstNames = new int[16];
+        private int[] lastNames = new int[16];
+        private long lineNumber;
+        // The start of a line continued in the next block
+        private byte[] carry = new byte[256];
+        private int carryLength;
+        private long carryOffset;
+
+        CsvReadResult parse(Path path, BlockingQueue<Block> free, BlockingQueue<Block> inflated)
+                throws IOException, InterruptedException {
+            Block block;
+            while (!(block = inflated.take()).isEnd()) {
+                parseBlock(block);
+                free.put(block);
+            }
+            if (block.failure != null) {
+                throw new IOException("Cannot decompress " + path + ": " + block.failure.getMessage(), block.failure);
+            }
+            return finish();
+        }
+
+        private void parseBlock(Block block) {
+            ByteBuffer buffer = ByteBuffer.wrap(block.bytes, 0, block.length);
+            int start = 0;
+            if (carryLength > 0) {
+                int newline = indexOfNewline(block.bytes, 0, block.length);
+                int end = newline < 0 ? block.length : newline;
+                append(block.bytes, 0, end);
+                if (newline < 0) {
+                    return;
+                }
+                line(ByteBuffer.wrap(carry), 0, carryLength, carryOffset);
+                carryLength = 0;
+                start = newline + 1;
+            }
+            while (start < block.length) {
+                int newline = indexOfNewline(block.bytes, start, block.length);
+                if (newline < 0) {
+                    carryOffset = block.offset + start;
+                    append(block.bytes, start, block.length);
+                    return;
+                }
+                line(buffer, start, newline, block.offset + start);
+                start = newline + 1;
+            }
+        }
+
+        private void line(ByteBuffer buffer, int start, int newline, long offset) {
+            int end = newline > start && buffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+            lineNumber++;
+            // Line 1 is the header
+            if (lineNumber == 1 || end == start) {
+                return;
+            }
+            String error = parser.parse(buffer, start, end);
+            if (error != null) {
+                malformedRows.add(new MalformedRow(lineNumber, error));
+                return;
+            }
+            int row = builder.size();
+            if (row == rowOffsets.length) {
+                int capacity = row + (row >> 1);
+                rowOffsets = Arrays.copyOf(rowOffsets, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+            }
+            rowOffsets[row] = offset;
+            firstNames[row] = names.intern(buffer, parser.fieldStart(1), parser.fieldEnd(1));
+            lastNames[row] = names.intern(buffer, parser.fieldStart(2), parser.fieldEnd(2));
+            if (parser.decimalSalary != null) {
+                builder.add(parser.id, parser.decimalSalary, parser.hasManager, parser.managerId);
+            } else {
+                builder.add(parser.id, parser.salaryCents, parser.salaryScale, parser.hasManager, parser.managerId);
+            }
+        }
+
+        private CsvReadResult finish() {
+            if (carryLength > 0) {
+                // The last line has no line terminator
+                line(ByteBuffer.wrap(carry), 0, carryLength, carryOffset);
+                carryLength = 0;
+            }
+            int size = builder.size();
+            // Employees are materialised from the dictionary, the graph has no other source of names
+            OrgGraph graph = builder.build(index -> null)
+                    .withNames(names, Arrays.copyOf(firstNames, size), Arrays.copyOf(lastNames, size));
+            return new CsvReadResult(graph, malformedRows, Arrays.copyOf(rowOffsets, size));
+        }
+
+        private void append(byte[] bytes, int from, int to) {
+            int length = to - from;
+            if (carryLength + length > carry.length) {
+                carry = Arrays.copyOf(carry, Math.max(carryLength + length, carry.length << 1));
+            }
+            System.arraycopy(bytes, from, carry, carryLength, length);
+            carryLength += length;
+        }
+
+        private static int indexOfNewline(byte[] bytes, int from, int to) {
+            for (int position = from; position < to; position++) {
+                if (bytes[position] == '\n') {
+                    return position;
+                }
+            }
+            return -1;
+        }
+    }
+}
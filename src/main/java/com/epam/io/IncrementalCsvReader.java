@@ -0,0 +1,122 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.MalformedRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code IncrementalCsvReader} class reads successive versions of the same employee report, parsing only the
+ * part of each version that differs from the previous one.
+ * <p>
+ * Every version is read into memory, so the graph keeps materialising employees correctly when the file is
+ * overwritten again. The bytes are compared with the previous version; the rows of the lines that are unchanged
+ * from the start of the file are carried over from the previous graph without being parsed, and only the rest of the
+ * file is parsed. A report that grows by appended rows is therefore parsed only for the new rows. The graph is
+ * rebuilt in full, as appended rows can change the subordinates of any manager.
+ * </p>
+ * <p>
+ * The result is the same as reading the file from scratch with {@link MappedCsvReader}. Reports are limited to
+ * 2 GB. An instance is not thread-safe.
+ * </p>
+ */
+public final class IncrementalCsvReader {
+    private final CsvParseBuffers buffers = new CsvParseBuffers();
+    private byte[] content = new byte[0];
+    private int length;
+    private CsvReadResult previous;
+    private int reusedRows;
+
+    /**
+     * Reads the current version of a report.
+     *
+     * @param path the path to the CSV file
+     * @return the graph of the organisation and the malformed rows
+     * @throws IOException if the file cannot be read or is larger than 2 GB
+     */
+    public CsvReadResult read(Path path) throws IOException {
+        byte[] current;
+        int currentLength;
+        try (InputStream input = Files.newInputStream(path)) {
+            long size = Files.size(path);
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException(path + " is larger than 2 GB");
+            }
+            current = new byte[(int) size];
+            currentLength = input.readNBytes(current, 0, current.length);
+        }
+        return read(current, currentLength);
+    }
+
+    /**
+     * @return the number of rows of the last read carried over from the previous version without parsing
+     */
+    public int reusedRows() {
+        return reusedRows;
+    }
+
+    CsvReadResult read(byte[] current, int currentLength) {
+        int unchanged = previous == null ? 0 : unchangedLines(current, currentLength);
+        OrgGraph previousGraph = previous == null ? null : previous.graph();
+        long[] previousOffsets = previous == null ? new long[0] : previous.rowOffsets();
+
+        // Rows are in file order, those starting before the first changed line are complete and unchanged
+        int retained = Arrays.binarySearch(previousOffsets, unchanged);
+        retained = retained < 0 ? -retained - 1 : retained;
+        long unchangedLineCount = 0;
+        for (int position = 0; position < unchanged; position++) {
+            if (current[position] == '\n') {
+                unchangedLineCount++;
+            }
+        }
+
+        OrgGraph.Builder builder = buffers.builder.clear();
+        for (int index = 0; index < retained; index++) {
+            builder.add(previousGraph, index);
+        }
+        List<MalformedRow> malformedRows = new ArrayList<>();
+        if (previous != null) {
+            for (MalformedRow row : previous.malformedRows()) {
+                if (row.lineNumber() <= unchangedLineCount) {
+                    malformedRows.add(row);
+                }
+            }
+        }
+
+        CsvChunk chunk = new CsvChunk(ByteBuffer.wrap(current, 0, currentLength).slice(), 0, unchanged, currentLength, unchanged == 0)
+                .parseInto(buffers);
+        long[] offsets = buffers.fileOffsets(retained + chunk.rows());
+        System.arraycopy(previousOffsets, 0, offsets, 0, retained);
+        chunk.appendTo(builder, offsets, unchangedLineCount + 1, malformedRows);
+
+        MappedCsvFile file = MappedCsvFile.wrap(current, currentLength);
+        long[] rowOffsets = Arrays.copyOf(offsets, builder.size());
+        OrgGraph graph = builder.build(index -> file.employeeAt(rowOffsets[index]));
+        previous = new CsvReadResult(graph, malformedRows, rowOffsets);
+        content = current;
+        length = currentLength;
+        reusedRows = retained;
+        return previous;
+    }
+
+    /**
+     * Finds the end of the lines that are identical in the previous and the current version.
+     *
+     * @return the position after the last line terminator of the common prefix of both versions
+     */
+    private int unchangedLines(byte[] current, int currentLength) {
+        int mismatch = Arrays.mismatch(content, 0, length, current, 0, currentLength);
+        int common = mismatch < 0 ? length : mismatch;
+        while (common > 0 && current[common - 1] != '\n') {
+            common--;
+        }
+        return common;
+    }
+}
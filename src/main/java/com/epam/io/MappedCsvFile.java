@@ -0,0 +1,188 @@
+package com.epam.io;
+
+import com.epam.model.Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code MappedCsvFile} class maps an employee report into memory with {@link FileChannel#map}.
+ * <p>
+ * A single mapping cannot exceed 2 GB, so the file is mapped as a sequence of read-only segments.
+ * Every segment ends at a line boundary, therefore a row never spans two segments and can be addressed
+ * by its byte offset in the file. The mappings stay valid after the file channel is closed.
+ * </p>
+ */
+public final class MappedCsvFile {
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final long size;
+    private final long[] segmentStarts;
+    private final ByteBuffer[] segments;
+
+    private MappedCsvFile(long size, long[] segmentStarts, ByteBuffer[] segments) {
+        this.size = size;
+        this.segmentStarts = segmentStarts;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps a file into memory.
+     *
+     * @param path the path to the file
+     * @return the mapped file
+     * @throws IOException if the file cannot be read or contains a line longer than a segment
+     */
+    public static MappedCsvFile map(Path path) throws IOException {
+        return map(path, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Wraps a report already read into memory as a single segment, so it is parsed like a mapped file but is not
+     * affected by later writes to the file.
+     *
+     * @param content the bytes of the report; not copied, they must not be modified while the result is in use
+     * @param length the number of bytes of the report
+     * @return the wrapped report
+     */
+    static MappedCsvFile wrap(byte[] content, int length) {
+        return new MappedCsvFile(length, new long[]{0}, new ByteBuffer[]{ByteBuffer.wrap(content, 0, length).slice()});
+    }
+
+    static MappedCsvFile map(Path path, int segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<MappedByteBuffer> segments = new ArrayList<>();
+            List<Long> segmentStarts = new ArrayList<>();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(segmentSize, size - position);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                if (position + length < size) {
+                    int lastNewline = length - 1;
+                    while (lastNewline >= 0 && segment.get(lastNewline) != '\n') {
+                        lastNewline--;
+                    }
+                    if (lastNewline < 0) {
+                        throw new IOException("Line at byte offset " + position + " of " + path + " is longer than " + segmentSize + " bytes");
+                    }
+                    length = lastNewline + 1;
+                    segment = segment.slice(0, length);
+                }
+                segments.add(segment);
+                segmentStarts.add(position);
+                position += length;
+            }
+            return new MappedCsvFile(size, segmentStarts.stream().mapToLong(Long::longValue).toArray(),
+                    segments.toArray(new MappedByteBuffer[0]));
+        }
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Computes a fingerprint of the content of the file: a CRC-32C checksum of every byte, which the JDK computes
+     * with hardware instructions where available, at a fraction of the cost of parsing the file. It detects a
+     * report rewritten with the same size and modification time.
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        CRC32C checksum = new CRC32C();
+        for (ByteBuffer segment : segments) {
+            checksum.update(segment.duplicate());
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * @return the number of mapped segments
+     */
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @param segment the index of the segment
+     * @return a read-only view of the segment; absolute reads are safe to use from several threads
+     */
+    public ByteBuffer segment(int segment) {
+        return segments[segment];
+    }
+
+    /**
+     * @param segment the index of the segment
+     * @return the byte offset of the segment in the file
+     */
+    public long segmentStart(int segment) {
+        return segmentStarts[segment];
+    }
+
+    /**
+     * Materialises the employee stored in the row starting at the given offset.
+     *
+     * @param rowOffset the byte offset of the row in the file
+     * @return the employee
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    public Employee employeeAt(long rowOffset) {
+        int segmentIndex = segmentOf(rowOffset);
+        ByteBuffer segment = segments[segmentIndex];
+        int start = (int) (rowOffset - segmentStarts[segmentIndex]);
+        int end = lineEnd(segment, start, segment.limit());
+
+        CsvRowParser parser = new CsvRowParser();
+        String error = parser.parse(segment, start, end);
+        if (error != null) {
+            throw new IllegalArgumentException("Malformed row at byte offset " + rowOffset + ": " + error);
+        }
+        return parser.toEmployee();
+    }
+
+    /**
+     * Returns the bytes of the row starting at the given offset, without parsing it.
+     *
+     * @param rowOffset the byte offset of the row in the file
+     * @return a view of the row, excluding its line terminator; it must not be modified
+     */
+    public ByteBuffer rowAt(long rowOffset) {
+        int segmentIndex = segmentOf(rowOffset);
+        ByteBuffer segment = segments[segmentIndex];
+        int start = (int) (rowOffset - segmentStarts[segmentIndex]);
+        return segment.slice(start, lineEnd(segment, start, segment.limit()) - start);
+    }
+
+    private int segmentOf(long position) {
+        int segmentIndex = Arrays.binarySearch(segmentStarts, position);
+        return segmentIndex < 0 ? -segmentIndex - 2 : segmentIndex;
+    }
+
+    /**
+     * Finds the end of the line starting at {@code start}, excluding the line terminator.
+     *
+     * @return the position after the last byte of the line content
+     */
+    static int lineEnd(ByteBuffer buffer, int start, int limit) {
+        int position = start;
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        if (position > start && buffer.get(position - 1) == '\r') {
+            position--;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,242 @@
+package com.epam.io;
+
+import com.epam.graph.NameDictionary;
+import com.epam.graph.OrgGraph;
+import com.epam.model.MalformedRow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * The {@code MappedCsvReader} class reads an employee report from a memory-mapped file into an {@link OrgGraph}.
+ * <p>
+ * IDs, salaries and manager IDs are parsed straight from the mapped bytes. Names are not decoded while reading;
+ * the graph materialises an {@code Employee} from its row only when {@link OrgGraph#employee(int)} is called.
+ * The header line and empty lines are skipped, and rows that cannot be parsed are collected with their line
+ * numbers instead of aborting the read.
+ * </p>
+ * <p>
+ * With more than one thread the file is split into byte ranges aligned to line boundaries, which are parsed
+ * on a {@link ForkJoinPool} and merged in file order, so the result does not depend on the number of threads.
+ * </p>
+ */
+public final class MappedCsvReader {
+    static final int DEFAULT_MIN_CHUNK_SIZE = 4 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Maps and reads an employee report on the calling thread.
+     *
+     * @param path the path to the CSV file
+     * @return the graph of the organisation and the malformed rows
+     * @throws IOException if the file cannot be mapped
+     */
+    public static CsvReadResult read(Path path) throws IOException {
+        return read(MappedCsvFile.map(path), 1);
+    }
+
+    /**
+     * Maps and reads an employee report.
+     *
+     * @param path the path to the CSV file
+     * @param threads the number of threads parsing the file
+     * @return the graph of the organisation and the malformed rows
+     * @throws IOException if the file cannot be mapped
+     */
+    public static CsvReadResult read(Path path, int threads) throws IOException {
+        return read(MappedCsvFile.map(path), threads);
+    }
+
+    /**
+     * Reads an employee report from a mapped file.
+     *
+     * @param file the mapped CSV file
+     * @param threads the number of threads parsing the file
+     * @return the graph of the organisation and the malformed rows
+     */
+    public static CsvReadResult read(MappedCsvFile file, int threads) {
+        return read(file, threads, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads an employee report from a mapped file, keeping names as configured.
+     *
+     * @param file the mapped CSV file
+     * @param threads the number of threads parsing the file
+     * @param nameStorage how names are kept; with {@link NameStorage#DICTIONARY} the graph does not reference the file
+     * @return the graph of the organisation and the malformed rows
+     */
+    public static CsvReadResult read(MappedCsvFile file, int threads, NameStorage nameStorage) {
+        CsvReadResult result = read(file, threads);
+        return nameStorage == NameStorage.DICTIONARY ? internNames(file, result) : result;
+    }
+
+    static CsvReadResult read(MappedCsvFile file, int threads, int minChunkSize) {
+        List<CsvChunk> chunks = split(file, threads, minChunkSize);
+        if (threads <= 1 || chunks.size() <= 1) {
+            return read(file, chunks, new CsvParseBuffers());
+        }
+        parseInParallel(chunks, threads);
+
+        int rows = chunks.stream().mapToInt(CsvChunk::rows).sum();
+        OrgGraph.Builder builder = new OrgGraph.Builder(rows);
+        long[] rowOffsets = new long[rows];
+        List<MalformedRow> malformedRows = new ArrayList<>();
+        long lineNumber = 1;
+        for (CsvChunk chunk : chunks) {
+            chunk.appendTo(builder, rowOffsets, lineNumber, malformedRows);
+            lineNumber += chunk.lines();
+        }
+
+        OrgGraph graph = builder.build(index -> file.employeeAt(rowOffsets[index]));
+        return new CsvReadResult(graph, malformedRows, rowOffsets);
+    }
+
+    /**
+     * Reads an employee report from a mapped file on the calling thread, reusing buffers left by previous reads.
+     *
+     * @param file the mapped CSV file
+     * @param buffers the buffers to parse into; they must not be used by another thread during the read
+     * @return the graph of the organisation and the malformed rows
+     */
+    public static CsvReadResult read(MappedCsvFile file, CsvParseBuffers buffers) {
+        return read(file, split(file, 1, DEFAULT_MIN_CHUNK_SIZE), buffers);
+    }
+
+    /**
+     * Parses the chunks one by one into the same buffers, appending each before the next is parsed.
+     */
+    private static CsvReadResult read(MappedCsvFile file, List<CsvChunk> chunks, CsvParseBuffers buffers) {
+        OrgGraph.Builder builder = buffers.builder.clear();
+        List<MalformedRow> malformedRows = new ArrayList<>();
+        long lineNumber = 1;
+        for (CsvChunk chunk : chunks) {
+            chunk.parseInto(buffers);
+            chunk.appendTo(builder, buffers.fileOffsets(builder.size() + chunk.rows()), lineNumber, malformedRows);
+            lineNumber += chunk.lines();
+        }
+
+        long[] rowOffsets = Arrays.copyOf(buffers.fileOffsets(0), builder.size());
+        OrgGraph graph = builder.build(index -> file.employeeAt(rowOffsets[index]));
+        return new CsvReadResult(graph, malformedRows, rowOffsets);
+    }
+
+    /**
+     * Interns the first and last name of every row into a dictionary, in file order, and rebinds the graph to it.
+     * Rows are well-formed, so their first three columns are always present.
+     */
+    private static CsvReadResult internNames(MappedCsvFile file, CsvReadResult result) {
+        long[] rowOffsets = result.rowOffsets();
+        NameDictionary names = new NameDictionary();
+        int[] firstNames = new int[rowOffsets.length];
+        int[] lastNames = new int[rowOffsets.length];
+        int segmentIndex = 0;
+        for (int row = 0; row < rowOffsets.length; row++) {
+            while (segmentIndex + 1 < file.segmentCount() && file.segmentStart(segmentIndex + 1) <= rowOffsets[row]) {
+                segmentIndex++;
+            }
+            ByteBuffer segment = file.segment(segmentIndex);
+            int firstNameStart = indexOfComma(segment, (int) (rowOffsets[row] - file.segmentStart(segmentIndex))) + 1;
+            int lastNameStart = indexOfComma(segment, firstNameStart) + 1;
+            firstNames[row] = names.intern(segment, firstNameStart, lastNameStart - 1);
+            lastNames[row] = names.intern(segment, lastNameStart, indexOfComma(segment, lastNameStart));
+        }
+        return new CsvReadResult(result.graph().withNames(names, firstNames, lastNames), result.malformedRows(), rowOffsets);
+    }
+
+    private static int indexOfComma(ByteBuffer segment, int from) {
+        int position = from;
+        while (segment.get(position) != ',') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Streams the rows of a mapped employee report on the calling thread, without building a graph.
+     * The header line and empty lines are skipped.
+     *
+     * @param file the mapped CSV file
+     * @param rowHandler receives every well-formed row, in file order
+     * @param malformedRowHandler receives every malformed row, in file order
+     */
+    public static void stream(MappedCsvFile file, EmployeeRowHandler rowHandler, Consumer<MalformedRow> malformedRowHandler) {
+        CsvRowParser parser = new CsvRowParser();
+        long lineNumber = 0;
+        for (int segmentIndex = 0; segmentIndex < file.segmentCount(); segmentIndex++) {
+            ByteBuffer segment = file.segment(segmentIndex);
+            int limit = segment.limit();
+            int start = 0;
+            while (start < limit) {
+                int newline = start;
+                while (newline < limit && segment.get(newline) != '\n') {
+                    newline++;
+                }
+                int end = newline > start && segment.get(newline - 1) == '\r' ? newline - 1 : newline;
+                lineNumber++;
+
+                // Line 1 is the header
+                if (lineNumber > 1 && end > start) {
+                    String error = parser.parse(segment, start, end);
+                    if (error != null) {
+                        malformedRowHandler.accept(new MalformedRow(lineNumber, error));
+                    } else {
+                        rowHandler.handle(lineNumber, parser);
+                    }
+                }
+                start = newline + 1;
+            }
+        }
+    }
+
+    /**
+     * Splits every segment of the file into chunks of roughly equal size that start at the beginning of a line.
+     */
+    private static List<CsvChunk> split(MappedCsvFile file, int threads, int minChunkSize) {
+        long targetSize = threads > 1
+                ? Math.max(minChunkSize, file.size() / ((long) threads * CHUNKS_PER_THREAD))
+                : Long.MAX_VALUE;
+        List<CsvChunk> chunks = new ArrayList<>();
+        for (int segmentIndex = 0; segmentIndex < file.segmentCount(); segmentIndex++) {
+            ByteBuffer segment = file.segment(segmentIndex);
+            int limit = segment.limit();
+            int from = 0;
+            while (from < limit) {
+                int to = (int) Math.min(limit, from + targetSize);
+                while (to < limit && segment.get(to - 1) != '\n') {
+                    to++;
+                }
+                chunks.add(new CsvChunk(segment, file.segmentStart(segmentIndex), from, to, segmentIndex == 0 && from == 0));
+                from = to;
+            }
+        }
+        return chunks;
+    }
+
+    private static void parseInParallel(List<CsvChunk> chunks, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> ForkJoinTask.invokeAll(chunks.stream()
+                    .map(chunk -> ForkJoinTask.adapt(chunk::parse))
+                    .toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing employee report", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to parse employee report", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
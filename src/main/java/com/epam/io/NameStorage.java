@@ -0,0 +1,16 @@
+package com.epam.io;
+
+/**
+ * How the names of the employees of a report are kept after it is read.
+ */
+public enum NameStorage {
+    /**
+     * Names stay in the mapped report and are decoded from their row whenever an employee is materialised.
+     */
+    MAPPED,
+    /**
+     * Names are interned into a {@link com.epam.graph.NameDictionary} while reading; every distinct name is stored
+     * once and the report is no longer needed to materialise employees.
+     */
+    DICTIONARY
+}
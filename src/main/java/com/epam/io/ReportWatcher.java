@@ -0,0 +1,93 @@
+package com.epam.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ReportWatcher} class waits for changes of a report file with a {@link WatchService} on its directory.
+ * <p>
+ * A report is usually rewritten in several writes, or written next to its final name and moved into place. A change
+ * is therefore only signalled once no further event for the file has arrived for the debounce interval, so a burst
+ * of writes results in a single reload of the complete file. Creating, modifying and replacing the file are changes;
+ * events for other files of the directory are ignored.
+ * </p>
+ */
+public final class ReportWatcher implements Closeable {
+    private final Path fileName;
+    private final long debounceMillis;
+    private final WatchService watchService;
+
+    /**
+     * Starts watching a report. Changes made after this constructor returns are signalled by {@link #awaitChange()}.
+     *
+     * @param report the report file
+     * @param debounce how long the file must stay unchanged before a change is signalled
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public ReportWatcher(Path report, Duration debounce) throws IOException {
+        Path absolute = report.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.debounceMillis = debounce.toMillis();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            absolute.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Blocks until the report has changed and then stayed unchanged for the debounce interval.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws java.nio.file.ClosedWatchServiceException if the watcher is closed while waiting
+     */
+    public void awaitChange() throws InterruptedException {
+        boolean changed = false;
+        while (!changed) {
+            changed = drain(watchService.take());
+        }
+        long debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        long deadline = System.nanoTime() + debounceNanos;
+        for (long remaining = debounceNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+            // Events for other files are consumed without restarting the interval
+            if (key != null && drain(key)) {
+                deadline = System.nanoTime() + debounceNanos;
+            }
+        }
+    }
+
+    /**
+     * Consumes the events of a key and re-arms it.
+     *
+     * @return {@code true} if an event concerns the report, or events may have been lost
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Stops watching; a thread blocked in {@link #awaitChange()} fails with a
+     * {@link java.nio.file.ClosedWatchServiceException}.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
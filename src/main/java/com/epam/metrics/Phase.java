@@ -0,0 +1,67 @@
+package com.epam.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A running phase of an analysis, started by {@link PhaseMetrics#start(String)} and meant for try-with-resources.
+ * <p>
+ * Closing the phase commits a {@link PhaseEvent} to JDK Flight Recorder, when it is recording, and adds the phase
+ * to the {@link PhaseMetrics} summary. Allocated bytes are counted for the calling thread only, so work handed to
+ * other threads, such as parallel parsing, is not included.
+ * </p>
+ */
+public final class Phase implements AutoCloseable {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final String name;
+    private final PhaseEvent event = new PhaseEvent();
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private long rows;
+
+    Phase(String name) {
+        this.name = name;
+        startAllocatedBytes = allocatedBytes();
+        event.begin();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Sets the number of rows processed by the phase.
+     *
+     * @param rows the number of rows
+     * @return this phase
+     */
+    public Phase rows(long rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        long durationNanos = System.nanoTime() - startNanos;
+        event.end();
+        long allocated = startAllocatedBytes < 0 ? -1 : allocatedBytes() - startAllocatedBytes;
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.rows = rows;
+            event.allocatedBytes = allocated;
+            event.commit();
+        }
+        PhaseMetrics.record(name, durationNanos, rows, allocated);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
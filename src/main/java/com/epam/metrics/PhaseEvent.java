@@ -0,0 +1,28 @@
+package com.epam.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering one phase of an analysis. The duration is recorded by the event itself.
+ */
+@Name("com.epam.Phase")
+@Label("Analysis Phase")
+@Category("Organisation Optimisation")
+@Description("A phase of an organisation analysis with its row count and the bytes allocated by the calling thread")
+@StackTrace(false)
+class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
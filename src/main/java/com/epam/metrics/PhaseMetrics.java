@@ -0,0 +1,165 @@
+package com.epam.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects per-phase totals of the current run and writes them as an end-of-run summary.
+ * <p>
+ * Phases are started with {@link #start(String)}, or run with {@link #run(String, Runnable)} when they report no
+ * rows. Every phase is also emitted as a {@code com.epam.Phase} JDK Flight Recorder event, so a recording started
+ * with {@code -XX:StartFlightRecording} shows the same phases on the timeline. Nested phases are recorded separately,
+ * their time is included in the enclosing phase.
+ * </p>
+ */
+public final class PhaseMetrics {
+    private static final Map<String, PhaseTotals> TOTALS = new LinkedHashMap<>();
+
+    private PhaseMetrics() {
+    }
+
+    /**
+     * Starts a phase.
+     *
+     * @param name the name of the phase
+     * @return the running phase, to be closed when the phase ends
+     */
+    public static Phase start(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Runs a phase that has no rows to report.
+     *
+     * @param name the name of the phase
+     * @param body the work of the phase
+     */
+    public static void run(String name, Runnable body) {
+        Phase phase = start(name);
+        try {
+            body.run();
+        } finally {
+            phase.close();
+        }
+    }
+
+    static synchronized void record(String name, long durationNanos, long rows, long allocatedBytes) {
+        TOTALS.computeIfAbsent(name, PhaseTotals::new).add(durationNanos, rows, allocatedBytes);
+    }
+
+    /**
+     * @return a copy of the totals of every phase, in the order the phases first completed
+     */
+    public static synchronized List<PhaseTotals> totals() {
+        List<PhaseTotals> totals = new ArrayList<>();
+        TOTALS.values().forEach(phase -> totals.add(phase.copy()));
+        return totals;
+    }
+
+    /**
+     * Forgets all recorded phases.
+     */
+    public static synchronized void reset() {
+        TOTALS.clear();
+    }
+
+    /**
+     * Writes the summary as one line per phase.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if the summary cannot be written
+     */
+    public static void writeText(Writer writer) throws IOException {
+        for (PhaseTotals phase : totals()) {
+            writer.write(String.format(Locale.ROOT, "Phase %s: %d run(s), %.3f ms, %d rows, %.0f rows/s, %s allocated%n",
+                    phase.name(), phase.count(), phase.durationNanos() / 1e6, phase.rows(), phase.rowsPerSecond(),
+                    phase.allocatedBytes() < 0 ? "unknown bytes" : phase.allocatedBytes() + " bytes"));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the summary as a JSON object with one entry per phase.
+     *
+     * @param writer the writer to write to
+     * @throws IOException if the summary cannot be written
+     */
+    public static void writeJson(Writer writer) throws IOException {
+        writer.write("{\"phases\":[");
+        boolean first = true;
+        for (PhaseTotals phase : totals()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(String.format(Locale.ROOT,
+                    "{\"phase\":\"%s\",\"count\":%d,\"durationNanos\":%d,\"rows\":%d,\"rowsPerSecond\":%.1f,\"allocatedBytes\":%d}",
+                    phase.name(), phase.count(), phase.durationNanos(), phase.rows(), phase.rowsPerSecond(), phase.allocatedBytes()));
+        }
+        writer.write("]}\n");
+        writer.flush();
+    }
+
+    /**
+     * Totals of all runs of a phase.
+     */
+    public static final class PhaseTotals {
+        private final String name;
+        private long count;
+        private long durationNanos;
+        private long rows;
+        private long allocatedBytes;
+
+        PhaseTotals(String name) {
+            this.name = name;
+        }
+
+        void add(long durationNanos, long rows, long allocatedBytes) {
+            this.count++;
+            this.durationNanos += durationNanos;
+            this.rows += rows;
+            this.allocatedBytes = this.allocatedBytes < 0 || allocatedBytes < 0 ? -1 : this.allocatedBytes + allocatedBytes;
+        }
+
+        PhaseTotals copy() {
+            PhaseTotals copy = new PhaseTotals(name);
+            copy.count = count;
+            copy.durationNanos = durationNanos;
+            copy.rows = rows;
+            copy.allocatedBytes = allocatedBytes;
+            return copy;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long durationNanos() {
+            return durationNanos;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        /**
+         * @return the bytes allocated by the calling threads, or {@code -1} if the JVM does not count them
+         */
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public double rowsPerSecond() {
+            return durationNanos == 0 ? 0 : rows * 1e9 / durationNanos;
+        }
+    }
+}
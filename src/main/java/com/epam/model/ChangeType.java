@@ -0,0 +1,6 @@
+package com.epam.model;
+
+public enum ChangeType {
+    UPSERT,
+    DELETE
+}
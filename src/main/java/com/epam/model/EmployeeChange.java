@@ -0,0 +1,12 @@
+package com.epam.model;
+
+/**
+ * A change of the organisation read from a change-set file: a hire, a salary change or a manager move
+ * ({@link ChangeType#UPSERT}), or a leaver ({@link ChangeType#DELETE}).
+ *
+ * @param type the type of the change
+ * @param id the ID of the changed employee
+ * @param employee the new record of the employee, or {@code null} for {@link ChangeType#DELETE}
+ */
+public record EmployeeChange(ChangeType type, Integer id, Employee employee) {
+}
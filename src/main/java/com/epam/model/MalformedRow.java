@@ -0,0 +1,10 @@
+package com.epam.model;
+
+/**
+ * Describes a row of an employee report that could not be parsed.
+ *
+ * @param lineNumber the 1-based line number of the row in the report, the header being line 1
+ * @param reason the reason the row was rejected
+ */
+public record MalformedRow(long lineNumber, String reason) {
+}
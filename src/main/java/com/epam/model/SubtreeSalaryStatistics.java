@@ -0,0 +1,18 @@
+package com.epam.model;
+
+/**
+ * Describes the salaries of every direct and indirect subordinate of a manager, the manager excluded.
+ * The count, mean, spread and range are exact up to floating-point rounding; the median and the 90th percentile are
+ * estimates within the relative accuracy they were computed with.
+ *
+ * @param subordinates the number of direct and indirect subordinates
+ * @param mean the mean salary
+ * @param median the estimated median salary
+ * @param p90 the estimated 90th percentile of the salaries
+ * @param standardDeviation the population standard deviation of the salaries
+ * @param min the lowest salary
+ * @param max the highest salary
+ */
+public record SubtreeSalaryStatistics(long subordinates, double mean, double median, double p90,
+                                      double standardDeviation, double min, double max) {
+}
@@ -0,0 +1,96 @@
+package com.epam.report;
+
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Writes findings as CSV with the columns finding, id, firstName, lastName, salary, managerId and amount.
+ * <p>
+ * The finding is {@code LONG_REPORTING_LINE}, with the number of levels above the threshold as amount,
+ * or {@code SALARY_LESS} / {@code SALARY_MORE}, with the salary discrepancy as amount, or the name of another
+ * organisation rule, such as {@code span-of-control}, with how far the employee is beyond its limit as amount.
+ * Names containing commas, quotes or line breaks are quoted.
+ * </p>
+ */
+public class CsvReportSink extends WriterReportSink {
+    static final String HEADER = "finding,id,firstName,lastName,salary,managerId,amount\n";
+
+    /**
+     * Creates the sink and writes the header line.
+     *
+     * @param writer the buffered writer to write to
+     * @param closeWriter whether {@link #close()} closes the writer, or only flushes it
+     * @throws IOException if the header cannot be written
+     */
+    public CsvReportSink(Writer writer, boolean closeWriter) throws IOException {
+        super(writer, closeWriter);
+        writer.write(HEADER);
+    }
+
+    @Override
+    public void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException {
+        writer.write("LONG_REPORTING_LINE,");
+        writeEmployee(employee);
+        writeInt(hierarchyDepthDifference);
+        writer.write('\n');
+    }
+
+    @Override
+    public void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException {
+        writer.write("SALARY_");
+        writer.write(salaryDiscrepancy.type().name());
+        writer.write(',');
+        writeEmployee(manager);
+        writer.write(salaryDiscrepancy.discrepancy().toPlainString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException {
+        writeText(rule);
+        writer.write(',');
+        writeEmployee(employee);
+        writer.write(amount.toPlainString());
+        writer.write('\n');
+    }
+
+    private void writeEmployee(Employee employee) throws IOException {
+        writeInt(employee.id());
+        writer.write(',');
+        writeText(employee.firstName());
+        writer.write(',');
+        writeText(employee.lastName());
+        writer.write(',');
+        writer.write(employee.salary().toPlainString());
+        writer.write(',');
+        if (employee.managerId() != null) {
+            writeInt(employee.managerId());
+        }
+        writer.write(',');
+    }
+
+    private void writeText(String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,108 @@
+package com.epam.report;
+
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Writes findings as JSON Lines, one object per finding:
+ * <pre>
+ * {"finding":"LONG_REPORTING_LINE","id":305,"firstName":"Brett","lastName":"Hardleaf","salary":34000,"managerId":300,"tooLongBy":1}
+ * {"finding":"SALARY_DISCREPANCY","id":124,"firstName":"Martin","lastName":"Chekov","salary":45000,"managerId":123,"type":"LESS","amount":15000.0}
+ * {"finding":"RULE_VIOLATION","id":123,"firstName":"Joe","lastName":"Doe","salary":60000,"managerId":null,"rule":"span-of-control","amount":2,"detail":"12 direct reports, at most 10 allowed"}
+ * </pre>
+ */
+public class JsonLinesReportSink extends WriterReportSink {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * @param writer the buffered writer to write to
+     * @param closeWriter whether {@link #close()} closes the writer, or only flushes it
+     */
+    public JsonLinesReportSink(Writer writer, boolean closeWriter) {
+        super(writer, closeWriter);
+    }
+
+    @Override
+    public void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException {
+        writer.write("{\"finding\":\"LONG_REPORTING_LINE\",");
+        writeEmployee(employee);
+        writer.write(",\"tooLongBy\":");
+        writeInt(hierarchyDepthDifference);
+        writer.write("}\n");
+    }
+
+    @Override
+    public void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException {
+        writer.write("{\"finding\":\"SALARY_DISCREPANCY\",");
+        writeEmployee(manager);
+        writer.write(",\"type\":\"");
+        writer.write(salaryDiscrepancy.type().name());
+        writer.write("\",\"amount\":");
+        writer.write(salaryDiscrepancy.discrepancy().toPlainString());
+        writer.write("}\n");
+    }
+
+    @Override
+    public void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException {
+        writer.write("{\"finding\":\"RULE_VIOLATION\",");
+        writeEmployee(employee);
+        writer.write(",\"rule\":");
+        writeString(rule);
+        writer.write(",\"amount\":");
+        writer.write(amount.toPlainString());
+        writer.write(",\"detail\":");
+        writeString(detail);
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes an employee as a JSON object of its own, without a finding.
+     *
+     * @param employee the employee
+     * @throws IOException if the employee cannot be written
+     */
+    public void employee(Employee employee) throws IOException {
+        writer.write('{');
+        writeEmployee(employee);
+        writer.write("}\n");
+    }
+
+    private void writeEmployee(Employee employee) throws IOException {
+        writer.write("\"id\":");
+        writeInt(employee.id());
+        writer.write(",\"firstName\":");
+        writeString(employee.firstName());
+        writer.write(",\"lastName\":");
+        writeString(employee.lastName());
+        writer.write(",\"salary\":");
+        writer.write(employee.salary().toPlainString());
+        writer.write(",\"managerId\":");
+        if (employee.managerId() != null) {
+            writeInt(employee.managerId());
+        } else {
+            writer.write("null");
+        }
+    }
+
+    private void writeString(String text) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write("\\u00");
+                writer.write(HEX_DIGITS[c >> 4]);
+                writer.write(HEX_DIGITS[c & 0xF]);
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,83 @@
+package com.epam.report;
+
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Writes findings as human-readable lines, in the format of the console report:
+ * <pre>
+ * Employee Employee{id=305, ...} has a reporting line that is too long by 1
+ * Manager Employee{id=124, ...} earns less than they should by 15000.0
+ * Employee Employee{id=123, ...} breaks rule span-of-control by 2: 12 direct reports, at most 10 allowed
+ * </pre>
+ */
+public class PlainTextReportSink extends WriterReportSink {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * @param writer the buffered writer to write to
+     * @param closeWriter whether {@link #close()} closes the writer, or only flushes it
+     */
+    public PlainTextReportSink(Writer writer, boolean closeWriter) {
+        super(writer, closeWriter);
+    }
+
+    @Override
+    public void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException {
+        writer.write("Employee ");
+        writeEmployee(employee);
+        writer.write(" has a reporting line that is too long by ");
+        writeInt(hierarchyDepthDifference);
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException {
+        writer.write("Manager ");
+        writeEmployee(manager);
+        writer.write(DiscrepancyType.LESS.equals(salaryDiscrepancy.type())
+                ? " earns less than they should by "
+                : " earns more than they should by ");
+        writer.write(salaryDiscrepancy.discrepancy().toString());
+        writer.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException {
+        writer.write("Employee ");
+        writeEmployee(employee);
+        writer.write(" breaks rule ");
+        writer.write(rule);
+        writer.write(" by ");
+        writer.write(amount.toString());
+        writer.write(": ");
+        writer.write(detail);
+        writer.write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the employee in the format of {@link Employee#toString()}.
+     */
+    private void writeEmployee(Employee employee) throws IOException {
+        writer.write("Employee{id=");
+        writeInt(employee.id());
+        writer.write(", firstName='");
+        writer.write(employee.firstName());
+        writer.write("', lastName='");
+        writer.write(employee.lastName());
+        writer.write("', salary=");
+        writer.write(employee.salary().toString());
+        writer.write(", managerId=");
+        if (employee.managerId() != null) {
+            writeInt(employee.managerId());
+        } else {
+            writer.write("None");
+        }
+        writer.write('}');
+    }
+}
@@ -0,0 +1,19 @@
+package com.epam.report;
+
+/**
+ * Output formats of a report.
+ */
+public enum ReportFormat {
+    /**
+     * Human-readable lines, see {@link PlainTextReportSink}.
+     */
+    TEXT,
+    /**
+     * CSV with a header line, see {@link CsvReportSink}.
+     */
+    CSV,
+    /**
+     * One JSON object per line, see {@link JsonLinesReportSink}.
+     */
+    JSONL
+}
@@ -0,0 +1,47 @@
+package com.epam.report;
+
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Destination of the findings of an organisation analysis.
+ * <p>
+ * Findings are written as they are produced; {@link #close()} flushes any buffered output.
+ * Sinks are not thread-safe.
+ * </p>
+ */
+public interface ReportSink extends Closeable {
+
+    /**
+     * Writes an employee whose reporting line is too long.
+     *
+     * @param employee the employee
+     * @param hierarchyDepthDifference the difference between the reporting line length and the threshold
+     * @throws IOException if the finding cannot be written
+     */
+    void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException;
+
+    /**
+     * Writes a manager whose salary is outside the expected range.
+     *
+     * @param manager the manager
+     * @param salaryDiscrepancy the salary discrepancy
+     * @throws IOException if the finding cannot be written
+     */
+    void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException;
+
+    /**
+     * Writes an employee breaking one of the additional organisation rules.
+     *
+     * @param rule the name of the rule
+     * @param employee the employee
+     * @param amount the measure of the violation defined by the rule, such as how far the employee is beyond its limit
+     * @param detail a short human-readable description of the violation
+     * @throws IOException if the finding cannot be written
+     */
+    void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException;
+}
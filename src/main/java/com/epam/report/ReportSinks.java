@@ -0,0 +1,77 @@
+package com.epam.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Factory methods for {@link ReportSink}s writing to a file or to standard output.
+ */
+public final class ReportSinks {
+
+    private ReportSinks() {
+    }
+
+    /**
+     * Opens a sink writing to standard output. Closing the sink flushes standard output but does not close it.
+     *
+     * @param format the output format
+     * @return the sink
+     * @throws IOException if the sink cannot be initialised
+     */
+    public static ReportSink stdout(ReportFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), WriterReportSink.BUFFER_SIZE);
+        return create(format, writer, false);
+    }
+
+    /**
+     * Opens a sink writing UTF-8 text to a file, replacing its content.
+     *
+     * @param format the output format
+     * @param output the path of the file
+     * @return the sink
+     * @throws IOException if the file cannot be opened
+     */
+    public static ReportSink file(ReportFormat format, Path output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), StandardCharsets.UTF_8),
+                WriterReportSink.BUFFER_SIZE);
+        return create(format, writer, true);
+    }
+
+    /**
+     * Opens a sink writing to a file, or to standard output if no file is given.
+     *
+     * @param format the output format
+     * @param output the path of the file; {@code null}, empty or {@code -} selects standard output
+     * @return the sink
+     * @throws IOException if the file cannot be opened
+     */
+    public static ReportSink open(ReportFormat format, String output) throws IOException {
+        if (output == null || output.isEmpty() || "-".equals(output)) {
+            return stdout(format);
+        }
+        return file(format, Path.of(output));
+    }
+
+    /**
+     * Creates a sink writing to a writer.
+     *
+     * @param format the output format
+     * @param writer the writer, expected to be buffered
+     * @param closeWriter whether closing the sink closes the writer, or only flushes it
+     * @return the sink
+     * @throws IOException if the sink cannot be initialised
+     */
+    public static ReportSink create(ReportFormat format, Writer writer, boolean closeWriter) throws IOException {
+        return switch (format) {
+            case TEXT -> new PlainTextReportSink(writer, closeWriter);
+            case CSV -> new CsvReportSink(writer, closeWriter);
+            case JSONL -> new JsonLinesReportSink(writer, closeWriter);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.epam.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Base class of the sinks writing text to a buffered {@link Writer}.
+ * Numbers are written digit by digit into a reused buffer instead of being formatted into strings.
+ */
+abstract class WriterReportSink implements ReportSink {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Writer writer;
+    private final boolean closeWriter;
+    private final char[] digits = new char[11];
+
+    /**
+     * @param writer the buffered writer to write to
+     * @param closeWriter whether {@link #close()} closes the writer, or only flushes it
+     */
+    WriterReportSink(Writer writer, boolean closeWriter) {
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+    }
+
+    protected void writeInt(int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            writer.write(Integer.toString(value));
+            return;
+        }
+        int position = digits.length;
+        int remaining = Math.abs(value);
+        do {
+            digits[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--position] = '-';
+        }
+        writer.write(digits, position, digits.length - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closeWriter) {
+            writer.close();
+        } else {
+            writer.flush();
+        }
+    }
+}
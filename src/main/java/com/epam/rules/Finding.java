@@ -0,0 +1,70 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportSink;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * A finding reported by an {@link OrganisationRule} about one employee. The employee is only materialised from the
+ * graph when the finding is written.
+ */
+public interface Finding {
+
+    /**
+     * @return the index of the employee in the graph
+     */
+    int index();
+
+    /**
+     * Writes the finding.
+     *
+     * @param graph the organisation the finding was reported for
+     * @param sink the sink receiving the finding
+     * @throws IOException if the finding cannot be written
+     */
+    void writeTo(OrgGraph graph, ReportSink sink) throws IOException;
+
+    /**
+     * An employee whose reporting line is longer than allowed.
+     *
+     * @param index the index of the employee
+     * @param hierarchyDepthDifference the difference between the reporting line length and the threshold
+     */
+    record LongReportingLine(int index, int hierarchyDepthDifference) implements Finding {
+        @Override
+        public void writeTo(OrgGraph graph, ReportSink sink) throws IOException {
+            sink.longReportingLine(graph.employee(index), hierarchyDepthDifference);
+        }
+    }
+
+    /**
+     * A manager whose salary is outside the expected range.
+     *
+     * @param index the index of the manager
+     * @param discrepancy the salary discrepancy
+     */
+    record SalaryOutOfRange(int index, SalaryDiscrepancy discrepancy) implements Finding {
+        @Override
+        public void writeTo(OrgGraph graph, ReportSink sink) throws IOException {
+            sink.salaryDiscrepancy(graph.employee(index), discrepancy);
+        }
+    }
+
+    /**
+     * An employee breaking one of the other rules.
+     *
+     * @param rule the name of the rule
+     * @param index the index of the employee
+     * @param amount the measure of the violation defined by the rule
+     * @param detail a short human-readable description of the violation
+     */
+    record RuleViolation(String rule, int index, BigDecimal amount, String detail) implements Finding {
+        @Override
+        public void writeTo(OrgGraph graph, ReportSink sink) throws IOException {
+            sink.ruleViolation(rule, graph.employee(index), amount, detail);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.model.DiscrepancyType;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportSink;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Collects the findings of every rule evaluated in one traversal, kept apart per rule.
+ * <p>
+ * Findings are written grouped by rule, in the order the rules are configured, and ordered by employee ID within
+ * a rule, keeping file order between equal IDs. With the default rules this is the order of the original report:
+ * long reporting lines first, then salary discrepancies.
+ * </p>
+ * <p>
+ * Findings of one part of an organisation can be exported from the process that evaluated them and merged into the
+ * collector of the whole organisation, as long as the rules only report the {@link Finding} records declared by
+ * {@link Finding}.
+ * </p>
+ */
+public final class FindingCollector {
+    private static final byte LONG_REPORTING_LINE = 1;
+    private static final byte SALARY_OUT_OF_RANGE = 2;
+    private static final byte RULE_VIOLATION = 3;
+
+    private final OrgGraph graph;
+    private final List<OrganisationRule> rules;
+    private final List<List<Finding>> findings;
+
+    FindingCollector(OrgGraph graph, List<OrganisationRule> rules) {
+        this.graph = graph;
+        this.rules = rules;
+        this.findings = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            findings.add(new ArrayList<>());
+        }
+    }
+
+    void add(int rule, Finding finding) {
+        findings.get(rule).add(finding);
+    }
+
+    /**
+     * Adds the findings of another collector for the same rules, evaluated on another part of the organisation.
+     */
+    void addAll(FindingCollector other) {
+        for (int i = 0; i < rules.size(); i++) {
+            findings.get(i).addAll(other.findings.get(i));
+        }
+    }
+
+    /**
+     * @param rule the name of a configured rule
+     * @return the findings of the rule, ordered by employee ID; empty if the rule is not configured
+     */
+    public List<Finding> findings(String rule) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).name().equals(rule)) {
+                return Collections.unmodifiableList(sorted(i));
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * @return the number of findings of all rules
+     */
+    public int size() {
+        int size = 0;
+        for (List<Finding> ruleFindings : findings) {
+            size += ruleFindings.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the findings of every rule, grouped by rule and ordered by employee ID.
+     *
+     * @param sink the sink receiving the findings; it is not closed
+     * @throws IOException if the sink cannot be written
+     */
+    public void writeTo(ReportSink sink) throws IOException {
+        try (Phase phase = PhaseMetrics.start("writeFindings")) {
+            phase.rows(size());
+            for (int i = 0; i < rules.size(); i++) {
+                for (Finding finding : sorted(i)) {
+                    finding.writeTo(graph, sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serialises the findings about some of the employees, rule by rule, to be merged into another collector.
+     *
+     * @param output the output receiving the findings
+     * @param employees selects the indexes of the employees whose findings are exported
+     * @throws IOException if the output cannot be written
+     * @throws IllegalArgumentException if a rule reported a finding of a type not declared by {@link Finding}
+     */
+    public void export(DataOutput output, IntPredicate employees) throws IOException {
+        output.writeInt(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            List<Finding> exported = findings.get(i).stream().filter(finding -> employees.test(finding.index())).toList();
+            output.writeUTF(rules.get(i).name());
+            output.writeInt(exported.size());
+            for (Finding finding : exported) {
+                writeFinding(output, finding);
+            }
+        }
+    }
+
+    /**
+     * Adds findings exported by {@link #export(DataOutput, IntPredicate)} for the same rules.
+     *
+     * @param input the input holding the findings
+     * @param indexes maps the index of an employee in the exported organisation to its index in this one
+     * @throws IOException if the input cannot be read or was exported for other rules
+     */
+    public void merge(DataInput input, IntUnaryOperator indexes) throws IOException {
+        int ruleCount = input.readInt();
+        if (ruleCount != rules.size()) {
+            throw new IOException("Findings of " + ruleCount + " rules cannot be merged into findings of " + rules.size() + " rules");
+        }
+        for (int i = 0; i < ruleCount; i++) {
+            String name = input.readUTF();
+            if (!name.equals(rules.get(i).name())) {
+                throw new IOException("Findings of rule " + name + " cannot be merged into findings of rule " + rules.get(i).name());
+            }
+            for (int count = input.readInt(); count > 0; count--) {
+                add(i, readFinding(input, indexes));
+            }
+        }
+    }
+
+    private static void writeFinding(DataOutput output, Finding finding) throws IOException {
+        if (finding instanceof Finding.LongReportingLine line) {
+            output.writeByte(LONG_REPORTING_LINE);
+            output.writeInt(line.index());
+            output.writeInt(line.hierarchyDepthDifference());
+        } else if (finding instanceof Finding.SalaryOutOfRange salary) {
+            output.writeByte(SALARY_OUT_OF_RANGE);
+            output.writeInt(salary.index());
+            output.writeByte(salary.discrepancy().type().ordinal());
+            output.writeUTF(salary.discrepancy().discrepancy().toString());
+        } else if (finding instanceof Finding.RuleViolation violation) {
+            output.writeByte(RULE_VIOLATION);
+            output.writeInt(violation.index());
+            output.writeUTF(violation.rule());
+            output.writeUTF(violation.amount().toString());
+            output.writeUTF(violation.detail());
+        } else {
+            throw new IllegalArgumentException("Finding " + finding + " cannot be exported");
+        }
+    }
+
+    private static Finding readFinding(DataInput input, IntUnaryOperator indexes) throws IOException {
+        byte tag = input.readByte();
+        int index = indexes.applyAsInt(input.readInt());
+        switch (tag) {
+            case LONG_REPORTING_LINE:
+                return new Finding.LongReportingLine(index, input.readInt());
+            case SALARY_OUT_OF_RANGE:
+                DiscrepancyType type = DiscrepancyType.values()[input.readByte()];
+                return new Finding.SalaryOutOfRange(index, new SalaryDiscrepancy(type, new BigDecimal(input.readUTF())));
+            case RULE_VIOLATION:
+                return new Finding.RuleViolation(input.readUTF(), index, new BigDecimal(input.readUTF()), input.readUTF());
+            default:
+                throw new IOException("Unknown finding type " + tag);
+        }
+    }
+
+    private List<Finding> sorted(int rule) {
+        List<Finding> ruleFindings = findings.get(rule);
+        // The traversal visits employees level by level; the index breaks ties between equal IDs in file order
+        ruleFindings.sort(Comparator.comparingInt((Finding finding) -> graph.id(finding.index())).thenComparingInt(Finding::index));
+        return ruleFindings;
+    }
+}
@@ -0,0 +1,31 @@
+package com.epam.rules;
+
+/**
+ * A check applied to every employee of an organisation by the {@link RuleEngine}.
+ * <p>
+ * Rules are evaluated together in one traversal of the hierarchy: the engine visits every employee once, managers
+ * before their subordinates, and calls every configured rule for it. A rule reads the organisation and the depth of
+ * the employee from the {@link RuleContext} and reports its findings into it. Rules should not keep state between
+ * calls, so one instance can be used for several organisations and for the subtrees of a large organisation, which
+ * are evaluated concurrently.
+ * </p>
+ * <p>
+ * Besides the built-in rules, {@code app.rules} accepts the fully qualified name of a class implementing this
+ * interface, with a public constructor taking the application {@link java.util.Properties} or none.
+ * </p>
+ */
+public interface OrganisationRule {
+
+    /**
+     * @return the name of the rule, as listed in {@code app.rules} and written with its findings
+     */
+    String name();
+
+    /**
+     * Evaluates the rule for one employee.
+     *
+     * @param context the organisation being traversed and the collector of the findings of this rule
+     * @param index the index of the employee in the graph
+     */
+    void evaluate(RuleContext context, int index);
+}
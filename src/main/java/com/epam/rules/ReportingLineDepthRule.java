@@ -0,0 +1,23 @@
+package com.epam.rules;
+
+/**
+ * Reports employees with more managers between them and the top of the organisation than allowed.
+ *
+ * @param hierarchyDepthThreshold the deepest hierarchy depth that is not reported
+ */
+public record ReportingLineDepthRule(int hierarchyDepthThreshold) implements OrganisationRule {
+    public static final String NAME = "reporting-line-depth";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void evaluate(RuleContext context, int index) {
+        int depth = context.depth(index);
+        if (depth > hierarchyDepthThreshold) {
+            context.report(new Finding.LongReportingLine(index, depth - hierarchyDepthThreshold));
+        }
+    }
+}
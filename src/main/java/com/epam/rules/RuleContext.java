@@ -0,0 +1,49 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+
+/**
+ * The view of a traversal given to one rule: the organisation, the depths computed so far and the collector
+ * receiving the findings of the rule.
+ */
+public final class RuleContext {
+    private final OrgGraph graph;
+    private final int[] depths;
+    private final FindingCollector findings;
+    private final int rule;
+
+    RuleContext(OrgGraph graph, int[] depths, FindingCollector findings, int rule) {
+        this.graph = graph;
+        this.depths = depths;
+        this.findings = findings;
+        this.rule = rule;
+    }
+
+    /**
+     * @return the organisation being traversed
+     */
+    public OrgGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the hierarchy depth of an employee: 0 for a top-level manager, 1 for an employee whose manager is not
+     * part of the organisation, otherwise one more than the depth of their manager. Known for the employee being
+     * evaluated, their managers and their direct subordinates.
+     *
+     * @param index the index of the employee in the graph
+     * @return the hierarchy depth of the employee
+     */
+    public int depth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * Reports a finding of the rule.
+     *
+     * @param finding the finding
+     */
+    public void report(Finding finding) {
+        findings.add(rule, finding);
+    }
+}
@@ -0,0 +1,302 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.report.ReportSink;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates a set of {@link OrganisationRule}s in one fused traversal of the organisation.
+ * <p>
+ * The traversal is a single pass from the top-level managers. It computes the hierarchy depth of every employee on
+ * the way and calls every rule for the employee while it is visited, so the graph is walked once whatever the number
+ * of rules, instead of once per check. Large organisations are walked in parallel, subtree by subtree, on the common
+ * fork/join pool. Each rule reports into its own part of a {@link FindingCollector}.
+ * </p>
+ * <p>
+ * The rules are configured by {@code app.rules}, a comma-separated list of rule names evaluated in that order:
+ * </p>
+ * <ul>
+ *     <li>{@code reporting-line-depth}: employees deeper than {@code app.hierarchy.depth};</li>
+ *     <li>{@code salary-ratio}: managers paid outside {@code app.salary.ration.low} and {@code app.salary.ration.high}
+ *     times the average salary of their direct subordinates;</li>
+ *     <li>{@code span-of-control}: managers with more than {@code app.rules.span-of-control.max} direct reports;</li>
+ *     <li>{@code single-report-manager}: managers with a single direct report;</li>
+ *     <li>{@code salary-inversion}: managers earning less than their best-paid direct report;</li>
+ *     <li>the fully qualified name of any other {@link OrganisationRule} implementation.</li>
+ * </ul>
+ */
+public final class RuleEngine {
+    public static final String DEFAULT_RULES = ReportingLineDepthRule.NAME + "," + SalaryRatioRule.NAME;
+    static final String DEFAULT_MAX_DIRECT_REPORTS = "10";
+    private static final int PARALLEL_THRESHOLD = 16_384;
+
+    private final List<OrganisationRule> rules;
+
+    /**
+     * @param rules the rules, in the order their findings are written
+     */
+    public RuleEngine(List<OrganisationRule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * Creates the engine configured by {@code app.rules}, {@link #DEFAULT_RULES} if it is not set.
+     *
+     * @param properties the properties holding the rules and their settings, possibly with defaults
+     * @return the engine
+     * @throws IllegalArgumentException if a rule is unknown or cannot be created
+     */
+    public static RuleEngine fromProperties(Properties properties) {
+        List<OrganisationRule> rules = new ArrayList<>();
+        for (String name : properties.getProperty("app.rules", DEFAULT_RULES).split(",")) {
+            if (!name.isBlank()) {
+                rules.add(createRule(name.trim(), properties));
+            }
+        }
+        return new RuleEngine(rules);
+    }
+
+    /**
+     * Creates a rule by its name.
+     *
+     * @param name the name of a built-in rule, or the fully qualified name of a rule class
+     * @param properties the properties holding the settings of the rule
+     * @return the rule
+     * @throws IllegalArgumentException if the rule is unknown or cannot be created
+     */
+    public static OrganisationRule createRule(String name, Properties properties) {
+        switch (name) {
+            case ReportingLineDepthRule.NAME:
+                return new ReportingLineDepthRule(Integer.parseInt(properties.getProperty("app.hierarchy.depth")));
+            case SalaryRatioRule.NAME:
+                return new SalaryRatioRule(Double.parseDouble(properties.getProperty("app.salary.ration.low")),
+                        Double.parseDouble(properties.getProperty("app.salary.ration.high")));
+            case SpanOfControlRule.NAME:
+                return new SpanOfControlRule(Integer.parseInt(
+                        properties.getProperty("app.rules.span-of-control.max", DEFAULT_MAX_DIRECT_REPORTS)));
+            case SingleReportManagerRule.NAME:
+                return new SingleReportManagerRule();
+            case SalaryInversionRule.NAME:
+                return new SalaryInversionRule();
+            default:
+                return loadRule(name, properties);
+        }
+    }
+
+    private static OrganisationRule loadRule(String className, Properties properties) {
+        try {
+            Class<? extends OrganisationRule> ruleClass = Class.forName(className).asSubclass(OrganisationRule.class);
+            try {
+                return ruleClass.getConstructor(Properties.class).newInstance(properties);
+            } catch (NoSuchMethodException e) {
+                return ruleClass.getConstructor().newInstance();
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown organisation rule: " + className, e);
+        } catch (ClassCastException | ReflectiveOperationException e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            throw new IllegalArgumentException("Cannot create organisation rule " + className + ": " + cause, cause);
+        }
+    }
+
+    /**
+     * @return the rules, in the order their findings are written
+     */
+    public List<OrganisationRule> rules() {
+        return rules;
+    }
+
+    /**
+     * Evaluates every rule for every employee in one pass from the top-level managers. The upper levels of the
+     * organisation are walked breadth first on the calling thread until they hold enough subtrees for the common
+     * {@link ForkJoinPool}; the subtrees are then evaluated in parallel, each into its own collector, and merged.
+     *
+     * @param graph the organisation
+     * @return the findings of the rules
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle
+     */
+    public FindingCollector evaluate(OrgGraph graph) {
+        try (Phase phase = PhaseMetrics.start("evaluateRules")) {
+            phase.rows(graph.size());
+            int size = graph.size();
+            FindingCollector findings = new FindingCollector(graph, rules);
+            int[] depths = new int[size];
+            RuleContext[] contexts = contexts(graph, depths, findings);
+            int[] queue = new int[size];
+            int tail = 0;
+
+            for (int index = 0; index < size; index++) {
+                int parent = graph.parent(index);
+                if (parent < 0) {
+                    depths[index] = parent == OrgGraph.UNKNOWN_PARENT ? 1 : 0;
+                    queue[tail++] = index;
+                }
+            }
+            // Small organisations are walked entirely here, larger ones until the queue holds enough subtrees
+            int subtrees = size <= PARALLEL_THRESHOLD ? Integer.MAX_VALUE : 4 * ForkJoinPool.commonPool().getParallelism();
+            int head = 0;
+            for (; head < tail && tail - head < subtrees; head++) {
+                visit(graph, depths, contexts, queue[head], queue, tail);
+                tail += graph.childCount(queue[head]);
+            }
+
+            int visited = tail;
+            if (head < tail) {
+                SubtreeTask task = new SubtreeTask(graph, depths, Arrays.copyOfRange(queue, head, tail));
+                findings.addAll(ForkJoinPool.commonPool().invoke(task));
+                visited = head + task.visited;
+            }
+            if (visited < size) {
+                throw new IllegalStateException((size - visited) + " employees have reporting lines that contain a cycle");
+            }
+            return findings;
+        }
+    }
+
+    private RuleContext[] contexts(OrgGraph graph, int[] depths, FindingCollector findings) {
+        RuleContext[] contexts = new RuleContext[rules.size()];
+        for (int rule = 0; rule < contexts.length; rule++) {
+            contexts[rule] = new RuleContext(graph, depths, findings, rule);
+        }
+        return contexts;
+    }
+
+    /**
+     * Sets the depths of the direct subordinates of an employee, appends them to the pending employees and calls
+     * every rule for the employee.
+     */
+    private void visit(OrgGraph graph, int[] depths, RuleContext[] contexts, int employee, int[] pending, int end) {
+        for (int position = graph.childStart(employee); position < graph.childEnd(employee); position++) {
+            int subordinate = graph.child(position);
+            depths[subordinate] = depths[employee] + 1;
+            pending[end++] = subordinate;
+        }
+        for (int rule = 0; rule < contexts.length; rule++) {
+            rules.get(rule).evaluate(contexts[rule], employee);
+        }
+    }
+
+    /**
+     * Evaluates every rule for the top-level managers only: the employees without a manager in the organisation.
+     * Together with the findings of the subtrees below them, evaluated separately, these are the findings of
+     * {@link #evaluate(OrgGraph)}.
+     *
+     * @param graph the organisation
+     * @return the findings of the rules about the top-level managers
+     */
+    public FindingCollector evaluateTopLevelManagers(OrgGraph graph) {
+        try (Phase phase = PhaseMetrics.start("evaluateTopLevelRules")) {
+            FindingCollector findings = new FindingCollector(graph, rules);
+            // Only the depths of the top-level managers and their direct subordinates are known to the rules
+            int[] depths = new int[graph.size()];
+            RuleContext[] contexts = new RuleContext[rules.size()];
+            for (int rule = 0; rule < contexts.length; rule++) {
+                contexts[rule] = new RuleContext(graph, depths, findings, rule);
+            }
+            int evaluated = 0;
+            for (int manager = 0; manager < graph.size(); manager++) {
+                int parent = graph.parent(manager);
+                if (parent >= 0) {
+                    continue;
+                }
+                depths[manager] = parent == OrgGraph.UNKNOWN_PARENT ? 1 : 0;
+                for (int position = graph.childStart(manager); position < graph.childEnd(manager); position++) {
+                    depths[graph.child(position)] = depths[manager] + 1;
+                }
+                for (int rule = 0; rule < contexts.length; rule++) {
+                    rules.get(rule).evaluate(contexts[rule], manager);
+                }
+                evaluated++;
+            }
+            phase.rows(evaluated);
+            return findings;
+        }
+    }
+
+    /**
+     * Evaluates every rule and writes the findings, grouped by rule and ordered by employee ID.
+     *
+     * @param graph the organisation
+     * @param sink the sink receiving the findings; it is not closed
+     * @throws IOException if the sink cannot be written
+     */
+    public void report(OrgGraph graph, ReportSink sink) throws IOException {
+        evaluate(graph).writeTo(sink);
+    }
+
+    /**
+     * Describes the rules and their settings, for instance to key cached findings. Rules without a describing
+     * {@code toString()} are described by their identity and so never match a previous description.
+     */
+    @Override
+    public String toString() {
+        return rules.stream().map(Object::toString).collect(Collectors.joining(", ", "RuleEngine[", "]"));
+    }
+
+    /**
+     * Evaluates the subtrees under some employees, whose depths are known, splitting them in halves down to single
+     * subtrees. Each subtree is walked depth first, managers before their subordinates, into the collector of its task.
+     */
+    private final class SubtreeTask extends RecursiveTask<FindingCollector> {
+        private static final long serialVersionUID = 1L;
+
+        private final OrgGraph graph;
+        private final int[] depths;
+        private final int[] roots;
+        private final int from;
+        private final int to;
+        private int visited;
+
+        SubtreeTask(OrgGraph graph, int[] depths, int[] roots) {
+            this(graph, depths, roots, 0, roots.length);
+        }
+
+        private SubtreeTask(OrgGraph graph, int[] depths, int[] roots, int from, int to) {
+            this.graph = graph;
+            this.depths = depths;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FindingCollector compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SubtreeTask left = new SubtreeTask(graph, depths, roots, from, middle);
+                left.fork();
+                SubtreeTask right = new SubtreeTask(graph, depths, roots, middle, to);
+                FindingCollector findings = right.compute();
+                findings.addAll(left.join());
+                visited = left.visited + right.visited;
+                return findings;
+            }
+            FindingCollector findings = new FindingCollector(graph, rules);
+            RuleContext[] contexts = contexts(graph, depths, findings);
+            int[] stack = new int[16];
+            stack[0] = roots[from];
+            int top = 1;
+            while (top > 0) {
+                int employee = stack[--top];
+                if (top + graph.childCount(employee) > stack.length) {
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + graph.childCount(employee)));
+                }
+                visit(graph, depths, contexts, employee, stack, top);
+                top += graph.childCount(employee);
+                visited++;
+            }
+            return findings;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+
+/**
+ * Reports managers earning less than their best-paid direct report. The amount is the difference between the two
+ * salaries.
+ */
+public record SalaryInversionRule() implements OrganisationRule {
+    public static final String NAME = "salary-inversion";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void evaluate(RuleContext context, int index) {
+        OrgGraph graph = context.graph();
+        int start = graph.childStart(index);
+        int end = graph.childEnd(index);
+        if (start == end) {
+            return;
+        }
+        // Salaries are compared in cents, the scale they were written with does not matter
+        int bestPaid = graph.child(start);
+        for (int position = start + 1; position < end; position++) {
+            int subordinate = graph.child(position);
+            if (compareSalaries(graph, subordinate, bestPaid) > 0) {
+                bestPaid = subordinate;
+            }
+        }
+        if (compareSalaries(graph, bestPaid, index) > 0) {
+            context.report(new Finding.RuleViolation(NAME, index, graph.salary(bestPaid).subtract(graph.salary(index)),
+                    "earns less than direct report " + graph.id(bestPaid)));
+        }
+    }
+
+    private static int compareSalaries(OrgGraph graph, int first, int second) {
+        if (graph.isDecimalSalary(first) || graph.isDecimalSalary(second)) {
+            return graph.salary(first).compareTo(graph.salary(second));
+        }
+        return Long.compare(graph.salaryCents(first), graph.salaryCents(second));
+    }
+}
@@ -0,0 +1,44 @@
+package com.epam.rules;
+
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.service.SalaryDiscrepancyEngine;
+
+/**
+ * Reports managers earning less or more than the allowed ratios of the average salary of their direct subordinates,
+ * evaluated by the {@link SalaryDiscrepancyEngine}.
+ */
+public final class SalaryRatioRule implements OrganisationRule {
+    public static final String NAME = "salary-ratio";
+
+    private final double lowSalaryRation;
+    private final double highSalaryRation;
+    private final SalaryDiscrepancyEngine engine;
+
+    /**
+     * @param lowSalaryRation the lowest allowed ratio of a manager's salary to the average salary of their subordinates
+     * @param highSalaryRation the highest allowed ratio of a manager's salary to the average salary of their subordinates
+     */
+    public SalaryRatioRule(double lowSalaryRation, double highSalaryRation) {
+        this.lowSalaryRation = lowSalaryRation;
+        this.highSalaryRation = highSalaryRation;
+        this.engine = new SalaryDiscrepancyEngine(lowSalaryRation, highSalaryRation);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void evaluate(RuleContext context, int index) {
+        SalaryDiscrepancy discrepancy = engine.evaluateManager(context.graph(), index);
+        if (discrepancy != null) {
+            context.report(new Finding.SalaryOutOfRange(index, discrepancy));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SalaryRatioRule[lowSalaryRation=" + lowSalaryRation + ", highSalaryRation=" + highSalaryRation + "]";
+    }
+}
@@ -0,0 +1,28 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+
+import java.math.BigDecimal;
+
+/**
+ * Reports managers with a single direct report, a management layer that could be merged with the one below it.
+ * The amount is the number of direct reports, always 1.
+ */
+public record SingleReportManagerRule() implements OrganisationRule {
+    public static final String NAME = "single-report-manager";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void evaluate(RuleContext context, int index) {
+        OrgGraph graph = context.graph();
+        int start = graph.childStart(index);
+        if (graph.childEnd(index) - start == 1) {
+            context.report(new Finding.RuleViolation(NAME, index, BigDecimal.ONE,
+                    "manages a single direct report, employee " + graph.id(graph.child(start))));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+
+import java.math.BigDecimal;
+
+/**
+ * Reports managers with more direct reports than allowed. The amount is the number of direct reports above the limit.
+ *
+ * @param maxDirectReports the largest number of direct reports that is not reported
+ */
+public record SpanOfControlRule(int maxDirectReports) implements OrganisationRule {
+    public static final String NAME = "span-of-control";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void evaluate(RuleContext context, int index) {
+        OrgGraph graph = context.graph();
+        int directReports = graph.childEnd(index) - graph.childStart(index);
+        if (directReports > maxDirectReports) {
+            context.report(new Finding.RuleViolation(NAME, index, BigDecimal.valueOf(directReports - maxDirectReports),
+                    directReports + " direct reports, at most " + maxDirectReports + " allowed"));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.epam.server;
+
+import com.epam.graph.OrgGraph;
+import com.epam.graph.OrgTreeIndex;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.rules.Finding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, fully analysed organisation served by {@link OrganisationServer}.
+ * Findings are kept ordered by employee ID.
+ */
+final class AnalysisSnapshot {
+    private final OrgGraph graph;
+    private final OrgTreeIndex treeIndex;
+    private final List<Map.Entry<Employee, Integer>> longReportingLines;
+    private final List<Map.Entry<Employee, SalaryDiscrepancy>> salaryDiscrepancies;
+    private final List<Finding> findings;
+
+    /**
+     * @throws ArithmeticException if the payroll of the organisation does not fit in a {@code long} of cents
+     */
+    AnalysisSnapshot(OrgGraph graph, Map<Employee, Integer> longReportingLines,
+                     Map<Employee, SalaryDiscrepancy> salaryDiscrepancies, List<Finding> findings) {
+        this.graph = graph;
+        this.treeIndex = OrgTreeIndex.of(graph);
+        this.longReportingLines = sortedById(longReportingLines);
+        this.salaryDiscrepancies = sortedById(salaryDiscrepancies);
+        this.findings = List.copyOf(findings);
+    }
+
+    OrgGraph graph() {
+        return graph;
+    }
+
+    OrgTreeIndex treeIndex() {
+        return treeIndex;
+    }
+
+    List<Map.Entry<Employee, Integer>> longReportingLines() {
+        return longReportingLines;
+    }
+
+    List<Map.Entry<Employee, SalaryDiscrepancy>> salaryDiscrepancies() {
+        return salaryDiscrepancies;
+    }
+
+    /**
+     * @return the findings of the configured rules, grouped by rule and ordered by employee ID
+     */
+    List<Finding> findings() {
+        return findings;
+    }
+
+    /**
+     * Walks the reporting line of an employee up to the top-level manager.
+     *
+     * @param id the ID of the employee
+     * @return the employee followed by their managers, or an empty list if the employee is unknown
+     */
+    List<Employee> chainToTop(int id) {
+        List<Employee> chain = new ArrayList<>();
+        for (int index = graph.indexOf(id); index >= 0; index = graph.parent(index)) {
+            chain.add(graph.employee(index));
+        }
+        return chain;
+    }
+
+    private static <V> List<Map.Entry<Employee, V>> sortedById(Map<Employee, V> findings) {
+        List<Map.Entry<Employee, V>> entries = new ArrayList<>(findings.entrySet());
+        entries.sort(Map.Entry.comparingByKey(Comparator.comparing(Employee::id)));
+        return List.copyOf(entries);
+    }
+}
@@ -0,0 +1,327 @@
+package com.epam.server;
+
+import com.epam.graph.OrgGraph;
+import com.epam.graph.OrgTreeIndex;
+import com.epam.io.CsvReadResult;
+import com.epam.io.IncrementalCsvReader;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.JsonLinesReportSink;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+import com.epam.rules.Finding;
+import com.epam.rules.FindingCollector;
+import com.epam.rules.OrganisationRule;
+import com.epam.rules.RuleEngine;
+import com.epam.service.OrganisationOptimisationService;
+import com.epam.service.ReportService;
+import com.epam.validation.OrganisationValidator;
+import com.epam.validation.ValidationResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-running mode that loads the organisation once and answers queries over a local HTTP API.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /long-reporting-lines[?format=text|csv|jsonl]} - employees with long reporting lines</li>
+ *     <li>{@code GET /salary-discrepancies[?format=text|csv|jsonl]} - managers with salary discrepancies</li>
+ *     <li>{@code GET /findings[?format=text|csv|jsonl]} - the findings of the configured rules, as in the report of
+ *     a single run</li>
+ *     <li>{@code GET /employees/{id}/chain} - the employee and their managers up to the top, as JSON Lines</li>
+ *     <li>{@code GET /employees/{id}/subtree} - headcount, payroll and depth below the employee, as JSON</li>
+ *     <li>{@code GET /common-manager?a={id}&b={id}} - the lowest common manager of two employees, as JSON</li>
+ *     <li>{@code POST /reload} - re-reads the report</li>
+ * </ul>
+ * Findings are ordered by employee ID; the default format is JSON Lines.
+ * </p>
+ * <p>
+ * Every request reads the current {@link AnalysisSnapshot} once. A reload analyses the report into a new snapshot
+ * and swaps it in atomically, so queries are never blocked and always see a consistent organisation. The report is
+ * read into memory with an {@link IncrementalCsvReader} rather than mapped, so a snapshot never refers to the file:
+ * rewriting the report does not change the employees served until the next reload, and a reload of a report that
+ * only grew parses just the appended rows. Plain reports are therefore limited to 2 GB; gzip-compressed ones are
+ * read by the {@link ReportService}, which keeps their names in memory as well. A reload that fails, for instance
+ * because the payroll overflows, is logged and keeps the previous snapshot.
+ * Requests are handled on virtual threads when the runtime supports them, and on a cached thread pool otherwise.
+ * </p>
+ */
+public class OrganisationServer {
+    private static final String JSON_LINES = "application/x-ndjson; charset=utf-8";
+
+    private final Path reportPath;
+    private final ReportService reportService;
+    private final OrganisationValidator validator;
+    private final OrganisationOptimisationService organisationOptimisationService;
+    private final RuleEngine ruleEngine;
+    private final AtomicReference<AnalysisSnapshot> snapshot = new AtomicReference<>();
+    private final IncrementalCsvReader csvReader = new IncrementalCsvReader();
+    private final Object reloadLock = new Object();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param reportPath the path to the CSV file
+     * @param reportService the service reading the report if it is gzip-compressed
+     * @param validator the validator applied to every loaded organisation
+     * @param organisationOptimisationService the service analysing the organisation
+     * @param ruleEngine the engine evaluating the configured organisation rules
+     */
+    public OrganisationServer(Path reportPath, ReportService reportService, OrganisationValidator validator,
+                              OrganisationOptimisationService organisationOptimisationService, RuleEngine ruleEngine) {
+        this.reportPath = reportPath;
+        this.reportService = reportService;
+        this.validator = validator;
+        this.organisationOptimisationService = organisationOptimisationService;
+        this.ruleEngine = ruleEngine;
+    }
+
+    /**
+     * Loads the report and starts listening on the loopback interface.
+     *
+     * @param port the port to listen on; {@code 0} picks a free port
+     * @throws IOException if the report cannot be read or the server cannot be started
+     */
+    public void start(int port) throws IOException {
+        reload();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/long-reporting-lines", exchange -> handle(exchange, "GET", () -> {
+            AnalysisSnapshot current = snapshot.get();
+            try (ReportSink sink = openSink(exchange)) {
+                for (Map.Entry<Employee, Integer> entry : current.longReportingLines()) {
+                    sink.longReportingLine(entry.getKey(), entry.getValue());
+                }
+            }
+        }));
+        server.createContext("/salary-discrepancies", exchange -> handle(exchange, "GET", () -> {
+            AnalysisSnapshot current = snapshot.get();
+            try (ReportSink sink = openSink(exchange)) {
+                for (Map.Entry<Employee, SalaryDiscrepancy> entry : current.salaryDiscrepancies()) {
+                    sink.salaryDiscrepancy(entry.getKey(), entry.getValue());
+                }
+            }
+        }));
+        server.createContext("/findings", exchange -> handle(exchange, "GET", () -> {
+            AnalysisSnapshot current = snapshot.get();
+            try (ReportSink sink = openSink(exchange)) {
+                for (Finding finding : current.findings()) {
+                    finding.writeTo(current.graph(), sink);
+                }
+            }
+        }));
+        server.createContext("/employees/", exchange -> handle(exchange, "GET", () -> {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            if (parts.length != 4 || !("chain".equals(parts[3]) || "subtree".equals(parts[3]))) {
+                sendText(exchange, 404, "Not found\n");
+                return;
+            }
+            AnalysisSnapshot current = snapshot.get();
+            int index = current.graph().indexOf(parseId(parts[2]));
+            if (index < 0) {
+                sendText(exchange, 404, "Employee " + parts[2] + " not found\n");
+                return;
+            }
+            if ("subtree".equals(parts[3])) {
+                OrgTreeIndex treeIndex = current.treeIndex();
+                sendJson(exchange, "{\"id\":" + current.graph().id(index)
+                        + ",\"headcount\":" + treeIndex.headcountBelow(index)
+                        + ",\"payroll\":" + treeIndex.subtreePayroll(index).toPlainString()
+                        + ",\"maxDepthBelow\":" + treeIndex.maxDepthBelow(index) + "}\n");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON_LINES);
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonLinesReportSink sink = new JsonLinesReportSink(responseWriter(exchange), true)) {
+                for (Employee employee : current.chainToTop(current.graph().id(index))) {
+                    sink.employee(employee);
+                }
+            }
+        }));
+        server.createContext("/common-manager", exchange -> handle(exchange, "GET", () -> {
+            AnalysisSnapshot current = snapshot.get();
+            int first = current.graph().indexOf(parseId(queryParameter(exchange, "a")));
+            int second = current.graph().indexOf(parseId(queryParameter(exchange, "b")));
+            int manager = first < 0 || second < 0 ? -1 : current.treeIndex().lowestCommonManager(first, second);
+            if (manager < 0) {
+                sendText(exchange, 404, "No common manager found\n");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON_LINES);
+            exchange.sendResponseHeaders(200, 0);
+            try (JsonLinesReportSink sink = new JsonLinesReportSink(responseWriter(exchange), true)) {
+                sink.employee(current.graph().employee(manager));
+            }
+        }));
+        server.createContext("/reload", exchange -> handle(exchange, "POST", () -> {
+            int size = reload();
+            sendText(exchange, 200, "Reloaded " + size + " employees\n");
+        }));
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting at most a second for running requests.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Reads and analyses the report and swaps the result in. Concurrent reloads run one after another.
+     *
+     * @return the number of employees loaded
+     * @throws IOException if the report cannot be read or its organisation cannot be indexed
+     * @throws IllegalStateException if the organisation is rejected by the validator
+     */
+    public int reload() throws IOException {
+        synchronized (reloadLock) {
+            if (!Files.isReadable(reportPath)) {
+                throw new IOException("Report " + reportPath + " cannot be read");
+            }
+            ValidationResult validation = validator.validate(readReport());
+            validation.issues().forEach(issue -> System.err.println(issue.message()));
+            OrgGraph graph = validation.graph();
+            FindingCollector collector = ruleEngine.evaluate(graph);
+            List<Finding> findings = new ArrayList<>(collector.size());
+            for (OrganisationRule rule : ruleEngine.rules()) {
+                findings.addAll(collector.findings(rule.name()));
+            }
+            try {
+                snapshot.set(new AnalysisSnapshot(graph,
+                        organisationOptimisationService.getLongReportingLines(graph),
+                        organisationOptimisationService.getEmployeeWithSalaryDiscrepancies(graph), findings));
+            } catch (ArithmeticException e) {
+                System.err.printf("Could not index %s, keeping the previous organisation: %s%n", reportPath, e.getMessage());
+                throw new IOException("Organisation of " + reportPath + " cannot be indexed: " + e.getMessage(), e);
+            }
+            return graph.size();
+        }
+    }
+
+    private OrgGraph readReport() throws IOException {
+        if (reportPath.toString().endsWith(".gz")) {
+            return reportService.readOrgGraphFromCsv(reportPath.toString());
+        }
+        CsvReadResult result = csvReader.read(reportPath);
+        result.malformedRows().forEach(row ->
+                System.err.printf("Skipping malformed row at line %d: %s%n", row.lineNumber(), row.reason()));
+        return result.graph();
+    }
+
+    private void handle(HttpExchange exchange, String method, ExchangeHandler handler) throws IOException {
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendText(exchange, 405, "Method not allowed\n");
+                return;
+            }
+            handler.handle();
+        } catch (IllegalArgumentException e) {
+            sendText(exchange, 400, e.getMessage() + "\n");
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            sendText(exchange, 500, e.getMessage() + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ReportSink openSink(HttpExchange exchange) throws IOException {
+        String formatParameter = queryParameter(exchange, "format");
+        ReportFormat format = formatParameter == null ? ReportFormat.JSONL : ReportFormat.valueOf(formatParameter.toUpperCase(Locale.ROOT));
+        exchange.getResponseHeaders().set("Content-Type", switch (format) {
+            case TEXT -> "text/plain; charset=utf-8";
+            case CSV -> "text/csv; charset=utf-8";
+            case JSONL -> JSON_LINES;
+        });
+        exchange.sendResponseHeaders(200, 0);
+        return ReportSinks.create(format, responseWriter(exchange), true);
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(name + "=")) {
+                    return parameter.substring(name.length() + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int parseId(String id) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid employee id '" + id + "'");
+        }
+    }
+
+    private static Writer responseWriter(HttpExchange exchange) {
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static void sendJson(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String body) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // Headers are already sent, the response can only be cut short
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Uses a virtual thread per request where available (Java 21+), falling back to a cached thread pool.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExchangeHandler {
+        void handle() throws IOException;
+    }
+}
@@ -0,0 +1,272 @@
+package com.epam.service;
+
+import com.epam.model.ChangeType;
+import com.epam.model.Employee;
+import com.epam.model.EmployeeChange;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * The result of an organisation analysis together with the state needed to update it incrementally.
+ * <p>
+ * The state indexes employees and their direct subordinates by ID and keeps the hierarchy depth of every employee.
+ * Applying a change set re-computes depths only in the subtrees whose reporting lines moved and re-evaluates
+ * salaries only for the managers whose own salary or subordinates changed, so the cost of an update is proportional
+ * to the size of the change rather than to the size of the organisation. Employee IDs are expected to be unique;
+ * of several employees sharing an ID the last one is kept.
+ * </p>
+ * <p>
+ * Instances are created by {@link OrganisationOptimisationService#analyze(List)} and are not thread-safe.
+ * </p>
+ */
+public class AnalysisState {
+    private static final int MONEY_SCALE = 2;
+
+    private final int hierarchyDepthThreshold;
+    private final SalaryDiscrepancyEngine salaryDiscrepancyEngine;
+
+    private final Map<Integer, Employee> employeesById;
+    private final Map<Integer, Set<Integer>> subordinatesById = new HashMap<>();
+    private final Map<Integer, Integer> depthById;
+    private final Map<Employee, Integer> longReportingLines = new HashMap<>();
+    private final Map<Employee, SalaryDiscrepancy> salaryDiscrepancies = new HashMap<>();
+
+    /**
+     * Builds the state and runs the full analysis.
+     *
+     * @throws IllegalStateException if some reporting lines contain a cycle
+     */
+    AnalysisState(List<Employee> employees, int hierarchyDepthThreshold, SalaryDiscrepancyEngine salaryDiscrepancyEngine) {
+        this.hierarchyDepthThreshold = hierarchyDepthThreshold;
+        this.salaryDiscrepancyEngine = salaryDiscrepancyEngine;
+        employeesById = new HashMap<>(employees.size() * 2);
+        depthById = new HashMap<>(employees.size() * 2);
+        for (Employee employee : employees) {
+            employeesById.put(employee.id(), employee);
+        }
+        for (Employee employee : employeesById.values()) {
+            if (employee.managerId() != null) {
+                subordinatesById.computeIfAbsent(employee.managerId(), id -> new HashSet<>()).add(employee.id());
+            }
+        }
+
+        // Top-level employees: without a manager, or with a manager that is not part of the organisation
+        Set<Integer> topLevel = new HashSet<>();
+        for (Employee employee : employeesById.values()) {
+            if (employee.managerId() == null || !employeesById.containsKey(employee.managerId())) {
+                topLevel.add(employee.id());
+            }
+        }
+        updateDepths(topLevel);
+        if (depthById.size() < employeesById.size()) {
+            throw new IllegalStateException((employeesById.size() - depthById.size()) + " employees have reporting lines that contain a cycle");
+        }
+        updateSalaryDiscrepancies(subordinatesById.keySet());
+    }
+
+    /**
+     * @return A map where the key is the employee and the value is the difference between their reporting line length and the threshold.
+     */
+    public Map<Employee, Integer> getLongReportingLines() {
+        return Collections.unmodifiableMap(longReportingLines);
+    }
+
+    /**
+     * @return A map where the key is the employee and the value is their salary discrepancy.
+     */
+    public Map<Employee, SalaryDiscrepancy> getSalaryDiscrepancies() {
+        return Collections.unmodifiableMap(salaryDiscrepancies);
+    }
+
+    /**
+     * @return the number of employees in the organisation
+     */
+    public int size() {
+        return employeesById.size();
+    }
+
+    /**
+     * Applies changes in order and updates the results.
+     *
+     * @param changes the changes to apply
+     * @throws IllegalStateException if a manager move would create a cycle; the changes before it remain applied
+     *                               and the results are updated for them
+     */
+    void apply(List<EmployeeChange> changes) {
+        Set<Integer> movedEmployees = new LinkedHashSet<>();
+        Set<Integer> changedManagers = new LinkedHashSet<>();
+        try {
+            for (EmployeeChange change : changes) {
+                if (change.type() == ChangeType.DELETE) {
+                    delete(change.id(), movedEmployees, changedManagers);
+                } else {
+                    upsert(change.employee(), movedEmployees, changedManagers);
+                }
+            }
+        } finally {
+            updateDepths(movedEmployees);
+            updateSalaryDiscrepancies(changedManagers);
+        }
+    }
+
+    private void upsert(Employee employee, Set<Integer> movedEmployees, Set<Integer> changedManagers) {
+        Integer id = employee.id();
+        Employee previous = employeesById.get(id);
+        boolean moved = previous == null || !Objects.equals(previous.managerId(), employee.managerId());
+        if (moved) {
+            checkNoCycle(id, employee.managerId());
+        }
+
+        if (previous != null && previous.managerId() != null) {
+            removeSubordinate(previous.managerId(), id);
+            changedManagers.add(previous.managerId());
+        }
+        employeesById.put(id, employee);
+        if (employee.managerId() != null) {
+            subordinatesById.computeIfAbsent(employee.managerId(), managerId -> new HashSet<>()).add(id);
+            changedManagers.add(employee.managerId());
+        }
+        changedManagers.add(id);
+
+        if (moved) {
+            movedEmployees.add(id);
+        } else {
+            // Refresh the key, the record of the employee changed
+            Integer hierarchyDepthDifference = longReportingLines.remove(employee);
+            if (hierarchyDepthDifference != null) {
+                longReportingLines.put(employee, hierarchyDepthDifference);
+            }
+        }
+    }
+
+    private void delete(Integer id, Set<Integer> movedEmployees, Set<Integer> changedManagers) {
+        Employee previous = employeesById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        if (previous.managerId() != null) {
+            removeSubordinate(previous.managerId(), id);
+            changedManagers.add(previous.managerId());
+        }
+        depthById.remove(id);
+        longReportingLines.remove(previous);
+        salaryDiscrepancies.remove(previous);
+        movedEmployees.remove(id);
+        // Subordinates of a leaver now report to an unknown manager
+        movedEmployees.addAll(subordinatesById.getOrDefault(id, Collections.emptySet()));
+    }
+
+    private void removeSubordinate(Integer managerId, Integer id) {
+        Set<Integer> subordinates = subordinatesById.get(managerId);
+        if (subordinates != null) {
+            subordinates.remove(id);
+            if (subordinates.isEmpty()) {
+                subordinatesById.remove(managerId);
+            }
+        }
+    }
+
+    /**
+     * Walks up from the new manager and rejects the move if it reaches the employee.
+     */
+    private void checkNoCycle(Integer id, Integer managerId) {
+        Integer current = managerId;
+        while (current != null) {
+            if (current.equals(id)) {
+                throw new IllegalStateException("Moving employee " + id + " under manager " + managerId + " creates a cycle");
+            }
+            Employee manager = employeesById.get(current);
+            current = manager != null ? manager.managerId() : null;
+        }
+    }
+
+    /**
+     * Re-computes the depths of the given employees and propagates changes breadth-first into their subtrees.
+     * Propagation stops at employees whose depth did not change.
+     */
+    private void updateDepths(Collection<Integer> roots) {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (Integer root : roots) {
+            if (employeesById.containsKey(root)) {
+                queue.add(root);
+            }
+            while (!queue.isEmpty()) {
+                Integer id = queue.poll();
+                Employee employee = employeesById.get(id);
+                int depth = depthOf(employee);
+                Integer previousDepth = depthById.put(id, depth);
+                if (previousDepth != null && previousDepth == depth && !id.equals(root)) {
+                    continue;
+                }
+                longReportingLines.remove(employee);
+                if (depth > hierarchyDepthThreshold) {
+                    longReportingLines.put(employee, depth - hierarchyDepthThreshold);
+                }
+                queue.addAll(subordinatesById.getOrDefault(id, Collections.emptySet()));
+            }
+        }
+    }
+
+    private int depthOf(Employee employee) {
+        if (employee.managerId() == null) {
+            return 0;
+        }
+        Integer managerDepth = depthById.get(employee.managerId());
+        return managerDepth != null && employeesById.containsKey(employee.managerId()) ? managerDepth + 1 : 1;
+    }
+
+    /**
+     * Re-evaluates the salary of the given managers against their current direct subordinates.
+     */
+    private void updateSalaryDiscrepancies(Collection<Integer> managerIds) {
+        for (Integer managerId : managerIds) {
+            Employee manager = employeesById.get(managerId);
+            if (manager == null) {
+                continue;
+            }
+            salaryDiscrepancies.remove(manager);
+            Set<Integer> subordinates = subordinatesById.get(managerId);
+            if (subordinates == null || subordinates.isEmpty()) {
+                continue;
+            }
+            SalaryDiscrepancy discrepancy;
+            try {
+                long salarySum = 0;
+                int scale = 0;
+                for (Integer subordinateId : subordinates) {
+                    BigDecimal salary = employeesById.get(subordinateId).salary();
+                    salarySum = Math.addExact(salarySum, cents(salary));
+                    scale = Math.max(scale, salary.scale());
+                }
+                discrepancy = salaryDiscrepancyEngine.evaluate(cents(manager.salary()), manager.salary().scale(),
+                        salarySum, subordinates.size(), scale);
+            } catch (ArithmeticException e) {
+                // Some salary or their sum cannot be represented in cents
+                BigDecimal salarySum = BigDecimal.ZERO;
+                for (Integer subordinateId : subordinates) {
+                    salarySum = salarySum.add(employeesById.get(subordinateId).salary());
+                }
+                discrepancy = salaryDiscrepancyEngine.evaluateExact(manager.salary(), salarySum, subordinates.size());
+            }
+            if (discrepancy != null) {
+                salaryDiscrepancies.put(manager, discrepancy);
+            }
+        }
+    }
+
+    private static long cents(BigDecimal salary) {
+        return salary.movePointRight(MONEY_SCALE).longValueExact();
+    }
+}
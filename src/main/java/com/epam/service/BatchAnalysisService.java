@@ -0,0 +1,312 @@
+package com.epam.service;
+
+import com.epam.config.PropertyHolder;
+import com.epam.graph.OrgGraph;
+import com.epam.io.CsvParseBuffers;
+import com.epam.io.CsvReadResult;
+import com.epam.io.GzipCsvReader;
+import com.epam.io.MappedCsvFile;
+import com.epam.io.MappedCsvReader;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+import com.epam.rules.RuleEngine;
+import com.epam.validation.OrganisationValidationException;
+import com.epam.validation.OrganisationValidator;
+import com.epam.validation.ValidationMode;
+import com.epam.validation.ValidationResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Service class analysing many organisation files concurrently and writing one combined report.
+ * <p>
+ * Files are analysed on a fixed pool of worker threads, each file on a single thread. Every worker parses into
+ * its own {@link CsvParseBuffers}, which are reused from file to file. Gzip-compressed files ({@code .csv.gz}) are
+ * read by {@link GzipCsvReader} instead. A file that cannot be read, validated or analysed is reported as failed in
+ * the summary; the other files are not affected.
+ * </p>
+ * <p>
+ * The organisation rules and their settings default to the application properties and can be overridden for a single
+ * file by a properties file next to it, named after the file with a {@code .properties} suffix
+ * ({@code emea.csv.properties} for {@code emea.csv}).
+ * </p>
+ * <p>
+ * The combined report has one section per file, holding its findings in the requested format, followed by a summary
+ * line per file in the order of the files. Sections are written in the order the files are done, so the findings of
+ * a file are held in memory only until its analysis completes. Results are not cached: the summary needs counts that
+ * a {@link com.epam.cache.ResultCache} entry does not hold.
+ * </p>
+ */
+public class BatchAnalysisService {
+    static final String SETTINGS_SUFFIX = ".properties";
+
+    private final int threads;
+    private final ValidationMode validationMode;
+    private final Properties defaults;
+
+    /**
+     * Constructs a BatchAnalysisService with configuration properties.
+     * Reads the number of worker threads from {@code app.batch.threads}, {@code 0} meaning one thread per available
+     * processor, and the validation mode from {@code app.validation.mode}.
+     */
+    public BatchAnalysisService() {
+        this(Integer.parseInt(PropertyHolder.properties.getProperty("app.batch.threads", "0")),
+                ValidationMode.valueOf(PropertyHolder.properties.getProperty("app.validation.mode", "quarantine").toUpperCase(Locale.ROOT)),
+                PropertyHolder.properties);
+    }
+
+    /**
+     * Constructs a BatchAnalysisService with explicit settings.
+     *
+     * @param threads the number of files analysed at the same time; {@code 0} means one per available processor
+     * @param validationMode how to treat an organisation with structural issues
+     * @param defaults the organisation rules and their settings used for files without their own settings
+     */
+    public BatchAnalysisService(int threads, ValidationMode validationMode, Properties defaults) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.validationMode = validationMode;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Resolves the files of a batch. A directory selects the {@code .csv} and {@code .csv.gz} files directly inside
+     * it; a glob pattern
+     * such as {@code reports/**}{@code /*.csv} selects the matching files below the directory preceding the first
+     * wildcard; any other path selects itself.
+     *
+     * @param pattern a directory, a glob pattern or a file
+     * @return the selected files, sorted by path
+     * @throws IOException if a directory cannot be listed
+     */
+    public List<Path> resolve(String pattern) throws IOException {
+        int wildcard = indexOfWildcard(pattern);
+        if (wildcard < 0) {
+            Path path = Path.of(pattern);
+            if (!Files.isDirectory(path)) {
+                return List.of(path);
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                return files.filter(file -> Files.isRegularFile(file) && isReport(file.getFileName().toString()))
+                        .sorted()
+                        .toList();
+            }
+        }
+
+        int separator = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf(File.separatorChar, wildcard));
+        Path base = Path.of(separator < 0 ? "." : pattern.substring(0, separator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(separator + 1));
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(file -> Files.isRegularFile(file) && matcher.matches(base.relativize(file)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Analyses the files selected by a pattern and writes the combined report.
+     *
+     * @param pattern a directory, a glob pattern or a file, see {@link #resolve(String)}
+     * @param format the format of the findings
+     * @param output the writer receiving the combined report; it is flushed but not closed
+     * @return the summary of every file, in the order of the files
+     * @throws IOException if the files cannot be listed or the report cannot be written
+     */
+    public List<BatchFileSummary> analyze(String pattern, ReportFormat format, Writer output) throws IOException {
+        return analyze(resolve(pattern), format, output);
+    }
+
+    /**
+     * Analyses files concurrently and writes the combined report. The section of a file is written and flushed as
+     * soon as the file is done.
+     *
+     * @param files the files to analyse
+     * @param format the format of the findings
+     * @param output the writer receiving the combined report; it is flushed but not closed
+     * @return the summary of every file, in the order of the files
+     * @throws IOException if the report cannot be written
+     */
+    public List<BatchFileSummary> analyze(List<Path> files, ReportFormat format, Writer output) throws IOException {
+        int workers = Math.max(1, Math.min(threads, files.size()));
+        BlockingQueue<CsvParseBuffers> buffers = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            buffers.add(new CsvParseBuffers());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            CompletionService<FileResult> results = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                results.submit(() -> analyzeFile(index, files.get(index), format, buffers));
+            }
+
+            BatchFileSummary[] summaries = new BatchFileSummary[files.size()];
+            for (int i = 0; i < files.size(); i++) {
+                FileResult fileResult = results.take().get();
+                summaries[fileResult.index()] = fileResult.summary();
+                output.write("==> " + fileResult.summary().file() + " <==" + System.lineSeparator());
+                output.write(fileResult.findings());
+                output.flush();
+            }
+            List<BatchFileSummary> ordered = List.of(summaries);
+            writeSummary(ordered, output);
+            output.flush();
+            return ordered;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analysing batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to analyse batch", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Analyses one file on the calling worker, capturing its findings in memory.
+     */
+    private FileResult analyzeFile(int index, Path file, ReportFormat format, BlockingQueue<CsvParseBuffers> buffers) throws InterruptedException {
+        CsvParseBuffers workerBuffers = buffers.take();
+        try (Phase phase = PhaseMetrics.start("analyzeBatchFile")) {
+            RuleEngine ruleEngine = RuleEngine.fromProperties(settings(file));
+            CsvReadResult read = file.getFileName().toString().endsWith(ReportService.GZIP_SUFFIX)
+                    ? GzipCsvReader.read(file)
+                    : MappedCsvReader.read(MappedCsvFile.map(file), workerBuffers);
+            phase.rows(read.graph().size());
+
+            ValidationResult validation = new OrganisationValidator(validationMode).validate(read.graph());
+            OrgGraph graph = validation.graph();
+
+            StringWriter findings = new StringWriter();
+            CountingSink sink = new CountingSink(ReportSinks.create(format, findings, true));
+            try (sink) {
+                ruleEngine.report(graph, sink);
+            }
+            return new FileResult(index, new BatchFileSummary(file, graph.size(), read.malformedRows().size(),
+                    validation.issues().size(), validation.quarantined(), sink.longReportingLines,
+                    sink.salaryDiscrepancies, sink.ruleViolations, null), findings.toString());
+        } catch (OrganisationValidationException e) {
+            return new FileResult(index, BatchFileSummary.failed(file, "rejected, " + e.getIssues().size() + " structural issues found"), "");
+        } catch (IOException | RuntimeException e) {
+            return new FileResult(index, BatchFileSummary.failed(file, e.toString()), "");
+        } finally {
+            buffers.add(workerBuffers);
+        }
+    }
+
+    /**
+     * Reads the settings of a file: the defaults, overridden by the properties file next to it if there is one.
+     */
+    Properties settings(Path file) throws IOException {
+        Properties settings = new Properties(defaults);
+        Path settingsFile = file.resolveSibling(file.getFileName() + SETTINGS_SUFFIX);
+        if (Files.isRegularFile(settingsFile)) {
+            try (Reader reader = Files.newBufferedReader(settingsFile)) {
+                settings.load(reader);
+            }
+        }
+        return settings;
+    }
+
+    private static void writeSummary(List<BatchFileSummary> summaries, Writer output) throws IOException {
+        String lineSeparator = System.lineSeparator();
+        int failed = 0;
+        output.write("==> Summary <==" + lineSeparator);
+        for (BatchFileSummary summary : summaries) {
+            if (summary.failed()) {
+                failed++;
+                output.write(summary.file() + ": failed: " + summary.error() + lineSeparator);
+            } else {
+                output.write(String.format(Locale.ROOT,
+                        "%s: %d employees, %d malformed rows, %d structural issues, %d quarantined, "
+                                + "%d long reporting lines, %d salary discrepancies, %d other rule violations%n",
+                        summary.file(), summary.employees(), summary.malformedRows(), summary.issues(),
+                        summary.quarantined(), summary.longReportingLines(), summary.salaryDiscrepancies(),
+                        summary.ruleViolations()));
+            }
+        }
+        output.write(String.format(Locale.ROOT, "Analysed %d files, %d failed%n", summaries.size(), failed));
+    }
+
+    private static boolean isReport(String fileName) {
+        return fileName.endsWith(".csv") || fileName.endsWith(".csv" + ReportService.GZIP_SUFFIX);
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The summary of a file, its position in the batch and its findings rendered in the requested format.
+     */
+    private record FileResult(int index, BatchFileSummary summary, String findings) {
+    }
+
+    /**
+     * Counts the findings passed on to another sink.
+     */
+    private static final class CountingSink implements ReportSink {
+        private final ReportSink delegate;
+        private int longReportingLines;
+        private int salaryDiscrepancies;
+        private int ruleViolations;
+
+        CountingSink(ReportSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void longReportingLine(Employee employee, int hierarchyDepthDifference) throws IOException {
+            longReportingLines++;
+            delegate.longReportingLine(employee, hierarchyDepthDifference);
+        }
+
+        @Override
+        public void salaryDiscrepancy(Employee manager, SalaryDiscrepancy salaryDiscrepancy) throws IOException {
+            salaryDiscrepancies++;
+            delegate.salaryDiscrepancy(manager, salaryDiscrepancy);
+        }
+
+        @Override
+        public void ruleViolation(String rule, Employee employee, BigDecimal amount, String detail) throws IOException {
+            ruleViolations++;
+            delegate.ruleViolation(rule, employee, amount, detail);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
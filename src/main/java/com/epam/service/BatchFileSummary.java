@@ -0,0 +1,36 @@
+package com.epam.service;
+
+import java.nio.file.Path;
+
+/**
+ * The outcome of analysing one file of a batch.
+ *
+ * @param file the analysed file
+ * @param employees the number of employees analysed, after quarantine
+ * @param malformedRows the number of rows that could not be parsed
+ * @param issues the number of structural issues found by validation
+ * @param quarantined the number of employees removed by validation
+ * @param longReportingLines the number of employees with a long reporting line
+ * @param salaryDiscrepancies the number of managers with a salary discrepancy
+ * @param ruleViolations the number of findings of the other organisation rules
+ * @param error the reason the file could not be analysed, or {@code null} if it was analysed
+ */
+public record BatchFileSummary(Path file, int employees, int malformedRows, int issues, int quarantined,
+                               int longReportingLines, int salaryDiscrepancies, int ruleViolations, String error) {
+
+    /**
+     * @param file the file that could not be analysed
+     * @param error the reason
+     * @return the summary of a failed file
+     */
+    static BatchFileSummary failed(Path file, String error) {
+        return new BatchFileSummary(file, 0, 0, 0, 0, 0, 0, 0, error);
+    }
+
+    /**
+     * @return {@code true} if the file could not be analysed
+     */
+    public boolean failed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.epam.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the {@code capacity} highest ranked of the candidates offered to it, in O(capacity) memory.
+ * <p>
+ * The candidates are held in a priority queue with the lowest ranked one at its head, so a candidate that does not
+ * outrank the head is rejected in constant time and any other replaces the head in O(log capacity).
+ * Heaps filled from disjoint partitions are combined with {@link #addAll(BoundedHeap)}. Not thread-safe.
+ * </p>
+ *
+ * @param <T> the type of the candidates
+ */
+final class BoundedHeap<T> {
+    private final int capacity;
+    private final Comparator<? super T> ranking;
+    private final PriorityQueue<T> queue;
+
+    /**
+     * @param capacity the number of candidates to keep
+     * @param ranking orders candidates from the lowest to the highest ranked
+     */
+    BoundedHeap(int capacity, Comparator<? super T> ranking) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ranking = ranking;
+        this.queue = new PriorityQueue<>(Math.max(1, Math.min(capacity, 1024)), ranking);
+    }
+
+    /**
+     * @return {@code true} if the heap holds {@code capacity} candidates, so a candidate must outrank {@link #lowest()}
+     */
+    boolean isFull() {
+        return queue.size() >= capacity;
+    }
+
+    /**
+     * @return the lowest ranked candidate kept, or {@code null} if the heap is empty
+     */
+    T lowest() {
+        return queue.peek();
+    }
+
+    /**
+     * Offers a candidate.
+     *
+     * @param candidate the candidate
+     * @return {@code true} if the candidate is kept
+     */
+    boolean offer(T candidate) {
+        if (queue.size() < capacity) {
+            queue.add(candidate);
+            return true;
+        }
+        if (capacity == 0 || ranking.compare(candidate, queue.peek()) <= 0) {
+            return false;
+        }
+        queue.poll();
+        queue.add(candidate);
+        return true;
+    }
+
+    /**
+     * Offers every candidate kept by another heap.
+     *
+     * @param other the other heap
+     */
+    void addAll(BoundedHeap<T> other) {
+        other.queue.forEach(this::offer);
+    }
+
+    /**
+     * @return the candidates kept, from the highest to the lowest ranked
+     */
+    List<T> toSortedList() {
+        List<T> sorted = new ArrayList<>(queue);
+        sorted.sort(ranking.reversed());
+        return sorted;
+    }
+}
@@ -1,16 +1,30 @@
 package com.epam.service;
 
 import com.epam.config.PropertyHolder;
-import com.epam.model.DiscrepancyType;
+import com.epam.graph.OrgGraph;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
 import com.epam.model.Employee;
+import com.epam.model.EmployeeChange;
 import com.epam.model.SalaryDiscrepancy;
+import com.epam.model.SubtreeSalaryStatistics;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service class for optimizing organizational structure by analyzing reporting lines and salary discrepancies.
@@ -19,15 +33,40 @@ public class OrganisationOptimisationService {
     private final Integer hierarchyDepthThreshold;
     private final Double lowSalaryRation;
     private final Double highSalaryRation;
+    private final SalaryDiscrepancyEngine salaryDiscrepancyEngine;
 
     /**
      * Constructs an OrganisationOptimisationService with configuration properties.
      * Reads hierarchy depth threshold and salary ratios from PropertyHolder.
      */
     public OrganisationOptimisationService() {
-        hierarchyDepthThreshold = Integer.valueOf(PropertyHolder.properties.getProperty("app.hierarchy.depth"));
-        lowSalaryRation = Double.valueOf(PropertyHolder.properties.getProperty("app.salary.ration.low"));
-        highSalaryRation = Double.valueOf(PropertyHolder.properties.getProperty("app.salary.ration.high"));
+        this(PropertyHolder.properties);
+    }
+
+    /**
+     * Constructs an OrganisationOptimisationService reading hierarchy depth threshold and salary ratios from
+     * the {@code app.hierarchy.depth}, {@code app.salary.ration.low} and {@code app.salary.ration.high} properties.
+     *
+     * @param properties The properties holding the settings, possibly with defaults.
+     */
+    public OrganisationOptimisationService(Properties properties) {
+        this(Integer.parseInt(properties.getProperty("app.hierarchy.depth")),
+                Double.parseDouble(properties.getProperty("app.salary.ration.low")),
+                Double.parseDouble(properties.getProperty("app.salary.ration.high")));
+    }
+
+    /**
+     * Constructs an OrganisationOptimisationService with explicit settings.
+     *
+     * @param hierarchyDepthThreshold The deepest hierarchy depth that is not reported.
+     * @param lowSalaryRation The lowest allowed ratio of a manager's salary to the average salary of their subordinates.
+     * @param highSalaryRation The highest allowed ratio of a manager's salary to the average salary of their subordinates.
+     */
+    public OrganisationOptimisationService(int hierarchyDepthThreshold, double lowSalaryRation, double highSalaryRation) {
+        this.hierarchyDepthThreshold = hierarchyDepthThreshold;
+        this.lowSalaryRation = lowSalaryRation;
+        this.highSalaryRation = highSalaryRation;
+        salaryDiscrepancyEngine = new SalaryDiscrepancyEngine(lowSalaryRation, highSalaryRation);
     }
 
     /**
@@ -37,86 +76,208 @@ public class OrganisationOptimisationService {
      * @return A map where the key is the manager's ID and the value is a list of their subordinates.
      */
     public Map<Integer, List<Employee>> buildSubordinatesMap(List<Employee> employees) {
-        return employees.stream()
-                .filter(emp -> emp.managerId() != null)
-                .collect(Collectors.groupingBy(Employee::managerId));
+        try (Phase phase = PhaseMetrics.start("buildSubordinatesMap")) {
+            phase.rows(employees.size());
+            return employees.stream()
+                    .filter(emp -> emp.managerId() != null)
+                    .collect(Collectors.groupingBy(Employee::managerId));
+        }
     }
 
     /**
-     * Reports salary discrepancies for managers based on the salaries of their subordinates.
+     * Reports salary discrepancies for managers based on the salaries of their subordinates to standard output,
+     * ordered by employee ID.
      *
      * @param employees List of employees.
-     * @param subordinatesMap Map of subordinates for each manager.
+     * @param subordinatesMap Ignored; kept for compatibility.
      */
     public void reportSalaryDiscrepancies(List<Employee> employees, Map<Integer, List<Employee>> subordinatesMap) {
-        Map<Employee, SalaryDiscrepancy> employeeWithSalaryDiscrepancies = getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap);
-        employeeWithSalaryDiscrepancies.forEach((employee, salaryDiscrepancy) -> {
-            if (DiscrepancyType.LESS.equals(salaryDiscrepancy.type())) {
-                System.out.printf("Manager %s earns less than they should by %s%n", employee, salaryDiscrepancy.discrepancy());
-            } else if (DiscrepancyType.MORE.equals(salaryDiscrepancy.type())) {
-                System.out.printf("Manager %s earns more than they should by %s%n", employee, salaryDiscrepancy.discrepancy());
+        try (ReportSink sink = ReportSinks.stdout(ReportFormat.TEXT)) {
+            List<Map.Entry<Employee, SalaryDiscrepancy>> entries =
+                    new ArrayList<>(getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap).entrySet());
+            entries.sort(Map.Entry.comparingByKey(Comparator.comparing(Employee::id)));
+            for (Map.Entry<Employee, SalaryDiscrepancy> entry : entries) {
+                sink.salaryDiscrepancy(entry.getKey(), entry.getValue());
             }
-        });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports salary discrepancies for managers based on the salaries of their subordinates to standard output,
+     * ordered by employee ID.
+     *
+     * @param graph Graph of the organisation.
+     */
+    public void reportSalaryDiscrepancies(OrgGraph graph) {
+        try (ReportSink sink = ReportSinks.stdout(ReportFormat.TEXT)) {
+            reportSalaryDiscrepancies(graph, sink);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports salary discrepancies for managers based on the salaries of their subordinates, ordered by employee ID.
+     * Managers are materialised one at a time as they are written.
+     *
+     * @param graph Graph of the organisation.
+     * @param sink The sink receiving the findings; it is not closed.
+     * @throws IOException if the sink cannot be written
+     */
+    public void reportSalaryDiscrepancies(OrgGraph graph, ReportSink sink) throws IOException {
+        List<SalaryDiscrepancyEngine.FlaggedManager> flaggedManagers;
+        try (Phase phase = PhaseMetrics.start("evaluateSalaries")) {
+            phase.rows(graph.size());
+            flaggedManagers = salaryDiscrepancyEngine.evaluateFlagged(graph);
+        }
+        try (Phase phase = PhaseMetrics.start("writeSalaryDiscrepancies")) {
+            phase.rows(flaggedManagers.size());
+            int[] indexes = new int[flaggedManagers.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = flaggedManagers.get(i).index();
+            }
+            int[] order = sortByEmployeeId(graph, indexes);
+            for (int position : order) {
+                SalaryDiscrepancyEngine.FlaggedManager flagged = flaggedManagers.get(position);
+                sink.salaryDiscrepancy(graph.employee(flagged.index()), flagged.discrepancy());
+            }
+        }
     }
 
     /**
      * Identifies employees with salary discrepancies based on the salaries of their subordinates.
      *
      * @param employees List of employees.
-     * @param subordinatesMap Map of subordinates for each manager.
+     * @param subordinatesMap Ignored; kept for compatibility. The subordinates are derived from {@code employees}
+     *                        by the {@link OrgGraph} the analysis runs on.
      * @return A map where the key is the employee and the value is their salary discrepancy.
      */
     public Map<Employee, SalaryDiscrepancy> getEmployeeWithSalaryDiscrepancies(List<Employee> employees, Map<Integer, List<Employee>> subordinatesMap) {
-        Map<Employee, SalaryDiscrepancy> employeeWithSalaryDiscrepancy = new HashMap<>();
-
-        for (Employee manager : employees) {
-            List<Employee> subordinates = subordinatesMap.get(manager.id());
-            if (subordinates != null && !subordinates.isEmpty()) {
-                BigDecimal averageSalary = subordinates.stream()
-                        .map(Employee::salary)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                        .divide(BigDecimal.valueOf(subordinates.size()), RoundingMode.HALF_UP);
-
-                BigDecimal lowerBound = averageSalary.multiply(BigDecimal.valueOf(lowSalaryRation));
-                BigDecimal upperBound = averageSalary.multiply(BigDecimal.valueOf(highSalaryRation));
-
-                if (manager.salary().compareTo(lowerBound) < 0) {
-                    employeeWithSalaryDiscrepancy.put(manager, new SalaryDiscrepancy(DiscrepancyType.LESS, lowerBound.subtract(manager.salary())));
-                } else if (manager.salary().compareTo(upperBound) > 0) {
-                    employeeWithSalaryDiscrepancy.put(manager, new SalaryDiscrepancy(DiscrepancyType.MORE, manager.salary().subtract(upperBound)));
-                }
-            }
+        return getEmployeeWithSalaryDiscrepancies(OrgGraph.of(employees));
+    }
+
+    /**
+     * Identifies employees with salary discrepancies based on the salaries of their subordinates.
+     * Salaries are evaluated in fixed-point arithmetic by {@link SalaryDiscrepancyEngine}, in parallel for large organisations.
+     *
+     * @param graph Graph of the organisation.
+     * @return A map where the key is the employee and the value is their salary discrepancy.
+     */
+    public Map<Employee, SalaryDiscrepancy> getEmployeeWithSalaryDiscrepancies(OrgGraph graph) {
+        try (Phase phase = PhaseMetrics.start("evaluateSalaries")) {
+            phase.rows(graph.size());
+            return salaryDiscrepancyEngine.evaluate(graph);
         }
-        return employeeWithSalaryDiscrepancy;
     }
 
     /**
-     * Reports employees with long reporting lines exceeding the defined threshold.
+     * Reports employees with long reporting lines exceeding the defined threshold to standard output,
+     * ordered by employee ID.
      *
      * @param employees List of employees.
-     * @param subordinatesMap Map of subordinates for each manager.
+     * @param subordinatesMap Ignored; kept for compatibility.
      */
     public void reportLongReportingLines(List<Employee> employees, Map<Integer, List<Employee>> subordinatesMap) {
-        Map<Employee, Integer> hierarchyDepthMap = getLongReportingLines(employees, subordinatesMap);
-        hierarchyDepthMap.forEach((employee, hierarchyDepthDifference) ->
-                System.out.printf("Employee %s has a reporting line that is too long by %d%n", employee, hierarchyDepthDifference));
+        try (ReportSink sink = ReportSinks.stdout(ReportFormat.TEXT)) {
+            List<Map.Entry<Employee, Integer>> entries = new ArrayList<>(getLongReportingLines(employees, subordinatesMap).entrySet());
+            entries.sort(Map.Entry.comparingByKey(Comparator.comparing(Employee::id)));
+            for (Map.Entry<Employee, Integer> entry : entries) {
+                sink.longReportingLine(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports employees with long reporting lines exceeding the defined threshold to standard output,
+     * ordered by employee ID.
+     *
+     * @param graph Graph of the organisation.
+     */
+    public void reportLongReportingLines(OrgGraph graph) {
+        try (ReportSink sink = ReportSinks.stdout(ReportFormat.TEXT)) {
+            reportLongReportingLines(graph, sink);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports employees with long reporting lines exceeding the defined threshold, ordered by employee ID.
+     * Employees are materialised one at a time as they are written.
+     *
+     * @param graph Graph of the organisation.
+     * @param sink The sink receiving the findings; it is not closed.
+     * @throws IOException if the sink cannot be written
+     */
+    public void reportLongReportingLines(OrgGraph graph, ReportSink sink) throws IOException {
+        int[] depths = computeHierarchyDepths(graph);
+        int[] flagged = new int[depths.length];
+        int count = 0;
+        for (int index = 0; index < depths.length; index++) {
+            if (depths[index] > hierarchyDepthThreshold) {
+                flagged[count++] = index;
+            }
+        }
+        flagged = Arrays.copyOf(flagged, count);
+        try (Phase phase = PhaseMetrics.start("writeLongReportingLines")) {
+            phase.rows(count);
+            for (int position : sortByEmployeeId(graph, flagged)) {
+                int index = flagged[position];
+                sink.longReportingLine(graph.employee(index), depths[index] - hierarchyDepthThreshold);
+            }
+        }
+    }
+
+    /**
+     * Orders graph indexes by the IDs of their employees, keeping file order between equal IDs.
+     *
+     * @param graph Graph of the organisation.
+     * @param indexes Indexes of employees in the graph.
+     * @return Positions in {@code indexes}, ordered by employee ID.
+     */
+    private static int[] sortByEmployeeId(OrgGraph graph, int[] indexes) {
+        long[] keys = new long[indexes.length];
+        for (int position = 0; position < indexes.length; position++) {
+            // The ID in the high half orders by ID, the position in the low half keeps the order stable
+            keys[position] = ((long) graph.id(indexes[position]) << 32) | position;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
     }
 
     /**
      * Identifies employees with long reporting lines exceeding the defined threshold.
      *
      * @param employees List of employees.
-     * @param subordinatesMap Map of subordinates for each manager.
+     * @param subordinatesMap Ignored; kept for compatibility. The subordinates are derived from {@code employees}
+     *                        by the {@link OrgGraph} the analysis runs on.
      * @return A map where the key is the employee and the value is the difference between their reporting line length and the threshold.
      */
     public Map<Employee, Integer> getLongReportingLines(List<Employee> employees, Map<Integer, List<Employee>> subordinatesMap) {
-        Map<Employee, Integer> hierarchyDepthMap = new HashMap<>();
+        return getLongReportingLines(OrgGraph.of(employees));
+    }
+
+    /**
+     * Identifies employees with long reporting lines exceeding the defined threshold.
+     *
+     * @param graph Graph of the organisation.
+     * @return A map where the key is the employee and the value is the difference between their reporting line length and the threshold.
+     */
+    public Map<Employee, Integer> getLongReportingLines(OrgGraph graph) {
+        int[] depths = computeHierarchyDepths(graph);
         Map<Employee, Integer> result = new HashMap<>();
 
-        for (Employee employee : employees) {
-            int depth = getHierarchyDepth(employee, subordinatesMap, hierarchyDepthMap);
-            if (depth > hierarchyDepthThreshold) {
-                result.put(employee, depth - hierarchyDepthThreshold);
+        for (int index = 0; index < depths.length; index++) {
+            if (depths[index] > hierarchyDepthThreshold) {
+                result.put(graph.employee(index), depths[index] - hierarchyDepthThreshold);
             }
         }
 
@@ -124,7 +285,311 @@ public class OrganisationOptimisationService {
     }
 
     /**
-     * Recursively calculates the hierarchy depth for a given employee.
+     * Identifies the employees with the longest reporting lines exceeding the defined threshold.
+     *
+     * @param employees List of employees.
+     * @param k The number of employees to return.
+     * @return At most {@code k} entries of an employee and the difference between their reporting line length and
+     *         the threshold, from the largest difference; equal differences are ordered by employee ID.
+     */
+    public List<Map.Entry<Employee, Integer>> getTopLongReportingLines(List<Employee> employees, int k) {
+        return getTopLongReportingLines(OrgGraph.of(employees), k, 1);
+    }
+
+    /**
+     * Identifies the employees with the longest reporting lines exceeding the defined threshold.
+     * Candidates are streamed through a heap bounded to {@code k} entries, so no map of every flagged employee
+     * is built and only the returned employees are materialised.
+     *
+     * @param graph Graph of the organisation.
+     * @param k The number of employees to return.
+     * @param partitions The number of index ranges scanned in parallel, each into its own heap; 1 scans sequentially.
+     * @return At most {@code k} entries of an employee and the difference between their reporting line length and
+     *         the threshold, from the largest difference; equal differences are ordered by employee ID.
+     */
+    public List<Map.Entry<Employee, Integer>> getTopLongReportingLines(OrgGraph graph, int k, int partitions) {
+        int[] depths = computeHierarchyDepths(graph);
+        try (Phase phase = PhaseMetrics.start("selectTopLongReportingLines")) {
+            phase.rows(depths.length);
+            Comparator<Integer> ranking = Comparator.<Integer>comparingInt(index -> depths[index])
+                    .thenComparing(Comparator.<Integer>comparingInt(graph::id).reversed());
+            List<Integer> top = selectTop(depths.length, k, partitions, ranking, (from, to, heap) -> {
+                for (int index = from; index < to; index++) {
+                    // Employees that cannot outrank the lowest kept one are skipped without boxing
+                    if (depths[index] > hierarchyDepthThreshold && (!heap.isFull() || depths[index] >= depths[heap.lowest()])) {
+                        heap.offer(index);
+                    }
+                }
+            });
+
+            List<Map.Entry<Employee, Integer>> result = new ArrayList<>(top.size());
+            for (int index : top) {
+                result.add(Map.entry(graph.employee(index), depths[index] - hierarchyDepthThreshold));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Identifies the managers with the largest salary discrepancies.
+     *
+     * @param employees List of employees.
+     * @param k The number of managers to return.
+     * @return At most {@code k} entries of a manager and their salary discrepancy, from the largest discrepancy,
+     *         whether the manager earns less or more; equal discrepancies are ordered by employee ID.
+     */
+    public List<Map.Entry<Employee, SalaryDiscrepancy>> getTopSalaryDiscrepancies(List<Employee> employees, int k) {
+        return getTopSalaryDiscrepancies(OrgGraph.of(employees), k, 1);
+    }
+
+    /**
+     * Identifies the managers with the largest salary discrepancies. Managers are evaluated and streamed through
+     * a heap bounded to {@code k} entries, so flagged managers are never collected and only the returned managers
+     * are materialised.
+     *
+     * @param graph Graph of the organisation.
+     * @param k The number of managers to return.
+     * @param partitions The number of index ranges evaluated in parallel, each into its own heap; 1 evaluates sequentially.
+     * @return At most {@code k} entries of a manager and their salary discrepancy, from the largest discrepancy,
+     *         whether the manager earns less or more; equal discrepancies are ordered by employee ID.
+     */
+    public List<Map.Entry<Employee, SalaryDiscrepancy>> getTopSalaryDiscrepancies(OrgGraph graph, int k, int partitions) {
+        try (Phase phase = PhaseMetrics.start("selectTopSalaryDiscrepancies")) {
+            phase.rows(graph.size());
+            Comparator<SalaryDiscrepancyEngine.FlaggedManager> ranking =
+                    Comparator.comparing((SalaryDiscrepancyEngine.FlaggedManager flagged) -> flagged.discrepancy().discrepancy())
+                            .thenComparing(Comparator.comparingInt((SalaryDiscrepancyEngine.FlaggedManager flagged) -> graph.id(flagged.index())).reversed());
+            List<SalaryDiscrepancyEngine.FlaggedManager> top = selectTop(graph.size(), k, partitions, ranking,
+                    (from, to, heap) -> salaryDiscrepancyEngine.evaluateRange(graph, from, to,
+                            (discrepancy, manager) -> heap.offer(new SalaryDiscrepancyEngine.FlaggedManager(manager, discrepancy))));
+
+            List<Map.Entry<Employee, SalaryDiscrepancy>> result = new ArrayList<>(top.size());
+            for (SalaryDiscrepancyEngine.FlaggedManager flagged : top) {
+                result.add(Map.entry(graph.employee(flagged.index()), flagged.discrepancy()));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Selects the {@code k} highest ranked candidates found in the index range {@code [0, size)}. With more than one
+     * partition the range is split evenly, every part is scanned into its own heap on the common fork/join pool,
+     * and the heaps are merged.
+     *
+     * @param size The size of the index range.
+     * @param k The number of candidates to select.
+     * @param partitions The number of parts to scan in parallel.
+     * @param ranking Orders candidates from the lowest to the highest ranked.
+     * @param scan Offers the candidates of a part of the range to a heap.
+     * @return The selected candidates, from the highest to the lowest ranked.
+     */
+    private static <T> List<T> selectTop(int size, int k, int partitions, Comparator<? super T> ranking, PartitionScan<T> scan) {
+        if (k <= 0) {
+            return List.of();
+        }
+        int parts = Math.max(1, Math.min(partitions, size));
+        List<BoundedHeap<T>> heaps = IntStream.range(0, parts)
+                .parallel()
+                .mapToObj(part -> {
+                    BoundedHeap<T> heap = new BoundedHeap<>(k, ranking);
+                    scan.scan((int) ((long) size * part / parts), (int) ((long) size * (part + 1) / parts), heap);
+                    return heap;
+                })
+                .toList();
+        BoundedHeap<T> merged = heaps.get(0);
+        for (int part = 1; part < parts; part++) {
+            merged.addAll(heaps.get(part));
+        }
+        return merged.toSortedList();
+    }
+
+    /**
+     * Offers the candidates found in a part of an index range to a heap.
+     */
+    @FunctionalInterface
+    private interface PartitionScan<T> {
+        void scan(int from, int to, BoundedHeap<T> heap);
+    }
+
+    /**
+     * Describes the salaries of the whole subtree of every manager.
+     *
+     * @param employees List of employees.
+     * @param relativeAccuracy The largest relative error of the estimated median and 90th percentile.
+     * @return A map where the key is a manager and the value describes the salaries of their subordinates.
+     */
+    public Map<Employee, SubtreeSalaryStatistics> getSubtreeSalaryStatistics(List<Employee> employees, double relativeAccuracy) {
+        return getSubtreeSalaryStatistics(OrgGraph.of(employees), relativeAccuracy);
+    }
+
+    /**
+     * Describes the salaries of the whole subtree of every manager, in a single post-order pass over the organisation.
+     * Every manager's subordinates are summarised by a mergeable {@link SalarySketch}: the reporting lines are walked
+     * depth first, and when the last subordinate of a manager is done the manager's sketch is summarised, gains the
+     * manager's own salary and is merged into the sketch of their manager right away, so no list of salaries is ever
+     * collected. The smaller of two sketches is merged into the larger, and a manager's sketch takes over the first
+     * sketch merged into it, so a long reporting line costs no copying. Only the managers on the reporting line being
+     * walked hold a sketch, so memory is bounded by the depth of the organisation times the size of a sketch, which is
+     * set by {@code relativeAccuracy}.
+     *
+     * @param graph Graph of the organisation.
+     * @param relativeAccuracy The largest relative error of the estimated median and 90th percentile; a smaller
+     *                         value uses more memory.
+     * @return A map where the key is a manager and the value describes the salaries of their subordinates,
+     *         ordered by employee ID.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    public Map<Employee, SubtreeSalaryStatistics> getSubtreeSalaryStatistics(OrgGraph graph, double relativeAccuracy) {
+        try (Phase phase = PhaseMetrics.start("computeSubtreeSalaryStatistics")) {
+            phase.rows(graph.size());
+            int size = graph.size();
+            SubtreeSalaryStatistics[] statistics = new SubtreeSalaryStatistics[size];
+            // The reporting line being walked: employees, the position of their next subordinate and their sketches
+            int[] line = new int[16];
+            int[] nextChild = new int[16];
+            SalarySketch[] sketches = new SalarySketch[16];
+            int visited = 0;
+            for (int root = 0; root < size; root++) {
+                if (graph.parent(root) >= 0) {
+                    continue;
+                }
+                int top = 0;
+                line[0] = root;
+                nextChild[0] = graph.childStart(root);
+                visited++;
+                while (top >= 0) {
+                    int employee = line[top];
+                    if (nextChild[top] < graph.childEnd(employee)) {
+                        int subordinate = graph.child(nextChild[top]++);
+                        if (++top == line.length) {
+                            line = Arrays.copyOf(line, top * 2);
+                            nextChild = Arrays.copyOf(nextChild, top * 2);
+                            sketches = Arrays.copyOf(sketches, top * 2);
+                        }
+                        line[top] = subordinate;
+                        nextChild[top] = graph.childStart(subordinate);
+                        visited++;
+                        continue;
+                    }
+
+                    // Every subordinate of the employee is done
+                    SalarySketch sketch = sketches[top];
+                    sketches[top] = null;
+                    if (sketch != null) {
+                        statistics[employee] = new SubtreeSalaryStatistics(sketch.count(), sketch.mean(), sketch.quantile(0.5),
+                                sketch.quantile(0.9), sketch.standardDeviation(), sketch.min(), sketch.max());
+                    }
+                    if (--top < 0) {
+                        break;
+                    }
+                    double salary = graph.isDecimalSalary(employee)
+                            ? graph.salary(employee).doubleValue()
+                            : graph.salaryCents(employee) / 100.0;
+                    if (sketch == null && sketches[top] == null) {
+                        sketches[top] = new SalarySketch(relativeAccuracy);
+                    }
+                    if (sketch == null) {
+                        sketches[top].add(salary);
+                        continue;
+                    }
+                    sketch.add(salary);
+                    SalarySketch managerSketch = sketches[top];
+                    if (managerSketch == null) {
+                        sketches[top] = sketch;
+                    } else if (managerSketch.buckets() >= sketch.buckets()) {
+                        managerSketch.merge(sketch);
+                    } else {
+                        sketch.merge(managerSketch);
+                        sketches[top] = sketch;
+                    }
+                }
+            }
+            if (visited < size) {
+                throw new IllegalStateException((size - visited) + " employees have reporting lines that contain a cycle");
+            }
+
+            int[] managers = IntStream.range(0, size).filter(index -> statistics[index] != null).toArray();
+            Map<Employee, SubtreeSalaryStatistics> result = new LinkedHashMap<>(managers.length * 2);
+            for (int position : sortByEmployeeId(graph, managers)) {
+                result.put(graph.employee(managers[position]), statistics[managers[position]]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Prepares the organisation for what-if questions about the thresholds, answered without analysing it again.
+     * The thresholds of this service are not used.
+     *
+     * @param graph Graph of the organisation.
+     * @return The depths and salary ratios of the organisation, sorted for threshold queries.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    public ThresholdSweep prepareThresholdSweep(OrgGraph graph) {
+        int[] depths = computeHierarchyDepths(graph);
+        try (Phase phase = PhaseMetrics.start("prepareThresholdSweep")) {
+            phase.rows(graph.size());
+            return new ThresholdSweep(graph, depths);
+        }
+    }
+
+    /**
+     * Calculates the hierarchy depth of every employee in a single breadth-first pass from the top-level managers.
+     * Employees whose manager is not part of the graph get depth 1.
+     *
+     * @param graph Graph of the organisation.
+     * @return An array where the element at an employee's index is their hierarchy depth.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    public int[] computeHierarchyDepths(OrgGraph graph) {
+        try (Phase phase = PhaseMetrics.start("computeHierarchyDepths")) {
+            phase.rows(graph.size());
+            int size = graph.size();
+            int[] depths = new int[size];
+            int[] queue = new int[size];
+            int tail = 0;
+
+            for (int index = 0; index < size; index++) {
+                int parent = graph.parent(index);
+                if (parent < 0) {
+                    depths[index] = parent == OrgGraph.UNKNOWN_PARENT ? 1 : 0;
+                    queue[tail++] = index;
+                }
+            }
+            for (int head = 0; head < tail; head++) {
+                int manager = queue[head];
+                for (int position = graph.childStart(manager); position < graph.childEnd(manager); position++) {
+                    int subordinate = graph.child(position);
+                    depths[subordinate] = depths[manager] + 1;
+                    queue[tail++] = subordinate;
+                }
+            }
+
+            if (tail < size) {
+                throw new IllegalStateException((size - tail) + " employees have reporting lines that contain a cycle");
+            }
+            return depths;
+        }
+    }
+
+    /**
+     * Builds an index of employees by their ID.
+     *
+     * @param employees List of employees.
+     * @return A map where the key is the employee's ID and the value is the employee.
+     */
+    public Map<Integer, Employee> buildEmployeeIndex(List<Employee> employees) {
+        Map<Integer, Employee> employeeIndex = new HashMap<>(employees.size() * 2);
+        for (Employee employee : employees) {
+            employeeIndex.put(employee.id(), employee);
+        }
+        return employeeIndex;
+    }
+
+    /**
+     * Calculates the hierarchy depth for a given employee.
+     * Managers are resolved through an ID index built from the subordinates map, so callers
+     * analysing many employees should prefer {@link #computeHierarchyDepth} with a shared index.
      *
      * @param employee The employee for whom to calculate the hierarchy depth.
      * @param subordinatesMap Map of subordinates for each manager.
@@ -133,30 +598,96 @@ public class OrganisationOptimisationService {
      */
     int getHierarchyDepth(Employee employee, Map<Integer, List<Employee>> subordinatesMap,
                                  Map<Employee, Integer> hierarchyDepthMap) {
+        Map<Integer, Employee> employeeIndex = new HashMap<>();
+        subordinatesMap.values().forEach(subordinates -> subordinates.forEach(emp -> employeeIndex.put(emp.id(), emp)));
+        return computeHierarchyDepth(employee, employeeIndex, hierarchyDepthMap);
+    }
+
+    /**
+     * Iteratively calculates the hierarchy depth for a given employee.
+     * Walks up the reporting line until a root, an unknown manager or an already cached depth is reached,
+     * then caches the depth of every employee on the walked path. Each employee is therefore resolved once,
+     * and the reporting line may be arbitrarily long.
+     *
+     * @param employee The employee for whom to calculate the hierarchy depth.
+     * @param employeeIndex Map of employees by ID.
+     * @param hierarchyDepthMap Map to cache hierarchy depths.
+     * @return The hierarchy depth for the given employee.
+     * @throws IllegalStateException if the reporting line of the employee contains a cycle.
+     */
+    int computeHierarchyDepth(Employee employee, Map<Integer, Employee> employeeIndex,
+                              Map<Employee, Integer> hierarchyDepthMap) {
         if (employee == null || employee.managerId() == null) {
             return 0;
         }
 
-        // Check if the employee is already present in the hierarchyDepthMap
-        if (hierarchyDepthMap.containsKey(employee)) {
-            return hierarchyDepthMap.get(employee);
+        Integer cachedDepth = hierarchyDepthMap.get(employee);
+        if (cachedDepth != null) {
+            return cachedDepth;
         }
 
-        int depth = 1; // Start with depth 1 for the employee
-        Integer managerId = employee.managerId();
-
-        // Find the manager of the current employee
-        for (Map.Entry<Integer, List<Employee>> entry : subordinatesMap.entrySet()) {
-            for (Employee emp : entry.getValue()) {
-                if (emp.id().equals(managerId)) {
-                    depth += getHierarchyDepth(emp, subordinatesMap, hierarchyDepthMap);
-                    break;
-                }
+        // Collect the not yet resolved part of the reporting line, starting from the employee
+        List<Employee> path = new ArrayList<>();
+        Set<Integer> pathIds = new HashSet<>();
+        int baseDepth = 0;
+        Employee current = employee;
+        while (current != null && current.managerId() != null) {
+            Integer knownDepth = hierarchyDepthMap.get(current);
+            if (knownDepth != null) {
+                baseDepth = knownDepth;
+                break;
+            }
+            if (!pathIds.add(current.id())) {
+                throw new IllegalStateException("Reporting line of employee " + employee.id() + " contains a cycle at employee " + current.id());
             }
+            path.add(current);
+            current = employeeIndex.get(current.managerId());
+        }
+
+        // Unwind from the top of the reporting line, caching each depth
+        int depth = baseDepth;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            depth++;
+            hierarchyDepthMap.put(path.get(i), depth);
         }
-        // Cache the depth in the hierarchyDepthMap
-        hierarchyDepthMap.put(employee, depth);
 
         return depth;
     }
+
+    /**
+     * Analyses the organisation and keeps the state needed to update the results incrementally.
+     *
+     * @param employees List of employees.
+     * @return The analysis state holding long reporting lines and salary discrepancies.
+     * @throws IllegalStateException if some reporting lines contain a cycle.
+     */
+    public AnalysisState analyze(List<Employee> employees) {
+        return new AnalysisState(employees, hierarchyDepthThreshold, salaryDiscrepancyEngine);
+    }
+
+    /**
+     * Updates a previous analysis with a change set. Only the subtrees whose reporting lines moved and the managers
+     * whose salary or subordinates changed are re-evaluated. The state is updated in place.
+     *
+     * @param state The previous analysis state.
+     * @param changes Changes in the order they should be applied.
+     * @return The updated analysis state.
+     * @throws IllegalStateException if a manager move would create a cycle.
+     */
+    public AnalysisState updateAnalysis(AnalysisState state, List<EmployeeChange> changes) {
+        state.apply(changes);
+        return state;
+    }
+
+    /**
+     * Updates a previous analysis with a change-set CSV file read by {@link ReportService#readChangesFromCsv(String)}.
+     *
+     * @param state The previous analysis state.
+     * @param changeSetPath The path to the change-set CSV file.
+     * @return The updated analysis state.
+     * @throws IllegalStateException if a manager move would create a cycle.
+     */
+    public AnalysisState updateAnalysis(AnalysisState state, String changeSetPath) {
+        return updateAnalysis(state, new ReportService().readChangesFromCsv(changeSetPath));
+    }
 }
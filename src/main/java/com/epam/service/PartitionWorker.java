@@ -0,0 +1,65 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.io.CsvReadResult;
+import com.epam.io.MappedCsvReader;
+import com.epam.rules.FindingCollector;
+import com.epam.rules.RuleEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * The worker process of a {@link PartitionedAnalysisService}: evaluates the organisation rules for one partition and
+ * writes the findings about the employees of its subtrees. The top-level managers of the partition are only there to
+ * give its subtrees their depths; they are evaluated by the coordinator.
+ */
+public final class PartitionWorker {
+
+    private PartitionWorker() {
+    }
+
+    /**
+     * Analyses a partition. Exits with status 1 if it cannot be analysed.
+     *
+     * @param args The partition CSV file, the properties file holding the settings and the results file to write.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: PartitionWorker <partition.csv> <settings.properties> <results>");
+            System.exit(1);
+        }
+        try {
+            analyze(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void analyze(Path partitionFile, Path settingsFile, Path resultsFile) throws IOException {
+        Properties settings = new Properties();
+        try (Reader reader = Files.newBufferedReader(settingsFile)) {
+            settings.load(reader);
+        }
+        RuleEngine ruleEngine = RuleEngine.fromProperties(settings);
+        CsvReadResult result = MappedCsvReader.read(partitionFile, 1);
+        if (!result.malformedRows().isEmpty()) {
+            // Rows are translated back to the original organisation by position, so none may be skipped
+            throw new IOException(result.malformedRows().size() + " malformed rows in partition " + partitionFile);
+        }
+        OrgGraph graph = result.graph();
+
+        FindingCollector findings = ruleEngine.evaluate(graph);
+        Path temporary = resultsFile.resolveSibling(resultsFile.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            findings.export(output, index -> graph.parent(index) >= 0);
+        }
+        Files.move(temporary, resultsFile);
+    }
+}
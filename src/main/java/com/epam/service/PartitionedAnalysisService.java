@@ -0,0 +1,287 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.io.MappedCsvFile;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.report.ReportSink;
+import com.epam.rules.FindingCollector;
+import com.epam.rules.RuleEngine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Service class analysing an organisation in several local worker processes, for organisations that are too large
+ * to be analysed comfortably in one JVM.
+ * <p>
+ * The organisation is split into the subtrees under its top-level managers. The subtrees are spread over the workers,
+ * largest first, each to the worker with the fewest employees so far. Every worker gets a CSV file holding the rows of
+ * its subtrees together with their path prefix, the top-level managers above them, so that the depths computed by the
+ * worker are the depths in the whole organisation. The rows are copied byte for byte from the mapped report by their
+ * offsets, without parsing them again or materialising employees. A worker is a separate JVM running
+ * {@link PartitionWorker} with the same class path, which evaluates the configured rules for the employees of its
+ * subtrees and writes their findings to a results file.
+ * </p>
+ * <p>
+ * The top-level managers are evaluated by the coordinator itself, since their subordinates can be spread over several
+ * workers. The findings of the workers are then merged into the coordinator's findings, translated back to the rows
+ * of the original organisation, and written grouped by rule and ordered by employee ID: the output is exactly that of
+ * {@link RuleEngine#report(OrgGraph, ReportSink)} in one process. The files are exchanged in a temporary directory
+ * that is deleted afterwards.
+ * </p>
+ * <p>
+ * The coordinator still parses the whole report into an {@link OrgGraph} to plan the partitions and evaluate the
+ * top-level managers. It holds the graph columns and the row offsets, about 60 bytes per employee, plus about
+ * 16 bytes per employee while planning; the report itself stays mapped outside the heap. Only the employees with
+ * findings are materialised, when the findings are written.
+ * </p>
+ */
+public class PartitionedAnalysisService {
+    private static final byte[] HEADER = "id,firstName,lastName,salary,managerId\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final int workers;
+    private final Properties settings;
+    private final List<String> workerOptions;
+    private final RuleEngine ruleEngine;
+
+    /**
+     * Constructs a PartitionedAnalysisService evaluating the rules configured by the settings.
+     *
+     * @param workers The largest number of worker processes.
+     * @param settings The settings passed on to the workers, possibly with defaults: the organisation rules and
+     *                 their limits. The JVM options of the workers are read from {@code app.partition.jvm.options},
+     *                 separated by spaces.
+     */
+    public PartitionedAnalysisService(int workers, Properties settings) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required: " + workers);
+        }
+        this.workers = workers;
+        this.settings = new Properties();
+        settings.stringPropertyNames().forEach(name -> this.settings.setProperty(name, settings.getProperty(name)));
+        this.workerOptions = Arrays.stream(settings.getProperty("app.partition.jvm.options", "").split(" "))
+                .filter(option -> !option.isBlank())
+                .toList();
+        this.ruleEngine = RuleEngine.fromProperties(settings);
+    }
+
+    /**
+     * Evaluates the rules in worker processes and writes the findings, grouped by rule and ordered by employee ID.
+     *
+     * @param graph Graph of the organisation.
+     * @param report The mapped report the graph was read from.
+     * @param rowOffsets The byte offset in the report of the row of every employee, indexed like the graph.
+     * @param sink The sink receiving the findings; it is not closed.
+     * @throws IOException if the partitions cannot be exchanged with the workers, a worker fails or the sink cannot
+     *                     be written.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    public void report(OrgGraph graph, MappedCsvFile report, long[] rowOffsets, ReportSink sink) throws IOException {
+        evaluate(graph, report, rowOffsets).writeTo(sink);
+    }
+
+    /**
+     * Evaluates the rules in worker processes.
+     *
+     * @param graph Graph of the organisation.
+     * @param report The mapped report the graph was read from.
+     * @param rowOffsets The byte offset in the report of the row of every employee, indexed like the graph.
+     * @return The findings of the rules about every employee.
+     * @throws IOException if the partitions cannot be exchanged with the workers or a worker fails.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    public FindingCollector evaluate(OrgGraph graph, MappedCsvFile report, long[] rowOffsets) throws IOException {
+        List<int[]> partitions = partition(graph);
+        Path directory = Files.createTempDirectory("org-partitions");
+        List<Process> processes = new ArrayList<>();
+        try {
+            Path settingsFile = directory.resolve("settings.properties");
+            try (Writer writer = Files.newBufferedWriter(settingsFile)) {
+                settings.store(writer, null);
+            }
+            try (Phase phase = PhaseMetrics.start("startWorkers")) {
+                phase.rows(graph.size());
+                for (int worker = 0; worker < partitions.size(); worker++) {
+                    Path partitionFile = directory.resolve("partition-" + worker + ".csv");
+                    writePartition(report, rowOffsets, partitions.get(worker), partitionFile);
+                    processes.add(startWorker(partitionFile, settingsFile, directory.resolve("partition-" + worker + ".results")));
+                }
+            }
+
+            FindingCollector findings = ruleEngine.evaluateTopLevelManagers(graph);
+
+            try (Phase phase = PhaseMetrics.start("awaitWorkers")) {
+                phase.rows(graph.size());
+                for (int worker = 0; worker < processes.size(); worker++) {
+                    int exitCode = processes.get(worker).waitFor();
+                    if (exitCode != 0) {
+                        throw new IOException("Partition worker " + worker + " failed with exit code " + exitCode);
+                    }
+                }
+            }
+            try (Phase phase = PhaseMetrics.start("mergeFindings")) {
+                for (int worker = 0; worker < partitions.size(); worker++) {
+                    int[] rows = partitions.get(worker);
+                    Path resultsFile = directory.resolve("partition-" + worker + ".results");
+                    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultsFile)))) {
+                        findings.merge(input, index -> rows[index]);
+                    }
+                }
+                phase.rows(findings.size());
+            }
+            return findings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for partition workers", e);
+        } finally {
+            processes.forEach(Process::destroyForcibly);
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Splits the organisation into one partition per worker: the subtrees under the top-level managers, spread by
+     * size, each partition with the top-level managers of its subtrees.
+     *
+     * @param graph Graph of the organisation.
+     * @return For every worker with subtrees, the indexes of the employees of its partition in file order.
+     * @throws IllegalStateException if some reporting lines do not lead to a top-level manager because of a cycle.
+     */
+    List<int[]> partition(OrgGraph graph) {
+        try (Phase phase = PhaseMetrics.start("planPartitions")) {
+            phase.rows(graph.size());
+            int size = graph.size();
+            // Breadth-first order from the top-level managers, so every subtree is sized after its members
+            int[] order = new int[size];
+            int tail = 0;
+            for (int index = 0; index < size; index++) {
+                if (graph.parent(index) < 0) {
+                    order[tail++] = index;
+                }
+            }
+            int topLevelManagers = tail;
+            for (int head = 0; head < tail; head++) {
+                for (int position = graph.childStart(order[head]); position < graph.childEnd(order[head]); position++) {
+                    order[tail++] = graph.child(position);
+                }
+            }
+            if (tail < size) {
+                throw new IllegalStateException((size - tail) + " employees have reporting lines that contain a cycle");
+            }
+            int[] subtreeSizes = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                int employee = order[i];
+                subtreeSizes[employee]++;
+                if (graph.parent(employee) >= 0) {
+                    subtreeSizes[graph.parent(employee)] += subtreeSizes[employee];
+                }
+            }
+
+            // The direct subordinates of the top-level managers, whose subtrees are the unit of partitioning
+            Integer[] subtrees = IntStream.range(topLevelManagers, size)
+                    .map(i -> order[i])
+                    .filter(employee -> graph.parent(graph.parent(employee)) < 0)
+                    .boxed()
+                    .toArray(Integer[]::new);
+            Arrays.sort(subtrees, Comparator.<Integer>comparingInt(root -> subtreeSizes[root]).reversed()
+                    .thenComparingInt(root -> root));
+
+            int workerCount = Math.min(workers, subtrees.length);
+            long[] loads = new long[workerCount];
+            List<List<Integer>> assigned = new ArrayList<>();
+            for (int worker = 0; worker < workerCount; worker++) {
+                assigned.add(new ArrayList<>());
+            }
+            for (int root : subtrees) {
+                int worker = 0;
+                for (int candidate = 1; candidate < workerCount; candidate++) {
+                    if (loads[candidate] < loads[worker]) {
+                        worker = candidate;
+                    }
+                }
+                loads[worker] += subtreeSizes[root];
+                assigned.get(worker).add(root);
+            }
+
+            List<int[]> partitions = new ArrayList<>(workerCount);
+            int[] prefixAddedBy = new int[size];
+            Arrays.fill(prefixAddedBy, -1);
+            for (int worker = 0; worker < workerCount; worker++) {
+                int[] rows = new int[(int) loads[worker] + assigned.get(worker).size()];
+                int count = 0;
+                for (int root : assigned.get(worker)) {
+                    int topLevelManager = graph.parent(root);
+                    if (prefixAddedBy[topLevelManager] != worker) {
+                        prefixAddedBy[topLevelManager] = worker;
+                        rows[count++] = topLevelManager;
+                    }
+                    int head = count;
+                    rows[count++] = root;
+                    for (; head < count; head++) {
+                        for (int position = graph.childStart(rows[head]); position < graph.childEnd(rows[head]); position++) {
+                            rows[count++] = graph.child(position);
+                        }
+                    }
+                }
+                int[] partition = Arrays.copyOf(rows, count);
+                Arrays.sort(partition);
+                partitions.add(partition);
+            }
+            return partitions;
+        }
+    }
+
+    private static void writePartition(MappedCsvFile report, long[] rowOffsets, int[] rows, Path file) throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            WritableByteChannel channel = Channels.newChannel(output);
+            output.write(HEADER);
+            for (int index : rows) {
+                channel.write(report.rowAt(rowOffsets[index]));
+                output.write('\n');
+            }
+        }
+    }
+
+    private Process startWorker(Path partitionFile, Path settingsFile, Path resultsFile) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(workerOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PartitionWorker.class.getName());
+        command.add(partitionFile.toString());
+        command.add(settingsFile.toString());
+        command.add(resultsFile.toString());
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.printf("Could not delete partition directory %s: %s%n", directory, e.getMessage());
+        }
+    }
+}
@@ -1,45 +1,251 @@
 package com.epam.service;
 
+import com.epam.config.PropertyHolder;
+import com.epam.graph.OrgGraph;
+import com.epam.graph.OrgGraphSnapshot;
+import com.epam.io.CsvReadResult;
+import com.epam.io.GzipCsvReader;
+import com.epam.io.MappedCsvFile;
+import com.epam.io.MappedCsvReader;
+import com.epam.io.NameStorage;
+import com.epam.metrics.Phase;
+import com.epam.metrics.PhaseMetrics;
+import com.epam.model.ChangeType;
 import com.epam.model.Employee;
+import com.epam.model.EmployeeChange;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
 
 /**
- * The {@code ReportService} class provides a method to read employee data from a CSV file.
+ * The {@code ReportService} class provides methods to read employee data from a CSV file.
  * Each line in the CSV file (except the header) is converted into an {@code Employee} object.
+ * The file is memory-mapped and parsed directly from its bytes by {@link MappedCsvReader}, in parallel
+ * when more than one ingestion thread is configured.
+ * When snapshots are enabled, the parsed organisation is also stored in a binary {@link OrgGraphSnapshot}
+ * next to the CSV file ({@code <file>.snapshot}) and loaded from there while the CSV file is unchanged.
+ * Gzip-compressed reports ({@code .csv.gz}) are decompressed and parsed in a pipeline by {@link GzipCsvReader},
+ * without snapshots.
  */
 public class ReportService {
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+    static final String GZIP_SUFFIX = ".gz";
+
+    private final int ingestThreads;
+    private final boolean snapshots;
+    private final NameStorage nameStorage;
+
+    /**
+     * Constructs a ReportService with configuration properties from PropertyHolder.
+     */
+    public ReportService() {
+        this(PropertyHolder.properties);
+    }
+
+    /**
+     * Constructs a ReportService configured by the given settings.
+     * Reads the number of ingestion threads from {@code app.ingest.threads}; {@code 0} means one thread per available
+     * processor. Snapshots are used when {@code app.snapshot.enabled} is {@code true}, and names are kept as
+     * configured by {@code app.names.storage} ({@code mapped} or {@code dictionary}).
+     *
+     * @param settings the settings, for example the command-line arguments with the properties as defaults
+     */
+    public ReportService(Properties settings) {
+        this(Integer.parseInt(settings.getProperty("app.ingest.threads", "1")),
+                Boolean.parseBoolean(settings.getProperty("app.snapshot.enabled", "false")),
+                NameStorage.valueOf(settings.getProperty("app.names.storage", "mapped").toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Constructs a ReportService parsing files with the given number of threads, without snapshots.
+     *
+     * @param ingestThreads the number of threads parsing a file; {@code 0} means one thread per available processor
+     */
+    public ReportService(int ingestThreads) {
+        this(ingestThreads, false);
+    }
+
+    /**
+     * Constructs a ReportService parsing files with the given number of threads.
+     *
+     * @param ingestThreads the number of threads parsing a file; {@code 0} means one thread per available processor
+     * @param snapshots whether to load and write binary snapshots of parsed files
+     */
+    public ReportService(int ingestThreads, boolean snapshots) {
+        this(ingestThreads, snapshots, NameStorage.MAPPED);
+    }
+
+    /**
+     * Constructs a ReportService parsing files with the given number of threads and keeping names as requested.
+     *
+     * @param ingestThreads the number of threads parsing a file; {@code 0} means one thread per available processor
+     * @param snapshots whether to load and write binary snapshots of parsed files
+     * @param nameStorage how names are kept in parsed files; organisations loaded from a snapshot always keep
+     *                    their names in the mapped CSV file
+     */
+    public ReportService(int ingestThreads, boolean snapshots, NameStorage nameStorage) {
+        this.ingestThreads = ingestThreads > 0 ? ingestThreads : Runtime.getRuntime().availableProcessors();
+        this.snapshots = snapshots;
+        this.nameStorage = nameStorage;
+    }
+
     /**
      * Reads employee data from a CSV file and returns a list of {@code Employee} objects.
      * The CSV file is expected to have the following columns: id, firstName, lastName, salary, managerId.
-     * The header line is skipped.
+     * The header line is skipped. Malformed rows are reported to {@code System.err} with their line numbers and skipped.
+     * Gzip-compressed files ending with {@code .gz} are decompressed while they are parsed.
      *
      * @param filePath the path to the CSV file
      * @return a list of {@code Employee} objects read from the CSV file,
      *         or an empty list if an {@code IOException} occurs
      */
     public List<Employee> readEmployeesFromCsv(String filePath) {
-        try {
-            return Files.lines(Path.of(filePath))
-                    .skip(1) // skip the header line
-                    .map(line -> {
-                        String[] values = line.split(",");
-                        int id = Integer.parseInt(values[0]);
-                        String firstName = values[1];
-                        String lastName = values[2];
-                        BigDecimal salary = new BigDecimal(values[3]);
-                        Integer managerId = values.length < 5 ? null : Integer.parseInt(values[4]);
-                        return new Employee(id, firstName, lastName, salary, managerId);
-                    })
-                    .toList();
+        try (Phase phase = PhaseMetrics.start("readEmployeesFromCsv")) {
+            OrgGraph graph = readOrgGraphFromCsv(filePath);
+            List<Employee> employees = new ArrayList<>(graph.size());
+            for (int index = 0; index < graph.size(); index++) {
+                employees.add(graph.employee(index));
+            }
+            phase.rows(employees.size());
+            return Collections.unmodifiableList(employees);
+        }
+    }
+
+    /**
+     * Reads employee data from a CSV file into an {@link OrgGraph}.
+     * Names are not decoded while reading; employees are materialised only when requested, from the mapped file or,
+     * with {@link NameStorage#DICTIONARY}, from a dictionary holding every distinct name once.
+     * Malformed rows are reported to {@code System.err} with their line numbers and skipped.
+     * <p>
+     * With snapshots enabled, a snapshot that is not older than the CSV file and was written for its current size,
+     * modification time and {@linkplain MappedCsvFile#fingerprint() content fingerprint} is loaded instead of
+     * parsing the file; malformed rows are reported only when the file is parsed. A missing, stale or corrupted
+     * snapshot is replaced after parsing.
+     * </p>
+     * <p>
+     * A file ending with {@code .gz} is read by {@link GzipCsvReader}, decompressing and parsing concurrently.
+     * Its names are always held in a dictionary, as the decompressed bytes are not kept.
+     * </p>
+     *
+     * @param filePath the path to the CSV file
+     * @return the graph of the organisation, or an empty graph if an {@code IOException} occurs
+     */
+    public OrgGraph readOrgGraphFromCsv(String filePath) {
+        try (Phase phase = PhaseMetrics.start("readOrgGraphFromCsv")) {
+            Path path = Path.of(filePath);
+            if (filePath.endsWith(GZIP_SUFFIX)) {
+                CsvReadResult result = GzipCsvReader.read(path);
+                phase.rows(result.graph().size());
+                reportMalformedRows(result);
+                return result.graph();
+            }
+
+            MappedCsvFile file = MappedCsvFile.map(path);
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+            Path snapshot = Path.of(filePath + SNAPSHOT_SUFFIX);
+            if (snapshots && Files.exists(snapshot) && Files.getLastModifiedTime(snapshot).toMillis() >= lastModified) {
+                try {
+                    OrgGraph graph = OrgGraphSnapshot.read(snapshot, file.size(), lastModified, file.fingerprint(),
+                            file::employeeAt);
+                    phase.rows(graph.size());
+                    return graph;
+                } catch (IOException e) {
+                    System.err.printf("Ignoring snapshot %s: %s%n", snapshot, e.getMessage());
+                }
+            }
+
+            CsvReadResult result = MappedCsvReader.read(file, ingestThreads, nameStorage);
+            phase.rows(result.graph().size());
+            reportMalformedRows(result);
+            if (snapshots) {
+                try {
+                    OrgGraphSnapshot.write(snapshot, result.graph(), result.rowOffsets(), file.size(), lastModified,
+                            file.fingerprint());
+                } catch (IOException e) {
+                    System.err.printf("Could not write snapshot %s: %s%n", snapshot, e.getMessage());
+                }
+            }
+            return result.graph();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return OrgGraph.empty();
+        }
+    }
+
+    /**
+     * Reads employee data from a mapped CSV file, keeping the byte offset of every row so the rows can be copied
+     * without being parsed again. Malformed rows are reported to {@code System.err} with their line numbers and
+     * skipped. Snapshots are not used.
+     *
+     * @param file the mapped CSV file
+     * @return the graph of the organisation with the offsets of its rows
+     */
+    public CsvReadResult readMappedCsv(MappedCsvFile file) {
+        try (Phase phase = PhaseMetrics.start("readMappedCsv")) {
+            CsvReadResult result = MappedCsvReader.read(file, ingestThreads, nameStorage);
+            phase.rows(result.graph().size());
+            reportMalformedRows(result);
+            return result;
+        }
+    }
+
+    private static void reportMalformedRows(CsvReadResult result) {
+        result.malformedRows().forEach(row ->
+                System.err.printf("Skipping malformed row at line %d: %s%n", row.lineNumber(), row.reason()));
+    }
+
+    /**
+     * Reads a change set from a CSV file. The CSV file is expected to have the following columns:
+     * change, id, firstName, lastName, salary, managerId, where change is {@code UPSERT} for hires, salary changes
+     * and manager moves, or {@code DELETE} for leavers, in which case only the id is required.
+     * The header line is skipped. Malformed rows are reported to {@code System.err} with their line numbers and skipped.
+     *
+     * @param filePath the path to the CSV file
+     * @return the changes in file order, or an empty list if an {@code IOException} occurs
+     */
+    public List<EmployeeChange> readChangesFromCsv(String filePath) {
+        List<EmployeeChange> changes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(filePath))) {
+            reader.readLine(); // skip the header line
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    changes.add(parseChange(line));
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    System.err.printf("Skipping malformed change at line %d: %s%n", lineNumber, line);
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
             return Collections.emptyList();
         }
+        return changes;
+    }
+
+    private EmployeeChange parseChange(String line) {
+        String[] values = line.split(",");
+        ChangeType type = ChangeType.valueOf(values[0].trim());
+        int id = Integer.parseInt(values[1]);
+        if (type == ChangeType.DELETE) {
+            return new EmployeeChange(type, id, null);
+        }
+        String firstName = values[2];
+        String lastName = values[3];
+        BigDecimal salary = new BigDecimal(values[4]);
+        Integer managerId = values.length < 6 || values[5].isEmpty() ? null : Integer.parseInt(values[5]);
+        return new EmployeeChange(type, id, new Employee(id, firstName, lastName, salary, managerId));
     }
 }
@@ -0,0 +1,314 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Evaluates salary discrepancies of managers with fixed-point {@code long} arithmetic.
+ * <p>
+ * Salaries are taken from the {@link OrgGraph} in cents. For every manager the results are exactly those of the
+ * {@code BigDecimal} computation they replace:
+ * </p>
+ * <ul>
+ *     <li>the average subordinate salary is rounded HALF_UP (ties away from zero) to the largest scale
+ *     the subordinate salaries were written with, and to at least scale 0;</li>
+ *     <li>the bounds are the average multiplied by {@code BigDecimal.valueOf(ratio)}, without rounding,
+ *     so their scale is the scale of the average plus the scale of the ratio;</li>
+ *     <li>the discrepancy is the exact difference between the bound and the manager salary, with the larger
+ *     of their scales.</li>
+ * </ul>
+ * <p>
+ * A manager whose figures do not fit in a {@code long} at the required scale, or whose salary or subordinate salaries
+ * are {@linkplain OrgGraph#isDecimalSalary(int) not representable in cents}, is evaluated with {@code BigDecimal}.
+ * Managers are split into index ranges that are evaluated on the common {@link ForkJoinPool}.
+ * </p>
+ */
+public class SalaryDiscrepancyEngine {
+    private static final int MONEY_SCALE = 2;
+    private static final int SEQUENTIAL_THRESHOLD = 16_384;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final BigDecimal lowRatio;
+    private final BigDecimal highRatio;
+    private final long lowRatioUnscaled;
+    private final int lowRatioScale;
+    private final long highRatioUnscaled;
+    private final int highRatioScale;
+    private final boolean ratiosFitInLong;
+
+    /**
+     * Constructs a SalaryDiscrepancyEngine.
+     *
+     * @param lowSalaryRation the ratio of the average subordinate salary a manager should earn at least
+     * @param highSalaryRation the ratio of the average subordinate salary a manager should earn at most
+     */
+    public SalaryDiscrepancyEngine(double lowSalaryRation, double highSalaryRation) {
+        lowRatio = BigDecimal.valueOf(lowSalaryRation);
+        highRatio = BigDecimal.valueOf(highSalaryRation);
+        ratiosFitInLong = lowRatio.unscaledValue().bitLength() < Long.SIZE && highRatio.unscaledValue().bitLength() < Long.SIZE;
+        lowRatioUnscaled = lowRatio.unscaledValue().longValue();
+        lowRatioScale = lowRatio.scale();
+        highRatioUnscaled = highRatio.unscaledValue().longValue();
+        highRatioScale = highRatio.scale();
+    }
+
+    /**
+     * Identifies managers with salary discrepancies based on the salaries of their direct subordinates.
+     *
+     * @param graph Graph of the organisation.
+     * @return A map where the key is the employee and the value is their salary discrepancy.
+     */
+    public Map<Employee, SalaryDiscrepancy> evaluate(OrgGraph graph) {
+        List<FlaggedManager> flaggedManagers = evaluateFlagged(graph);
+
+        Map<Employee, SalaryDiscrepancy> employeeWithSalaryDiscrepancy = new HashMap<>(flaggedManagers.size() * 2);
+        for (FlaggedManager flagged : flaggedManagers) {
+            employeeWithSalaryDiscrepancy.put(graph.employee(flagged.index()), flagged.discrepancy());
+        }
+        return employeeWithSalaryDiscrepancy;
+    }
+
+    /**
+     * Identifies managers with salary discrepancies without materialising them.
+     *
+     * @return the flagged managers in index order
+     */
+    List<FlaggedManager> evaluateFlagged(OrgGraph graph) {
+        return graph.size() <= SEQUENTIAL_THRESHOLD
+                ? evaluateRange(graph, 0, graph.size())
+                : ForkJoinPool.commonPool().invoke(new EvaluationTask(graph, 0, graph.size()));
+    }
+
+    /**
+     * Evaluates the managers with indexes in {@code [from, to)}.
+     *
+     * @return the flagged managers in index order
+     */
+    List<FlaggedManager> evaluateRange(OrgGraph graph, int from, int to) {
+        List<FlaggedManager> flaggedManagers = new ArrayList<>();
+        evaluateRange(graph, from, to, (discrepancy, manager) -> flaggedManagers.add(new FlaggedManager(manager, discrepancy)));
+        return flaggedManagers;
+    }
+
+    /**
+     * Evaluates the managers with indexes in {@code [from, to)}, passing every flagged manager to a consumer
+     * instead of collecting them.
+     *
+     * @param graph Graph of the organisation.
+     * @param from The index of the first manager to evaluate.
+     * @param to The index after the last manager to evaluate.
+     * @param flaggedManagers Receives the discrepancy and the index of every flagged manager, in index order.
+     */
+    void evaluateRange(OrgGraph graph, int from, int to, ObjIntConsumer<SalaryDiscrepancy> flaggedManagers) {
+        for (int manager = from; manager < to; manager++) {
+            SalaryDiscrepancy discrepancy = evaluateManager(graph, manager);
+            if (discrepancy != null) {
+                flaggedManagers.accept(discrepancy, manager);
+            }
+        }
+    }
+
+    /**
+     * Evaluates one employee of a graph against the salaries of their direct subordinates.
+     *
+     * @param graph the organisation
+     * @param manager the index of the employee
+     * @return the discrepancy, or {@code null} if the employee has no subordinates or earns within the expected range
+     */
+    public SalaryDiscrepancy evaluateManager(OrgGraph graph, int manager) {
+        int start = graph.childStart(manager);
+        int end = graph.childEnd(manager);
+        if (start == end) {
+            return null;
+        }
+        long salarySum = 0;
+        int scale = 0;
+        boolean sumFitsInLong = !graph.isDecimalSalary(manager);
+        for (int position = start; position < end; position++) {
+            int subordinate = graph.child(position);
+            if (graph.isDecimalSalary(subordinate)) {
+                sumFitsInLong = false;
+            }
+            long salary = graph.salaryCents(subordinate);
+            long sum = salarySum + salary;
+            // Overflow if both operands have the sign opposite to the result
+            if (((salarySum ^ sum) & (salary ^ sum)) < 0) {
+                sumFitsInLong = false;
+            }
+            salarySum = sum;
+            scale = Math.max(scale, graph.salaryScale(subordinate));
+        }
+
+        if (sumFitsInLong) {
+            return evaluate(graph.salaryCents(manager), graph.salaryScale(manager), salarySum, end - start, scale);
+        }
+        BigDecimal salarySumExact = BigDecimal.ZERO;
+        for (int position = start; position < end; position++) {
+            salarySumExact = salarySumExact.add(graph.salary(graph.child(position)));
+        }
+        return evaluateExact(graph.salary(manager), salarySumExact, end - start);
+    }
+
+    /**
+     * Evaluates a single manager from the aggregated salaries of their direct subordinates.
+     *
+     * @param managerSalaryCents the salary of the manager in cents
+     * @param managerScale the scale the salary of the manager was written with
+     * @param salarySumCents the sum of the subordinate salaries in cents
+     * @param subordinates the number of direct subordinates, at least 1
+     * @param scale the largest scale the subordinate salaries were written with, at least 0
+     * @return the salary discrepancy, or {@code null} if the salary of the manager is within the bounds
+     */
+    public SalaryDiscrepancy evaluate(long managerSalaryCents, int managerScale, long salarySumCents, int subordinates, int scale) {
+        if (ratiosFitInLong) {
+            try {
+                return evaluateFixedPoint(managerSalaryCents, managerScale, salarySumCents, subordinates, scale);
+            } catch (ArithmeticException e) {
+                // The figures of this manager do not fit in a long at the required scale
+            }
+        }
+        return evaluateExact(BigDecimal.valueOf(managerSalaryCents, MONEY_SCALE).setScale(managerScale),
+                BigDecimal.valueOf(salarySumCents, MONEY_SCALE).setScale(scale), subordinates);
+    }
+
+    private SalaryDiscrepancy evaluateFixedPoint(long managerSalaryCents, int managerScale, long salarySumCents, int subordinates, int scale) {
+        // Average subordinate salary, unscaled at the given scale
+        int exponent = scale - MONEY_SCALE;
+        long average = exponent >= 0
+                ? divideHalfUp(Math.multiplyExact(salarySumCents, powerOfTen(exponent)), subordinates)
+                : divideHalfUp(salarySumCents, Math.multiplyExact(subordinates, powerOfTen(-exponent)));
+
+        int lowerScale = scale + lowRatioScale;
+        long lowerBound = Math.multiplyExact(average, lowRatioUnscaled);
+        int lowerResultScale = Math.max(lowerScale, managerScale);
+        long lower = rescale(lowerBound, lowerScale, lowerResultScale);
+        long salaryAtLowerScale = rescale(managerSalaryCents, MONEY_SCALE, lowerResultScale);
+        if (salaryAtLowerScale < lower) {
+            return new SalaryDiscrepancy(DiscrepancyType.LESS,
+                    BigDecimal.valueOf(Math.subtractExact(lower, salaryAtLowerScale), lowerResultScale));
+        }
+
+        int upperScale = scale + highRatioScale;
+        long upperBound = Math.multiplyExact(average, highRatioUnscaled);
+        int upperResultScale = Math.max(upperScale, managerScale);
+        long upper = rescale(upperBound, upperScale, upperResultScale);
+        long salaryAtUpperScale = rescale(managerSalaryCents, MONEY_SCALE, upperResultScale);
+        if (salaryAtUpperScale > upper) {
+            return new SalaryDiscrepancy(DiscrepancyType.MORE,
+                    BigDecimal.valueOf(Math.subtractExact(salaryAtUpperScale, upper), upperResultScale));
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates a single manager from the aggregated salaries of their direct subordinates with {@code BigDecimal},
+     * for salaries that cannot be represented in cents.
+     *
+     * @param salary the salary of the manager
+     * @param salarySum the sum of the subordinate salaries
+     * @param subordinates the number of direct subordinates, at least 1
+     * @return the salary discrepancy, or {@code null} if the salary of the manager is within the bounds
+     */
+    SalaryDiscrepancy evaluateExact(BigDecimal salary, BigDecimal salarySum, int subordinates) {
+        BigDecimal averageSalary = salarySum.divide(BigDecimal.valueOf(subordinates), RoundingMode.HALF_UP);
+
+        BigDecimal lowerBound = averageSalary.multiply(lowRatio);
+        BigDecimal upperBound = averageSalary.multiply(highRatio);
+
+        if (salary.compareTo(lowerBound) < 0) {
+            return new SalaryDiscrepancy(DiscrepancyType.LESS, lowerBound.subtract(salary));
+        } else if (salary.compareTo(upperBound) > 0) {
+            return new SalaryDiscrepancy(DiscrepancyType.MORE, salary.subtract(upperBound));
+        }
+        return null;
+    }
+
+    /**
+     * Divides and rounds HALF_UP, i.e. ties are rounded away from zero like {@link RoundingMode#HALF_UP}.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts an unscaled value between scales. Scaling down must be exact.
+     */
+    private static long rescale(long unscaled, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(unscaled, powerOfTen(toScale - fromScale));
+        }
+        long divisor = powerOfTen(fromScale - toScale);
+        if (unscaled % divisor != 0) {
+            throw new ArithmeticException("Rounding necessary");
+        }
+        return unscaled / divisor;
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("long overflow");
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * A manager flagged with a salary discrepancy.
+     *
+     * @param index the index of the manager in the graph
+     * @param discrepancy the salary discrepancy
+     */
+    record FlaggedManager(int index, SalaryDiscrepancy discrepancy) {
+    }
+
+    private class EvaluationTask extends RecursiveTask<List<FlaggedManager>> {
+        private static final long serialVersionUID = 1L;
+
+        private final OrgGraph graph;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(OrgGraph graph, int from, int to) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<FlaggedManager> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return evaluateRange(graph, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            EvaluationTask left = new EvaluationTask(graph, from, middle);
+            left.fork();
+            List<FlaggedManager> right = new EvaluationTask(graph, middle, to).compute();
+            List<FlaggedManager> flaggedManagers = left.join();
+            flaggedManagers.addAll(right);
+            return flaggedManagers;
+        }
+    }
+}
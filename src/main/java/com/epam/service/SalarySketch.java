@@ -0,0 +1,230 @@
+package com.epam.service;
+
+/**
+ * A mergeable summary of a set of salaries: exact count, mean, variance, minimum and maximum, and quantiles with a
+ * bounded relative error.
+ * <p>
+ * The moments are kept as a count, a mean and a sum of squared deviations, which are merged with the parallel
+ * variance formula. The quantiles come from logarithmic buckets: a salary {@code v} falls into bucket
+ * {@code ceil(log(v) / log(gamma))} with {@code gamma = (1 + accuracy) / (1 - accuracy)}, and every value of a bucket
+ * is within {@code accuracy} of the bucket's estimate. Merging two sketches adds their bucket counts, so the
+ * sketches of subtrees can be merged into the sketch of their manager without keeping the salaries themselves.
+ * Memory grows with the logarithm of the range of the salaries divided by the accuracy, whatever their number:
+ * about 350 buckets for salaries between 1k and 1M at 1% accuracy, ten times as many at 0.1%.
+ * </p>
+ * <p>
+ * Zero salaries are counted apart, negative ones in mirrored buckets. Not thread-safe.
+ * </p>
+ */
+public final class SalarySketch {
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param relativeAccuracy the largest relative error of a quantile, between 0 and 1 exclusive; smaller values
+     *                         use more buckets
+     */
+    public SalarySketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    /**
+     * Adds a salary.
+     *
+     * @param salary the salary
+     */
+    public void add(double salary) {
+        if (salary > 0) {
+            positive.add(bucket(salary), 1);
+        } else if (salary < 0) {
+            negative.add(bucket(-salary), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        double delta = salary - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (salary - mean);
+        min = Math.min(min, salary);
+        max = Math.max(max, salary);
+    }
+
+    /**
+     * Adds every salary summarised by another sketch of the same accuracy. The other sketch is not changed.
+     *
+     * @param other the other sketch
+     */
+    public void merge(SalarySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches of accuracy " + other.relativeAccuracy + " and " + relativeAccuracy);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeroCount += other.zeroCount;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the number of salaries
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the mean of the salaries, or {@code NaN} if there are none
+     */
+    public double mean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * @return the population standard deviation of the salaries, or {@code NaN} if there are none
+     */
+    public double standardDeviation() {
+        return count > 0 ? Math.sqrt(Math.max(0, squaredDeviations / count)) : Double.NaN;
+    }
+
+    /**
+     * @return the lowest salary, or {@code NaN} if there are none
+     */
+    public double min() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * @return the highest salary, or {@code NaN} if there are none
+     */
+    public double max() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Estimates a quantile: a value within the relative accuracy of the salary of rank
+     * {@code floor(quantile * (count - 1))} in ascending order.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimate, or {@code NaN} if there are no salaries
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        double estimate;
+        if (rank < negative.total) {
+            // Negative salaries in ascending order are their mirrored buckets from the highest
+            estimate = -value(negative.bucketOfRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            estimate = 0;
+        } else {
+            estimate = value(positive.bucketOfRank(rank - negative.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, estimate));
+    }
+
+    /**
+     * @return the number of buckets allocated, a measure of the memory used by the sketch
+     */
+    public int buckets() {
+        return positive.counts.length + negative.counts.length;
+    }
+
+    private int bucket(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    private double value(int bucket) {
+        // The estimate of the bucket (gamma^(i-1), gamma^i], within the relative accuracy of both bounds
+        return 2 * Math.exp(bucket * logGamma) / (1 + Math.exp(logGamma));
+    }
+
+    /**
+     * Counts of a contiguous range of buckets, grown on demand.
+     */
+    private static final class Buckets {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void add(int bucket, long n) {
+            if (counts.length == 0) {
+                counts = new long[8];
+                offset = bucket - 4;
+            }
+            if (bucket < offset || bucket >= offset + counts.length) {
+                grow(bucket);
+            }
+            counts[bucket - offset] += n;
+            total += n;
+        }
+
+        void addAll(Buckets other) {
+            if (other.total == 0) {
+                return;
+            }
+            int first = other.offset;
+            int last = other.offset + other.counts.length - 1;
+            while (other.counts[first - other.offset] == 0) {
+                first++;
+            }
+            while (other.counts[last - other.offset] == 0) {
+                last--;
+            }
+            add(first, 0);
+            add(last, 0);
+            for (int bucket = first; bucket <= last; bucket++) {
+                counts[bucket - offset] += other.counts[bucket - other.offset];
+            }
+            total += other.total;
+        }
+
+        int bucketOfRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            throw new IllegalStateException("Rank " + rank + " is beyond " + total + " salaries");
+        }
+
+        private void grow(int bucket) {
+            int low = Math.min(offset, bucket);
+            int high = Math.max(offset + counts.length, bucket + 1);
+            // Grow by at least half of the current range so repeated growth stays amortised
+            int slack = Math.max(4, counts.length >> 1);
+            int newOffset = bucket < offset ? low - slack : low;
+            int newLength = high - newOffset + (bucket >= offset + counts.length ? slack : 0);
+            long[] grown = new long[newLength];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+}
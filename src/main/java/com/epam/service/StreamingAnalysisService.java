@@ -0,0 +1,250 @@
+package com.epam.service;
+
+import com.epam.config.PropertyHolder;
+import com.epam.graph.IntIndexMap;
+import com.epam.io.EmployeeRow;
+import com.epam.io.MappedCsvFile;
+import com.epam.io.MappedCsvReader;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+
+/**
+ * Service class analysing organisations that are too large to be held in memory as {@link Employee} records.
+ * <p>
+ * The report is streamed several times. The first pass keeps only primitive state per employee ID: the manager, and
+ * the sum, count and scale of the salaries of direct subordinates; depths are then computed from the manager links.
+ * Sums are kept in cents, and as {@code BigDecimal} only for the managers of salaries that cannot be represented in
+ * cents or whose sum does not fit in a {@code long}. The following passes re-read the report, decode names only for
+ * flagged employees and hand them to the caller in file order, first for long reporting lines and then for salary
+ * discrepancies. No names are kept in memory.
+ * </p>
+ */
+public class StreamingAnalysisService {
+    private static final int NO_SLOT = -1;
+    private static final int UNKNOWN = -1;
+    private static final int IN_PROGRESS = -2;
+
+    private final Integer hierarchyDepthThreshold;
+    private final SalaryDiscrepancyEngine salaryDiscrepancyEngine;
+
+    /**
+     * Constructs a StreamingAnalysisService with configuration properties.
+     * Reads hierarchy depth threshold and salary ratios from PropertyHolder.
+     */
+    public StreamingAnalysisService() {
+        this(PropertyHolder.properties);
+    }
+
+    /**
+     * Constructs a StreamingAnalysisService reading hierarchy depth threshold and salary ratios from
+     * the {@code app.hierarchy.depth}, {@code app.salary.ration.low} and {@code app.salary.ration.high} properties.
+     *
+     * @param properties The properties holding the settings, possibly with defaults.
+     */
+    public StreamingAnalysisService(Properties properties) {
+        hierarchyDepthThreshold = Integer.valueOf(properties.getProperty("app.hierarchy.depth"));
+        salaryDiscrepancyEngine = new SalaryDiscrepancyEngine(
+                Double.parseDouble(properties.getProperty("app.salary.ration.low")),
+                Double.parseDouble(properties.getProperty("app.salary.ration.high")));
+    }
+
+    /**
+     * Reports employees with long reporting lines and managers with salary discrepancies to standard output, in the
+     * same format as {@link OrganisationOptimisationService}. Malformed rows are reported to {@code System.err} and skipped.
+     *
+     * @param filePath the path to the CSV file
+     */
+    public void report(String filePath) {
+        try (ReportSink sink = ReportSinks.stdout(ReportFormat.TEXT)) {
+            report(filePath, sink);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports employees with long reporting lines and managers with salary discrepancies to a sink, in file order.
+     * Malformed rows are reported to {@code System.err} and skipped.
+     *
+     * @param filePath the path to the CSV file
+     * @param sink the sink receiving the findings; it is not closed
+     * @throws IOException if the file cannot be mapped or the sink cannot be written
+     */
+    public void report(String filePath, ReportSink sink) throws IOException {
+        try {
+            analyze(Path.of(filePath),
+                    (employee, hierarchyDepthDifference) -> {
+                        try {
+                            sink.longReportingLine(employee, hierarchyDepthDifference);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    (employee, salaryDiscrepancy) -> {
+                        try {
+                            sink.salaryDiscrepancy(employee, salaryDiscrepancy);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams a report and hands flagged employees to the consumers in file order.
+     *
+     * @param path the path to the CSV file
+     * @param longReportingLines receives employees with long reporting lines and the difference between their
+     *                           reporting line length and the threshold
+     * @param salaryDiscrepancies receives managers with salary discrepancies
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalStateException if some reporting lines contain a cycle
+     */
+    public void analyze(Path path, BiConsumer<Employee, Integer> longReportingLines,
+                        BiConsumer<Employee, SalaryDiscrepancy> salaryDiscrepancies) throws IOException {
+        MappedCsvFile file = MappedCsvFile.map(path);
+        OrgState state = new OrgState();
+        MappedCsvReader.stream(file, (lineNumber, row) -> state.add(row), malformedRow ->
+                System.err.printf("Skipping malformed row at line %d: %s%n", malformedRow.lineNumber(), malformedRow.reason()));
+        int[] depths = state.computeDepths();
+
+        MappedCsvReader.stream(file, (lineNumber, row) -> {
+            int depth = depths[state.slotById.get(row.id())];
+            if (depth > hierarchyDepthThreshold) {
+                longReportingLines.accept(row.toEmployee(), depth - hierarchyDepthThreshold);
+            }
+        }, malformedRow -> { });
+
+        MappedCsvReader.stream(file, (lineNumber, row) -> {
+            int slot = state.slotById.get(row.id());
+            if (state.subordinates[slot] > 0) {
+                BigDecimal exactSum = state.exactSalarySums.get(slot);
+                SalaryDiscrepancy discrepancy = exactSum == null && !row.isDecimalSalary() && row.salaryScale() <= Byte.MAX_VALUE
+                        ? salaryDiscrepancyEngine.evaluate(row.salaryCents(), row.salaryScale(),
+                                state.salarySums[slot], state.subordinates[slot], state.salaryScales[slot])
+                        : salaryDiscrepancyEngine.evaluateExact(row.salary(),
+                                exactSum != null ? exactSum : state.salarySum(slot), state.subordinates[slot]);
+                if (discrepancy != null) {
+                    salaryDiscrepancies.accept(row.toEmployee(), discrepancy);
+                }
+            }
+        }, malformedRow -> { });
+    }
+
+    /**
+     * Primitive per-ID state collected by the first pass. Every ID seen as an employee or as a manager gets a slot.
+     */
+    private static final class OrgState {
+        private final IntIndexMap slotById = new IntIndexMap(1 << 16);
+        private int slots;
+        private boolean[] present = new boolean[1 << 16];
+        private int[] managerSlots = new int[1 << 16];
+        private long[] salarySums = new long[1 << 16];
+        private int[] subordinates = new int[1 << 16];
+        private byte[] salaryScales = new byte[1 << 16];
+        // The slots whose subordinate salaries cannot be summed in cents
+        private final Map<Integer, BigDecimal> exactSalarySums = new HashMap<>();
+
+        void add(EmployeeRow row) {
+            int slot = slotOf(row.id());
+            present[slot] = true;
+            if (row.hasManager()) {
+                int managerSlot = slotOf(row.managerId());
+                managerSlots[slot] = managerSlot;
+                subordinates[managerSlot]++;
+                BigDecimal exactSum = exactSalarySums.get(managerSlot);
+                // Scales beyond a byte are only summed exactly
+                if (exactSum == null && !row.isDecimalSalary() && row.salaryScale() <= Byte.MAX_VALUE) {
+                    long sum = salarySums[managerSlot] + row.salaryCents();
+                    // Overflow if both operands have the sign opposite to the result
+                    if (((salarySums[managerSlot] ^ sum) & (row.salaryCents() ^ sum)) >= 0) {
+                        salarySums[managerSlot] = sum;
+                        salaryScales[managerSlot] = (byte) Math.max(salaryScales[managerSlot], row.salaryScale());
+                        return;
+                    }
+                }
+                exactSalarySums.put(managerSlot, (exactSum != null ? exactSum : salarySum(managerSlot)).add(row.salary()));
+            }
+        }
+
+        /**
+         * @return the sum of the subordinate salaries of a slot summed in cents, at the largest scale they were
+         *         written with
+         */
+        BigDecimal salarySum(int slot) {
+            return BigDecimal.valueOf(salarySums[slot], 2).setScale(salaryScales[slot]);
+        }
+
+        /**
+         * Computes the depth of every slot iteratively, resolving each slot once.
+         */
+        int[] computeDepths() {
+            int[] depths = new int[slots];
+            Arrays.fill(depths, UNKNOWN);
+            int[] path = new int[16];
+            for (int slot = 0; slot < slots; slot++) {
+                int length = 0;
+                int current = slot;
+                while (depths[current] == UNKNOWN) {
+                    if (!present[current]) {
+                        // A manager without a row of their own contributes no depth
+                        depths[current] = 0;
+                        break;
+                    }
+                    if (managerSlots[current] == NO_SLOT) {
+                        depths[current] = 0;
+                        break;
+                    }
+                    depths[current] = IN_PROGRESS;
+                    if (length == path.length) {
+                        path = Arrays.copyOf(path, length * 2);
+                    }
+                    path[length++] = current;
+                    current = managerSlots[current];
+                }
+                if (depths[current] == IN_PROGRESS) {
+                    throw new IllegalStateException("Reporting lines of the organisation contain a cycle");
+                }
+                int baseDepth = depths[current];
+                for (int i = length - 1; i >= 0; i--) {
+                    depths[path[i]] = ++baseDepth;
+                }
+            }
+            return depths;
+        }
+
+        private int slotOf(int id) {
+            int slot = slotById.get(id);
+            if (slot != IntIndexMap.ABSENT) {
+                return slot;
+            }
+            if (slots == present.length) {
+                int capacity = slots + (slots >> 1);
+                present = Arrays.copyOf(present, capacity);
+                managerSlots = Arrays.copyOf(managerSlots, capacity);
+                salarySums = Arrays.copyOf(salarySums, capacity);
+                subordinates = Arrays.copyOf(subordinates, capacity);
+                salaryScales = Arrays.copyOf(salaryScales, capacity);
+            }
+            slot = slots++;
+            managerSlots[slot] = NO_SLOT;
+            slotById.put(id, slot);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.epam.service;
+
+/**
+ * The number of findings of the analysis for one combination of thresholds.
+ *
+ * @param hierarchyDepthThreshold the deepest hierarchy depth that is not reported
+ * @param lowSalaryRation the lowest allowed salary ratio
+ * @param highSalaryRation the highest allowed salary ratio
+ * @param longReportingLines the number of employees whose reporting line is longer than the threshold
+ * @param underpaidManagers the number of managers earning less than the low ratio allows
+ * @param overpaidManagers the number of managers earning more than the high ratio allows
+ */
+public record SweepPoint(int hierarchyDepthThreshold, double lowSalaryRation, double highSalaryRation,
+                         int longReportingLines, int underpaidManagers, int overpaidManagers) {
+}
@@ -0,0 +1,251 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.Employee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Answers what-if questions about the thresholds of the analysis: how many employees, and which, would be flagged
+ * for a given hierarchy depth or salary ratio, without analysing the organisation again.
+ * <p>
+ * The depth of every employee and the ratio of every manager's salary to the average salary of their direct
+ * subordinates are computed once and sorted. The employees deeper than a threshold are then a suffix of the depth
+ * order, and the managers paid below or above a ratio are a prefix or suffix of the ratio order, found by binary
+ * search. Counts take O(log n) plus the managers near the threshold, and only the {@code get} methods build the
+ * list of flagged employees. A sweep over many threshold combinations therefore costs about as much as a single
+ * analysis.
+ * </p>
+ * <p>
+ * Results are exactly those of {@link OrganisationOptimisationService}. Ratios are sorted as {@code double}s;
+ * managers whose ratio is within rounding distance of a threshold, and the few whose subordinates earn nothing on
+ * average, are checked against the exact {@code BigDecimal} bounds. Instances are created by
+ * {@link OrganisationOptimisationService#prepareThresholdSweep(OrgGraph)}; they are immutable and thread-safe.
+ * </p>
+ */
+public class ThresholdSweep {
+    private static final double RATIO_TOLERANCE = 1e-9;
+
+    private final OrgGraph graph;
+    // Employee indexes ordered by depth, and their depths
+    private final int[] depthOrder;
+    private final int[] sortedDepths;
+    // Managers whose subordinates earn a positive average, ordered by ratio, and their ratios
+    private final int[] ratioOrder;
+    private final double[] sortedRatios;
+    private final BigDecimal[] averageSalaries;
+    // Managers whose subordinates earn zero or less on average, for which the ratio does not order the bounds
+    private final int[] irregularManagers;
+
+    ThresholdSweep(OrgGraph graph, int[] depths) {
+        this.graph = graph;
+        int size = graph.size();
+
+        long[] depthKeys = new long[size];
+        for (int index = 0; index < size; index++) {
+            depthKeys[index] = ((long) depths[index] << 32) | index;
+        }
+        Arrays.sort(depthKeys);
+        depthOrder = new int[size];
+        sortedDepths = new int[size];
+        for (int i = 0; i < size; i++) {
+            depthOrder[i] = (int) depthKeys[i];
+            sortedDepths[i] = (int) (depthKeys[i] >>> 32);
+        }
+
+        averageSalaries = new BigDecimal[size];
+        double[] ratios = new double[size];
+        List<Integer> regular = new ArrayList<>();
+        List<Integer> irregular = new ArrayList<>();
+        for (int manager = 0; manager < size; manager++) {
+            int start = graph.childStart(manager);
+            int end = graph.childEnd(manager);
+            if (start == end) {
+                continue;
+            }
+            BigDecimal salarySum = BigDecimal.ZERO;
+            for (int position = start; position < end; position++) {
+                salarySum = salarySum.add(graph.salary(graph.child(position)));
+            }
+            // The rounding of the average used by SalaryDiscrepancyEngine
+            BigDecimal averageSalary = salarySum.divide(BigDecimal.valueOf(end - start), RoundingMode.HALF_UP);
+            averageSalaries[manager] = averageSalary;
+            if (averageSalary.signum() > 0) {
+                ratios[manager] = graph.salary(manager).doubleValue() / averageSalary.doubleValue();
+                regular.add(manager);
+            } else {
+                irregular.add(manager);
+            }
+        }
+        ratioOrder = regular.stream()
+                .sorted(Comparator.comparingDouble((Integer manager) -> ratios[manager]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        sortedRatios = Arrays.stream(ratioOrder).mapToDouble(manager -> ratios[manager]).toArray();
+        irregularManagers = irregular.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param hierarchyDepthThreshold the deepest hierarchy depth that is not reported
+     * @return the number of employees whose reporting line is longer than the threshold
+     */
+    public int countLongReportingLines(int hierarchyDepthThreshold) {
+        return sortedDepths.length - firstDepthAbove(hierarchyDepthThreshold);
+    }
+
+    /**
+     * @param hierarchyDepthThreshold the deepest hierarchy depth that is not reported
+     * @return the employees whose reporting line is longer than the threshold, ordered by employee ID
+     */
+    public List<Employee> getLongReportingLines(int hierarchyDepthThreshold) {
+        int from = firstDepthAbove(hierarchyDepthThreshold);
+        return materialise(Arrays.copyOfRange(depthOrder, from, depthOrder.length));
+    }
+
+    /**
+     * @param lowSalaryRation the lowest allowed ratio of a manager's salary to the average salary of their subordinates
+     * @return the number of managers earning less than the ratio allows
+     */
+    public int countUnderpaidManagers(double lowSalaryRation) {
+        int bandStart = bandStart(lowSalaryRation);
+        return bandStart + (int) underpaidInBand(lowSalaryRation, bandStart).count();
+    }
+
+    /**
+     * @param lowSalaryRation the lowest allowed ratio of a manager's salary to the average salary of their subordinates
+     * @return the managers earning less than the ratio allows, ordered by employee ID
+     */
+    public List<Employee> getUnderpaidManagers(double lowSalaryRation) {
+        int bandStart = bandStart(lowSalaryRation);
+        return materialise(IntStream.concat(Arrays.stream(ratioOrder, 0, bandStart),
+                underpaidInBand(lowSalaryRation, bandStart)).toArray());
+    }
+
+    /**
+     * @param highSalaryRation the highest allowed ratio of a manager's salary to the average salary of their subordinates
+     * @return the number of managers earning more than the ratio allows
+     */
+    public int countOverpaidManagers(double highSalaryRation) {
+        int bandEnd = bandEnd(highSalaryRation);
+        return ratioOrder.length - bandEnd + (int) overpaidInBand(highSalaryRation, bandEnd).count();
+    }
+
+    /**
+     * @param highSalaryRation the highest allowed ratio of a manager's salary to the average salary of their subordinates
+     * @return the managers earning more than the ratio allows, ordered by employee ID
+     */
+    public List<Employee> getOverpaidManagers(double highSalaryRation) {
+        int bandEnd = bandEnd(highSalaryRation);
+        return materialise(IntStream.concat(overpaidInBand(highSalaryRation, bandEnd),
+                Arrays.stream(ratioOrder, bandEnd, ratioOrder.length)).toArray());
+    }
+
+    /**
+     * Counts the findings of every combination of thresholds.
+     *
+     * @param hierarchyDepthThresholds the candidate hierarchy depth thresholds
+     * @param lowSalaryRations the candidate lowest allowed salary ratios
+     * @param highSalaryRations the candidate highest allowed salary ratios
+     * @return one point per combination, ordered by depth, then low ratio, then high ratio, in the order given
+     */
+    public List<SweepPoint> sweep(int[] hierarchyDepthThresholds, double[] lowSalaryRations, double[] highSalaryRations) {
+        int[] underpaid = Arrays.stream(lowSalaryRations).mapToInt(this::countUnderpaidManagers).toArray();
+        int[] overpaid = Arrays.stream(highSalaryRations).mapToInt(this::countOverpaidManagers).toArray();
+        List<SweepPoint> points = new ArrayList<>(hierarchyDepthThresholds.length * lowSalaryRations.length * highSalaryRations.length);
+        for (int hierarchyDepthThreshold : hierarchyDepthThresholds) {
+            int longReportingLines = countLongReportingLines(hierarchyDepthThreshold);
+            for (int low = 0; low < lowSalaryRations.length; low++) {
+                for (int high = 0; high < highSalaryRations.length; high++) {
+                    points.add(new SweepPoint(hierarchyDepthThreshold, lowSalaryRations[low], highSalaryRations[high],
+                            longReportingLines, underpaid[low], overpaid[high]));
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Underpaid managers are a prefix of the ratio order: all before the tolerance band around the ratio, and those
+     * in the band that are below the exact bound. Only the band and the irregular managers are checked exactly.
+     */
+    private IntStream underpaidInBand(double lowSalaryRation, int bandStart) {
+        BigDecimal ratio = BigDecimal.valueOf(lowSalaryRation);
+        return IntStream.concat(Arrays.stream(ratioOrder, bandStart, bandEnd(lowSalaryRation)), Arrays.stream(irregularManagers))
+                .filter(manager -> graph.salary(manager).compareTo(averageSalaries[manager].multiply(ratio)) < 0);
+    }
+
+    /**
+     * Overpaid managers are a suffix of the ratio order: all after the tolerance band around the ratio, and those
+     * in the band that are above the exact bound.
+     */
+    private IntStream overpaidInBand(double highSalaryRation, int bandEnd) {
+        BigDecimal ratio = BigDecimal.valueOf(highSalaryRation);
+        return IntStream.concat(Arrays.stream(ratioOrder, bandStart(highSalaryRation), bandEnd), Arrays.stream(irregularManagers))
+                .filter(manager -> graph.salary(manager).compareTo(averageSalaries[manager].multiply(ratio)) > 0);
+    }
+
+    /**
+     * @return the position in the ratio order of the first manager within rounding distance of the ratio
+     */
+    private int bandStart(double ratio) {
+        return firstRatioAtLeast(ratio - tolerance(ratio));
+    }
+
+    /**
+     * @return the position in the ratio order after the last manager within rounding distance of the ratio
+     */
+    private int bandEnd(double ratio) {
+        return firstRatioAtLeast(Math.nextUp(ratio + tolerance(ratio)));
+    }
+
+    private static double tolerance(double ratio) {
+        return RATIO_TOLERANCE * Math.max(1, Math.abs(ratio));
+    }
+
+    private int firstDepthAbove(int depth) {
+        int low = 0;
+        int high = sortedDepths.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedDepths[middle] <= depth) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstRatioAtLeast(double ratio) {
+        int low = 0;
+        int high = sortedRatios.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedRatios[middle] < ratio) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Employee> materialise(int[] indexes) {
+        long[] keys = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            keys[i] = ((long) graph.id(indexes[i]) << 32) | indexes[i];
+        }
+        Arrays.sort(keys);
+        List<Employee> employees = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            employees.add(graph.employee((int) key));
+        }
+        return employees;
+    }
+}
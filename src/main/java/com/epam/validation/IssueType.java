@@ -0,0 +1,19 @@
+package com.epam.validation;
+
+/**
+ * Types of structural issues in an organisation.
+ */
+public enum IssueType {
+    /**
+     * Several employees share an ID.
+     */
+    DUPLICATE_ID,
+    /**
+     * An employee reports to a manager that is not part of the organisation.
+     */
+    ORPHAN,
+    /**
+     * Reporting lines form a cycle and never reach a top-level manager.
+     */
+    CYCLE
+}
@@ -0,0 +1,24 @@
+package com.epam.validation;
+
+import java.util.List;
+
+/**
+ * Thrown in {@link ValidationMode#FAIL_FAST} mode when an organisation has structural issues.
+ */
+public class OrganisationValidationException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<ValidationIssue> issues;
+
+    public OrganisationValidationException(List<ValidationIssue> issues) {
+        super(issues.size() + " structural issues found in the organisation, the first one: " + issues.get(0).message());
+        this.issues = List.copyOf(issues);
+    }
+
+    /**
+     * @return every issue found
+     */
+    public List<ValidationIssue> getIssues() {
+        return issues;
+    }
+}
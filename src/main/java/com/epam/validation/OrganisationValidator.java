@@ -0,0 +1,133 @@
+package com.epam.validation;
+
+import com.epam.graph.OrgGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the structure of an organisation before it is analysed, in a single linear pass over an {@link OrgGraph}.
+ * <p>
+ * The validator reports duplicate IDs, orphans whose manager is not part of the organisation, and cycles in
+ * reporting lines. Cycles are found by walking up the parent links of every employee not visited yet and colouring
+ * the walked path; reaching an employee of the current path closes a cycle, so every employee is walked once.
+ * </p>
+ * <p>
+ * In {@link ValidationMode#QUARANTINE} mode the analysis continues without the employees that cannot be analysed:
+ * all but the last of several employees sharing an ID, matching how manager IDs are resolved, the members of cycles
+ * and everyone whose reporting line leads into a cycle. Orphans are reported but kept; their reporting lines start
+ * at the missing manager.
+ * </p>
+ */
+public class OrganisationValidator {
+    private static final byte UNVISITED = 0;
+    private static final byte ON_PATH = 1;
+    private static final byte VALID = 2;
+    private static final byte BLOCKED = 3;
+
+    private final ValidationMode mode;
+
+    /**
+     * @param mode how to treat an organisation with issues
+     */
+    public OrganisationValidator(ValidationMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Validates an organisation.
+     *
+     * @param graph the organisation
+     * @return the organisation to analyse and the issues found
+     * @throws OrganisationValidationException in {@link ValidationMode#FAIL_FAST} mode if any issue is found
+     */
+    public ValidationResult validate(OrgGraph graph) {
+        int size = graph.size();
+        List<ValidationIssue> issues = new ArrayList<>();
+        boolean[] quarantined = new boolean[size];
+        int quarantinedCount = 0;
+
+        Map<Integer, Integer> duplicates = new LinkedHashMap<>();
+        for (int index = 0; index < size; index++) {
+            if (graph.indexOf(graph.id(index)) != index) {
+                duplicates.merge(graph.id(index), 2, (count, increment) -> count + 1);
+                quarantined[index] = true;
+                quarantinedCount++;
+            }
+        }
+        duplicates.forEach((id, count) -> issues.add(new ValidationIssue(IssueType.DUPLICATE_ID, id,
+                "Employee id " + id + " appears " + count + " times")));
+
+        for (int index = 0; index < size; index++) {
+            if (graph.parent(index) == OrgGraph.UNKNOWN_PARENT) {
+                issues.add(new ValidationIssue(IssueType.ORPHAN, graph.id(index),
+                        "Employee " + graph.id(index) + " reports to unknown manager " + graph.managerId(index)));
+            }
+        }
+
+        byte[] states = new byte[size];
+        int[] path = new int[16];
+        for (int start = 0; start < size; start++) {
+            int length = 0;
+            int current = start;
+            while (current >= 0 && states[current] == UNVISITED) {
+                states[current] = ON_PATH;
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                }
+                path[length++] = current;
+                current = graph.parent(current);
+            }
+
+            byte outcome = current < 0 ? VALID : states[current];
+            if (outcome == ON_PATH) {
+                int cycleStart = length - 1;
+                while (path[cycleStart] != current) {
+                    cycleStart--;
+                }
+                issues.add(cycleIssue(graph, path, cycleStart, length));
+                outcome = BLOCKED;
+            }
+            for (int i = 0; i < length; i++) {
+                states[path[i]] = outcome;
+                if (outcome == BLOCKED && !quarantined[path[i]]) {
+                    quarantined[path[i]] = true;
+                    quarantinedCount++;
+                }
+            }
+        }
+
+        if (issues.isEmpty()) {
+            return new ValidationResult(graph, issues, 0);
+        }
+        if (mode == ValidationMode.FAIL_FAST) {
+            throw new OrganisationValidationException(issues);
+        }
+        return new ValidationResult(quarantinedCount > 0 ? withoutQuarantined(graph, quarantined, quarantinedCount) : graph,
+                issues, quarantinedCount);
+    }
+
+    private static ValidationIssue cycleIssue(OrgGraph graph, int[] path, int from, int to) {
+        StringBuilder message = new StringBuilder("Reporting lines form a cycle: ");
+        for (int i = from; i < to; i++) {
+            message.append(graph.id(path[i])).append(" -> ");
+        }
+        message.append(graph.id(path[from]));
+        return new ValidationIssue(IssueType.CYCLE, graph.id(path[from]), message.toString());
+    }
+
+    private static OrgGraph withoutQuarantined(OrgGraph graph, boolean[] quarantined, int quarantinedCount) {
+        int[] originalIndexes = new int[graph.size() - quarantinedCount];
+        OrgGraph.Builder builder = new OrgGraph.Builder(originalIndexes.length);
+        for (int index = 0; index < graph.size(); index++) {
+            if (!quarantined[index]) {
+                originalIndexes[builder.size()] = index;
+                builder.add(graph, index);
+            }
+        }
+        return builder.build(index -> graph.employee(originalIndexes[index]));
+    }
+}
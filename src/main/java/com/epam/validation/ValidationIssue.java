@@ -0,0 +1,11 @@
+package com.epam.validation;
+
+/**
+ * A structural issue found in an organisation.
+ *
+ * @param type the type of the issue
+ * @param id the ID of the duplicated employee, of the orphan, or of the first employee of the cycle
+ * @param message a human-readable description of the issue
+ */
+public record ValidationIssue(IssueType type, int id, String message) {
+}
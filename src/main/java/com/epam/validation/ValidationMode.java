@@ -0,0 +1,15 @@
+package com.epam.validation;
+
+/**
+ * How {@link OrganisationValidator} treats an organisation with structural issues.
+ */
+public enum ValidationMode {
+    /**
+     * Rejects the organisation with an {@link OrganisationValidationException} listing every issue.
+     */
+    FAIL_FAST,
+    /**
+     * Removes the employees that cannot be analysed and continues with the rest of the organisation.
+     */
+    QUARANTINE
+}
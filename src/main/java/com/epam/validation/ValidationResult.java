@@ -0,0 +1,22 @@
+package com.epam.validation;
+
+import com.epam.graph.OrgGraph;
+
+import java.util.List;
+
+/**
+ * The outcome of validating an organisation.
+ *
+ * @param graph the organisation to analyse; without the quarantined employees in {@link ValidationMode#QUARANTINE} mode
+ * @param issues every issue found, duplicates first, then orphans and cycles
+ * @param quarantined the number of employees removed from the organisation
+ */
+public record ValidationResult(OrgGraph graph, List<ValidationIssue> issues, int quarantined) {
+
+    /**
+     * @return {@code true} if no issues were found
+     */
+    public boolean isValid() {
+        return issues.isEmpty();
+    }
+}
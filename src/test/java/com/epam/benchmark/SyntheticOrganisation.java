@@ -0,0 +1,127 @@
+package com.epam.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic employee reports for benchmarks and tests.
+ * <p>
+ * Employee IDs are {@code 1..size} and employee {@code 1} is the CEO. Reports are deterministic for a given
+ * shape, size and seed. Salaries are drawn from a range that grows with the seniority of the employee, so that
+ * both underpaid and overpaid managers appear, and a share of them is written with cents.
+ * </p>
+ * <p>
+ * Usage: {@code SyntheticOrganisation <DEEP|WIDE|BALANCED> <size> <output.csv> [seed]}
+ * </p>
+ */
+public final class SyntheticOrganisation {
+    private static final String[] FIRST_NAMES = {"Joe", "Martin", "Bob", "Alice", "Brett", "Anna", "Olga", "Ivan",
+            "Maria", "Peter", "Sofia", "Lukas", "Emma", "Noah", "Mia", "Leon"};
+    private static final String[] LAST_NAMES = {"Doe", "Chekov", "Ronstad", "Hasacat", "Hardleaf", "Novak", "Schmidt",
+            "Kowalski", "Horvath", "Popescu", "Jensen", "Moreau", "Rossi", "Silva", "Ivanova", "Smith"};
+    private static final int BALANCED_FAN_OUT = 8;
+    private static final int WIDE_FAN_OUT = 10_000;
+
+    /**
+     * The structure of a generated organisation.
+     */
+    public enum Shape {
+        /**
+         * A single reporting chain from the CEO down to the last employee.
+         */
+        DEEP,
+        /**
+         * Very wide fan-outs: the CEO manages up to 10 000 managers, each of them with up to 10 000 reports.
+         */
+        WIDE,
+        /**
+         * A balanced tree in which every manager has 8 direct reports.
+         */
+        BALANCED
+    }
+
+    private SyntheticOrganisation() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SyntheticOrganisation <DEEP|WIDE|BALANCED> <size> <output.csv> [seed]");
+            System.exit(1);
+        }
+        Shape shape = Shape.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int size = Integer.parseInt(args[1]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        write(Path.of(args[2]), shape, size, seed);
+    }
+
+    /**
+     * Writes a synthetic report with a header line.
+     *
+     * @param path the path of the CSV file to write
+     * @param shape the structure of the organisation
+     * @param size the number of employees
+     * @param seed the seed of the salary and name generator
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Shape shape, int size, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            StringBuilder line = new StringBuilder(64);
+            writer.write("id,firstName,lastName,salary,managerId\n");
+            for (int id = 1; id <= size; id++) {
+                int managerId = managerOf(shape, id);
+                line.setLength(0);
+                line.append(id).append(',')
+                        .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(',')
+                        .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(',');
+                appendSalary(line, random, levelOf(shape, id));
+                line.append(',');
+                if (managerId > 0) {
+                    line.append(managerId);
+                }
+                line.append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    /**
+     * @return the ID of the manager of the employee, or {@code 0} for the CEO
+     */
+    static int managerOf(Shape shape, int id) {
+        if (id == 1) {
+            return 0;
+        }
+        return switch (shape) {
+            case DEEP -> id - 1;
+            case WIDE -> id <= WIDE_FAN_OUT + 1 ? 1 : (id - 2) / WIDE_FAN_OUT + 1;
+            case BALANCED -> (id - 2) / BALANCED_FAN_OUT + 1;
+        };
+    }
+
+    /**
+     * @return a seniority level used for salaries, {@code 0} for the CEO and growing towards the leaves,
+     *         capped for deep chains
+     */
+    private static int levelOf(Shape shape, int id) {
+        int level = 0;
+        for (int current = id; current != 1 && level < 4; current = managerOf(shape, current)) {
+            level++;
+        }
+        return level;
+    }
+
+    private static void appendSalary(StringBuilder line, SplittableRandom random, int level) {
+        long base = 200_000 >> level;
+        long salary = base + random.nextLong(base / 2 + 1) - base / 4;
+        line.append(salary);
+        if (random.nextInt(4) == 0) {
+            int cents = random.nextInt(100);
+            line.append('.').append(cents / 10).append(cents % 10);
+        }
+    }
+}
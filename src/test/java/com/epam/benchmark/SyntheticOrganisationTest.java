@@ -0,0 +1,50 @@
+package com.epam.benchmark;
+
+import com.epam.graph.OrgGraph;
+import com.epam.service.OrganisationOptimisationService;
+import com.epam.service.ReportService;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticOrganisationTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @CsvSource({
+            "DEEP, 1000, 999",
+            "WIDE, 20003, 2",
+            "BALANCED, 1000, 4"
+    })
+    void write_generatesOrganisationOfTheRequestedShape(SyntheticOrganisation.Shape shape, int size, int maxDepth) throws IOException {
+        Path report = tempDir.resolve(shape + ".csv");
+        SyntheticOrganisation.write(report, shape, size, 7);
+
+        OrgGraph graph = new ReportService(1).readOrgGraphFromCsv(report.toString());
+        int[] depths = new OrganisationOptimisationService().computeHierarchyDepths(graph);
+
+        assertEquals(size, graph.size());
+        assertEquals(OrgGraph.NO_PARENT, graph.parent(graph.indexOf(1)));
+        assertEquals(maxDepth, Arrays.stream(depths).max().orElseThrow());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"DEEP", "WIDE", "BALANCED"})
+    void write_isDeterministicForASeed(SyntheticOrganisation.Shape shape) throws IOException {
+        Path first = tempDir.resolve("first.csv");
+        Path second = tempDir.resolve("second.csv");
+        SyntheticOrganisation.write(first, shape, 500, 11);
+        SyntheticOrganisation.write(second, shape, 500, 11);
+
+        assertEquals(-1, Files.mismatch(first, second));
+    }
+}
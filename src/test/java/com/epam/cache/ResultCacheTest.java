@@ -0,0 +1,112 @@
+package com.epam.cache;
+
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+import com.epam.rules.ReportingLineDepthRule;
+import com.epam.rules.RuleEngine;
+import com.epam.rules.SalaryRatioRule;
+import com.epam.rules.SpanOfControlRule;
+import com.epam.validation.ValidationMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private static final Employee MANAGER = new Employee(1, "Ann", "Top, Jr.", new BigDecimal("1000.50"), null);
+    private static final Employee EMPLOYEE = new Employee(7, "Bob", "Deep", new BigDecimal("500"), 6);
+
+    private static String record(ResultCache cache, String key) throws IOException {
+        StringWriter output = new StringWriter();
+        try (ReportSink sink = ReportSinks.create(ReportFormat.CSV, output, true)) {
+            ResultCache.Recorder recorder = cache.record(key, sink);
+            recorder.longReportingLine(EMPLOYEE, 2);
+            recorder.salaryDiscrepancy(MANAGER, new SalaryDiscrepancy(DiscrepancyType.LESS, new BigDecimal("15000.0")));
+            recorder.ruleViolation("span-of-control", MANAGER, new BigDecimal("2"), "12 direct reports, at most 10 allowed");
+            recorder.commit();
+        }
+        return output.toString();
+    }
+
+    private static String settings(int hierarchyDepth, double lowSalaryRation, ValidationMode validationMode) {
+        RuleEngine ruleEngine = new RuleEngine(List.of(new ReportingLineDepthRule(hierarchyDepth),
+                new SalaryRatioRule(lowSalaryRation, 1.5), new SpanOfControlRule(10)));
+        return ruleEngine + "\n" + validationMode;
+    }
+
+    private static String replay(ResultCache cache, String key) throws IOException {
+        StringWriter output = new StringWriter();
+        try (ReportSink sink = ReportSinks.create(ReportFormat.CSV, output, true)) {
+            return cache.replay(key, sink) ? output.toString() : null;
+        }
+    }
+
+    @Test
+    void replay_returnsRecordedFindings(@TempDir Path tempDir) throws IOException {
+        ResultCache cache = new ResultCache(tempDir.resolve("cache"), 1 << 20);
+
+        assertNull(replay(cache, "missing"));
+        String recorded = record(cache, "key");
+
+        assertEquals(recorded, replay(cache, "key"));
+    }
+
+    @Test
+    void key_dependsOnContentAndSettings(@TempDir Path tempDir) throws IOException {
+        Path report = tempDir.resolve("report.csv");
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n1,Ann,Top,100,\n");
+        String key = ResultCache.key(report, settings(4, 1.2, ValidationMode.QUARANTINE));
+
+        assertEquals(key, ResultCache.key(report, settings(4, 1.2, ValidationMode.QUARANTINE)));
+        assertNotEquals(key, ResultCache.key(report, settings(3, 1.2, ValidationMode.QUARANTINE)));
+        assertNotEquals(key, ResultCache.key(report, settings(4, 1.1, ValidationMode.QUARANTINE)));
+        assertNotEquals(key, ResultCache.key(report, settings(4, 1.2, ValidationMode.FAIL_FAST)));
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n1,Ann,Top,101,\n");
+        assertNotEquals(key, ResultCache.key(report, settings(4, 1.2, ValidationMode.QUARANTINE)));
+    }
+
+    @Test
+    void replay_discardsCorruptedEntry(@TempDir Path tempDir) throws IOException {
+        ResultCache cache = new ResultCache(tempDir, 1 << 20);
+        record(cache, "key");
+        Path entry = tempDir.resolve("key" + ResultCache.ENTRY_SUFFIX);
+        byte[] content = Files.readAllBytes(entry);
+        content[12] ^= 1;
+        Files.write(entry, content);
+
+        assertNull(replay(cache, "key"));
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    void store_evictsLeastRecentlyUsedEntries(@TempDir Path tempDir) throws IOException {
+        ResultCache probe = new ResultCache(tempDir.resolve("probe"), Long.MAX_VALUE);
+        record(probe, "a");
+        long entrySize = Files.size(tempDir.resolve("probe/a" + ResultCache.ENTRY_SUFFIX));
+        ResultCache cache = new ResultCache(tempDir.resolve("cache"), 2 * entrySize);
+        long now = System.currentTimeMillis();
+
+        record(cache, "a");
+        Files.setLastModifiedTime(tempDir.resolve("cache/a" + ResultCache.ENTRY_SUFFIX), FileTime.fromMillis(now - 3000));
+        record(cache, "b");
+        Files.setLastModifiedTime(tempDir.resolve("cache/b" + ResultCache.ENTRY_SUFFIX), FileTime.fromMillis(now - 2000));
+        assertNotNull(replay(cache, "a"));
+        record(cache, "c");
+
+        assertNotNull(replay(cache, "a"));
+        assertNull(replay(cache, "b"));
+        assertNotNull(replay(cache, "c"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.epam.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameDictionaryTest {
+
+    @Test
+    void intern_storesEveryDistinctNameOnce() {
+        NameDictionary names = new NameDictionary();
+        int[] codes = new int[1000];
+        for (int i = 0; i < codes.length; i++) {
+            ByteBuffer buffer = ByteBuffer.wrap(("x,Name" + (i % 100) + ",").getBytes(StandardCharsets.UTF_8));
+            codes[i] = names.intern(buffer, 2, buffer.limit() - 1);
+        }
+
+        assertEquals(100, names.size());
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(codes[i % 100], codes[i]);
+            assertEquals("Name" + (i % 100), names.name(codes[i]));
+        }
+        assertSame(names.name(codes[7]), names.name(codes[107]));
+    }
+
+    @Test
+    void intern_decodesUtf8AndEmptyNames() {
+        NameDictionary names = new NameDictionary();
+        ByteBuffer buffer = ByteBuffer.wrap("Zo\u00eb,,Zo\u00eb".getBytes(StandardCharsets.UTF_8));
+
+        int first = names.intern(buffer, 0, 4);
+        int empty = names.intern(buffer, 5, 5);
+        int again = names.intern(buffer, 6, 10);
+
+        assertEquals(first, again);
+        assertEquals("Zo\u00eb", names.name(first));
+        assertEquals("", names.name(empty));
+        assertEquals(2, names.size());
+        assertEquals(4, names.byteSize());
+    }
+}
@@ -0,0 +1,85 @@
+package com.epam.graph;
+
+import com.epam.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgGraphSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Employee> employees;
+    private OrgGraph graph;
+    private long[] rowOffsets;
+
+    @BeforeEach
+    void setUp() {
+        employees = List.of(
+                new Employee(123, "Joe", "Doe", new BigDecimal("70000"), null),
+                new Employee(124, "Martin", "Chekov", new BigDecimal("45000.50"), 123),
+                new Employee(125, "Bob", "Ronstad", new BigDecimal("47000").setScale(137), 123),
+                new Employee(300, "Alice", "Hasacat", new BigDecimal("50000.125"), 124),
+                new Employee(305, "Brett", "Hardleaf", new BigDecimal("34000"), 999)
+        );
+        graph = OrgGraph.of(employees);
+        rowOffsets = new long[]{10, 20, 30, 40, 50};
+    }
+
+    @Test
+    void read_restoresWrittenGraph() throws IOException {
+        Path snapshot = tempDir.resolve("report.csv.snapshot");
+        OrgGraphSnapshot.write(snapshot, graph, rowOffsets, 1234, 5678, 42);
+
+        OrgGraph restored = OrgGraphSnapshot.read(snapshot, 1234, 5678, 42,
+                rowOffset -> employees.get((int) (rowOffset / 10 - 1)));
+
+        assertEquals(graph.size(), restored.size());
+        for (int index = 0; index < graph.size(); index++) {
+            assertEquals(graph.id(index), restored.id(index));
+            assertEquals(graph.managerId(index), restored.managerId(index));
+            assertEquals(graph.parent(index), restored.parent(index));
+            assertEquals(graph.childCount(index), restored.childCount(index));
+            assertEquals(graph.salary(index), restored.salary(index));
+            assertEquals(graph.isDecimalSalary(index), restored.isDecimalSalary(index));
+            assertEquals(index, restored.indexOf(graph.id(index)));
+            assertEquals(employees.get(index), restored.employee(index));
+        }
+        for (int position = 0; position < graph.childEnd(graph.size() - 1); position++) {
+            assertEquals(graph.child(position), restored.child(position));
+        }
+        assertEquals(IntIndexMap.ABSENT, restored.indexOf(999));
+    }
+
+    @Test
+    void read_rejectsSnapshotOfAnotherSourceVersion() throws IOException {
+        Path snapshot = tempDir.resolve("report.csv.snapshot");
+        OrgGraphSnapshot.write(snapshot, graph, rowOffsets, 1234, 5678, 42);
+
+        assertThrows(IOException.class, () -> OrgGraphSnapshot.read(snapshot, 1234, 5679, 42, rowOffset -> null));
+        assertThrows(IOException.class, () -> OrgGraphSnapshot.read(snapshot, 1235, 5678, 42, rowOffset -> null));
+        assertThrows(IOException.class, () -> OrgGraphSnapshot.read(snapshot, 1234, 5678, 43, rowOffset -> null));
+    }
+
+    @Test
+    void read_rejectsCorruptedSnapshot() throws IOException {
+        Path snapshot = tempDir.resolve("report.csv.snapshot");
+        OrgGraphSnapshot.write(snapshot, graph, rowOffsets, 1234, 5678, 42);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        IOException exception = assertThrows(IOException.class,
+                () -> OrgGraphSnapshot.read(snapshot, 1234, 5678, 42, rowOffset -> null));
+        assertTrue(exception.getMessage().contains("corrupted"));
+    }
+}
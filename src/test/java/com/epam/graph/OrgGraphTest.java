@@ -0,0 +1,103 @@
+package com.epam.graph;
+
+import com.epam.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgGraphTest {
+
+    private List<Employee> employees;
+    private OrgGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        employees = List.of(
+                new Employee(123, "Joe", "Doe", new BigDecimal("70000"), null),
+                new Employee(124, "Martin", "Chekov", new BigDecimal("45000.50"), 123),
+                new Employee(125, "Bob", "Ronstad", new BigDecimal("47000"), 123),
+                new Employee(300, "Alice", "Hasacat", new BigDecimal("50000"), 124),
+                new Employee(305, "Brett", "Hardleaf", new BigDecimal("34000"), 999)
+        );
+        graph = OrgGraph.of(employees);
+    }
+
+    @Test
+    void of_resolvesParentsAndChildren() {
+        assertEquals(5, graph.size());
+        assertEquals(OrgGraph.NO_PARENT, graph.parent(0));
+        assertEquals(0, graph.parent(1));
+        assertEquals(1, graph.parent(3));
+        assertEquals(OrgGraph.UNKNOWN_PARENT, graph.parent(4));
+        assertTrue(graph.hasManager(4));
+        assertEquals(999, graph.managerId(4));
+        assertFalse(graph.hasManager(0));
+
+        assertEquals(2, graph.childCount(0));
+        assertEquals(1, graph.child(graph.childStart(0)));
+        assertEquals(2, graph.child(graph.childStart(0) + 1));
+        assertEquals(1, graph.childCount(1));
+        assertEquals(0, graph.childCount(4));
+    }
+
+    @Test
+    void of_keepsSalariesAndIds() {
+        assertEquals(4500050, graph.salaryCents(1));
+        assertEquals(new BigDecimal("45000.50"), graph.salary(1));
+        assertEquals(new BigDecimal("70000"), graph.salary(0));
+        assertEquals(3, graph.indexOf(300));
+        assertEquals(IntIndexMap.ABSENT, graph.indexOf(999));
+        assertSame(employees.get(2), graph.employee(2));
+    }
+
+    @Test
+    void builder_keepsSalariesBeyondCentsExact() {
+        OrgGraph decimalGraph = new OrgGraph.Builder(1)
+                .add(1, new BigDecimal("1234.567"), null)
+                .add(2, new BigDecimal("1E+30"), 1)
+                .add(3, new BigDecimal("10.50"), 1)
+                .build(index -> null);
+
+        assertTrue(decimalGraph.hasDecimalSalaries());
+        assertTrue(decimalGraph.isDecimalSalary(0));
+        assertEquals(new BigDecimal("1234.567"), decimalGraph.salary(0));
+        assertEquals(3, decimalGraph.salaryScale(0));
+        assertEquals(123456, decimalGraph.salaryCents(0));
+        assertEquals(new BigDecimal("1E+30"), decimalGraph.salary(1));
+        assertEquals(Long.MAX_VALUE, decimalGraph.salaryCents(1));
+        assertFalse(decimalGraph.isDecimalSalary(2));
+        assertEquals(new BigDecimal("10.50"), decimalGraph.salary(2));
+        assertFalse(graph.hasDecimalSalaries());
+    }
+
+    @Test
+    void builder_keepsScalesBeyondAByteAsDecimalSalaries() {
+        OrgGraph decimalGraph = new OrgGraph.Builder(1)
+                .add(1, 10000, 137, false, 0)
+                .build(index -> null);
+
+        assertTrue(decimalGraph.isDecimalSalary(0));
+        assertEquals(new BigDecimal("100").setScale(137), decimalGraph.salary(0));
+        assertEquals(137, decimalGraph.salaryScale(0));
+        assertThrows(IllegalArgumentException.class, () -> new OrgGraph.Builder(1).add(1, 10000, -200, false, 0));
+    }
+
+    @Test
+    void intIndexMap_growsAndOverwrites() {
+        IntIndexMap map = new IntIndexMap(2);
+        for (int key = -1000; key < 1000; key++) {
+            map.put(key, key + 1000);
+        }
+        assertEquals(2000, map.size());
+        assertEquals(0, map.get(-1000));
+        assertEquals(1999, map.get(999));
+        assertEquals(IntIndexMap.ABSENT, map.get(5000));
+        assertEquals(1000, map.put(0, 7));
+        assertEquals(7, map.get(0));
+        assertEquals(2000, map.size());
+    }
+}
@@ -0,0 +1,122 @@
+package com.epam.graph;
+
+import com.epam.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgTreeIndexTest {
+
+    private OrgGraph graph;
+    private OrgTreeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        graph = OrgGraph.of(List.of(
+                new Employee(123, "Joe", "Doe", new BigDecimal("70000"), null),
+                new Employee(124, "Martin", "Chekov", new BigDecimal("45000.50"), 123),
+                new Employee(125, "Bob", "Ronstad", new BigDecimal("47000"), 123),
+                new Employee(300, "Alice", "Hasacat", new BigDecimal("50000"), 124),
+                new Employee(301, "Ann", "Lee", new BigDecimal("40000"), 300),
+                new Employee(302, "Ben", "Ray", new BigDecimal("41000"), 124),
+                new Employee(305, "Brett", "Hardleaf", new BigDecimal("34000"), 999)
+        ));
+        index = OrgTreeIndex.of(graph);
+    }
+
+    @Test
+    void subtreeAggregates() {
+        int joe = graph.indexOf(123);
+        int martin = graph.indexOf(124);
+
+        assertEquals(6, index.subtreeSize(joe));
+        assertEquals(5, index.headcountBelow(joe));
+        assertEquals(new BigDecimal("293000.50"), index.subtreePayroll(joe));
+        assertEquals(3, index.maxDepthBelow(joe));
+        assertEquals(3, index.headcountBelow(martin));
+        assertEquals(17600050, index.subtreePayrollCents(martin));
+        assertEquals(2, index.maxDepthBelow(martin));
+        assertEquals(0, index.headcountBelow(graph.indexOf(125)));
+        assertEquals(0, index.maxDepthBelow(graph.indexOf(125)));
+        assertEquals(0, index.depth(graph.indexOf(305)));
+    }
+
+    @Test
+    void ancestorsAndLowestCommonManager() {
+        int joe = graph.indexOf(123);
+        int martin = graph.indexOf(124);
+        int ann = graph.indexOf(301);
+
+        assertEquals(graph.indexOf(300), index.ancestor(ann, 1));
+        assertEquals(joe, index.ancestor(ann, 3));
+        assertEquals(-1, index.ancestor(ann, 4));
+        assertEquals(martin, index.lowestCommonManager(ann, graph.indexOf(302)));
+        assertEquals(joe, index.lowestCommonManager(ann, graph.indexOf(125)));
+        assertEquals(martin, index.lowestCommonManager(martin, ann));
+        assertEquals(martin, index.lowestCommonManager(ann, martin));
+        assertEquals(-1, index.lowestCommonManager(ann, graph.indexOf(305)));
+        assertTrue(index.isInSubtree(martin, ann));
+        assertFalse(index.isInSubtree(ann, martin));
+    }
+
+    @Test
+    void matchesNaiveWalksOnRandomTree() {
+        Random random = new Random(3);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "Root", "Manager", new BigDecimal("100000"), null));
+        for (int id = 2; id <= 2_000; id++) {
+            int managerId = random.nextInt(4) == 0 ? id - 1 : 1 + random.nextInt(id - 1);
+            employees.add(new Employee(id, "First", "Last", BigDecimal.valueOf(10_000 + random.nextInt(90_000)), managerId));
+        }
+        OrgGraph randomGraph = OrgGraph.of(employees);
+        OrgTreeIndex randomIndex = OrgTreeIndex.of(randomGraph);
+
+        for (int query = 0; query < 500; query++) {
+            int first = random.nextInt(randomGraph.size());
+            int second = random.nextInt(randomGraph.size());
+            List<Integer> firstChain = chain(randomGraph, first);
+            int expected = -1;
+            for (int manager : chain(randomGraph, second)) {
+                if (firstChain.contains(manager)) {
+                    expected = manager;
+                    break;
+                }
+            }
+            assertEquals(expected, randomIndex.lowestCommonManager(first, second));
+
+            long payroll = 0;
+            int headcount = 0;
+            for (int candidate = 0; candidate < randomGraph.size(); candidate++) {
+                if (chain(randomGraph, candidate).contains(first)) {
+                    payroll += randomGraph.salaryCents(candidate);
+                    headcount++;
+                }
+            }
+            assertEquals(headcount, randomIndex.subtreeSize(first));
+            assertEquals(payroll, randomIndex.subtreePayrollCents(first));
+        }
+    }
+
+    @Test
+    void rejectsCycles() {
+        OrgGraph cycle = OrgGraph.of(List.of(
+                new Employee(1, "Ann", "Cycle", new BigDecimal("50000"), 2),
+                new Employee(2, "Ben", "Cycle", new BigDecimal("50000"), 1)));
+
+        assertThrows(IllegalStateException.class, () -> OrgTreeIndex.of(cycle));
+    }
+
+    private static List<Integer> chain(OrgGraph graph, int index) {
+        List<Integer> chain = new ArrayList<>();
+        for (int current = index; current >= 0; current = graph.parent(current)) {
+            chain.add(current);
+        }
+        return chain;
+    }
+}
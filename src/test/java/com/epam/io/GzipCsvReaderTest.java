@@ -0,0 +1,65 @@
+package com.epam.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipCsvReaderTest {
+
+    private static Path gzip(Path file) throws IOException {
+        Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(file, output);
+        }
+        return compressed;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {7, 64, 1 << 20})
+    void read_matchesMappedReadAcrossBlockBoundaries(int blockSize, @TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\r\n1,Root,Manager,100000.50,\r\n");
+        for (int id = 2; id <= 2000; id++) {
+            content.append(id).append(",First").append(id % 50).append(",L\u00e4st").append(id % 7).append(",").append(1000 + id).append(",");
+            content.append(id % 331 == 0 ? "x" : String.valueOf(id / 3 + 1)).append(id % 2 == 0 ? "\r\n" : "\n");
+            if (id % 500 == 0) {
+                content.append('\n');
+            }
+        }
+        content.append("2001,Last,Row,10,1");
+        Path file = tempDir.resolve("employees.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        CsvReadResult expected = MappedCsvReader.read(file);
+        CsvReadResult actual = GzipCsvReader.read(gzip(file), blockSize, 2);
+
+        assertEquals(expected.malformedRows(), actual.malformedRows());
+        assertArrayEquals(expected.rowOffsets(), actual.rowOffsets());
+        assertEquals(expected.graph().size(), actual.graph().size());
+        for (int index = 0; index < expected.graph().size(); index++) {
+            assertEquals(expected.graph().employee(index), actual.graph().employee(index));
+            assertEquals(expected.graph().parent(index), actual.graph().parent(index));
+        }
+    }
+
+    @Test
+    void read_rejectsCorruptedStream(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("employees.csv");
+        Files.writeString(file, "id,firstName,lastName,salary,managerId\n1,Ann,Top,100,\n".repeat(1000));
+        Path compressed = gzip(file);
+        byte[] bytes = Files.readAllBytes(compressed);
+        Files.write(compressed, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(IOException.class, () -> GzipCsvReader.read(compressed, 64, 2));
+    }
+}
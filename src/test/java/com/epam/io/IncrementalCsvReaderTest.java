@@ -0,0 +1,75 @@
+package com.epam.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalCsvReaderTest {
+    private static final String HEADER = "id,firstName,lastName,salary,managerId\n";
+
+    private static String rows(int from, int to) {
+        StringBuilder rows = new StringBuilder();
+        for (int id = from; id <= to; id++) {
+            rows.append(id).append(",First").append(id).append(",Last").append(id).append(',').append(1000 + id).append(',');
+            rows.append(id == 1 ? "" : id % 97 == 0 ? "x" : String.valueOf(id / 2)).append('\n');
+        }
+        return rows.toString();
+    }
+
+    private static void assertMatchesFreshRead(Path file, CsvReadResult incremental) throws IOException {
+        CsvReadResult fresh = MappedCsvReader.read(file);
+        assertEquals(fresh.malformedRows(), incremental.malformedRows());
+        assertArrayEquals(fresh.rowOffsets(), incremental.rowOffsets());
+        assertEquals(fresh.graph().size(), incremental.graph().size());
+        for (int index = 0; index < fresh.graph().size(); index++) {
+            assertEquals(fresh.graph().id(index), incremental.graph().id(index));
+            assertEquals(fresh.graph().parent(index), incremental.graph().parent(index));
+            assertEquals(fresh.graph().salaryCents(index), incremental.graph().salaryCents(index));
+            assertEquals(fresh.graph().childStart(index), incremental.graph().childStart(index));
+        }
+        if (fresh.graph().size() > 0) {
+            int last = fresh.graph().size() - 1;
+            assertEquals(fresh.graph().employee(last), incremental.graph().employee(last));
+        }
+    }
+
+    @Test
+    void read_reparsesOnlyChangedLines(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("report.csv");
+        IncrementalCsvReader reader = new IncrementalCsvReader();
+
+        Files.writeString(file, HEADER + rows(1, 1000));
+        assertMatchesFreshRead(file, reader.read(file));
+        assertEquals(0, reader.reusedRows());
+
+        // Appended rows, one of them malformed
+        Files.writeString(file, HEADER + rows(1, 1200));
+        assertMatchesFreshRead(file, reader.read(file));
+        assertEquals(990, reader.reusedRows());
+
+        // A changed salary in the middle of the file
+        Files.writeString(file, HEADER + rows(1, 599) + "600,First600,Last600,1,300\n" + rows(601, 1200));
+        assertMatchesFreshRead(file, reader.read(file));
+        assertEquals(593, reader.reusedRows());
+
+        // Truncated without a final line terminator
+        Files.writeString(file, HEADER + rows(1, 499) + "500,First500,Last500,1500,250");
+        CsvReadResult truncated = reader.read(file);
+        assertMatchesFreshRead(file, truncated);
+        assertEquals(500 - 5, truncated.graph().size());
+
+        // Unchanged
+        reader.read(file);
+        assertEquals(494, reader.reusedRows());
+
+        // A new header
+        Files.writeString(file, "ID,FirstName,LastName,Salary,ManagerId\n" + rows(1, 10));
+        assertMatchesFreshRead(file, reader.read(file));
+        assertEquals(0, reader.reusedRows());
+    }
+}
@@ -0,0 +1,162 @@
+package com.epam.io;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvReaderTest {
+
+    @Test
+    void read_splitsFileIntoSegmentsAtLineBoundaries(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n");
+        content.append("1,Root,Manager,100000,\n");
+        for (int id = 2; id <= 500; id++) {
+            content.append(id).append(",First").append(id).append(",Last").append(id).append(",5000.5,").append(id / 2).append('\n');
+        }
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+
+        MappedCsvFile file = MappedCsvFile.map(filePath, 256);
+        CsvReadResult result = MappedCsvReader.read(file, 1);
+        OrgGraph graph = result.graph();
+
+        assertTrue(file.segmentCount() > 1);
+        assertTrue(result.malformedRows().isEmpty());
+        assertEquals(500, graph.size());
+        for (int index = 0; index < graph.size(); index++) {
+            assertEquals(index + 1, graph.id(index));
+        }
+        assertEquals(500050, graph.salaryCents(499));
+        assertEquals(new Employee(500, "First500", "Last500", new BigDecimal("5000.5"), 250), graph.employee(499));
+        assertEquals("Last500", graph.employee(499).lastName());
+        assertEquals(graph.indexOf(250), graph.parent(499));
+    }
+
+    @Test
+    void map_rejectsLineLongerThanSegment(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n1,Root,Manager,100000,\n");
+
+        assertThrows(IOException.class, () -> MappedCsvFile.map(filePath, 8));
+    }
+
+    @Test
+    void read_parsesSignedAndScaledSalaries(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "header\n1,A,B,+12.3\n2,C,D,7.000,1\n3,E,F,1.005,1\n4,G,H,1e3,1\n5,I,J,4x5,1\n");
+
+        CsvReadResult result = MappedCsvReader.read(filePath);
+
+        assertEquals(4, result.graph().size());
+        assertEquals(new BigDecimal("12.3"), result.graph().salary(0));
+        assertEquals(new BigDecimal("7.000"), result.graph().salary(1));
+        // Salaries the fast path cannot represent in cents are parsed like new BigDecimal(text)
+        assertEquals(new BigDecimal("1.005"), result.graph().salary(2));
+        assertEquals(new BigDecimal("1e3"), result.graph().salary(3));
+        assertEquals(new BigDecimal("1.005"), result.graph().employee(2).salary());
+        assertEquals(1, result.malformedRows().size());
+        assertEquals(6, result.malformedRows().get(0).lineNumber());
+    }
+
+    @Test
+    void read_keepsTheScaleOfLongZeroFractions(@TempDir Path tempDir) throws IOException {
+        String salary = "100." + "0".repeat(137);
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "header\n1,A,B," + salary + "\n2,C,D,100.00,1\n3,E,F,100,1\n");
+
+        CsvReadResult result = MappedCsvReader.read(filePath);
+
+        assertTrue(result.malformedRows().isEmpty());
+        assertEquals(new BigDecimal(salary), result.graph().salary(0));
+        assertEquals(137, result.graph().salaryScale(0));
+        assertEquals(10000, result.graph().salaryCents(0));
+        assertEquals(new BigDecimal("100.00"), result.graph().salary(1));
+    }
+
+    @Test
+    void read_inParallelMatchesSequentialRead(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n");
+        content.append("1,Root,Manager,100000,\n");
+        for (int id = 2; id <= 5000; id++) {
+            content.append(id).append(",First").append(id).append(",Last").append(id).append(",").append(1000 + id).append(",");
+            content.append(id % 997 == 0 ? "x" : String.valueOf(id / 3 + 1)).append('\n');
+        }
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+        MappedCsvFile file = MappedCsvFile.map(filePath, 16 << 10);
+
+        CsvReadResult sequential = MappedCsvReader.read(file, 1);
+        CsvReadResult parallel = MappedCsvReader.read(file, 4, 1 << 10);
+
+        assertEquals(sequential.malformedRows(), parallel.malformedRows());
+        assertEquals(5, parallel.malformedRows().size());
+        assertEquals(998, parallel.malformedRows().get(0).lineNumber());
+        assertEquals(sequential.graph().size(), parallel.graph().size());
+        for (int index = 0; index < parallel.graph().size(); index++) {
+            assertEquals(sequential.graph().id(index), parallel.graph().id(index));
+            assertEquals(sequential.graph().parent(index), parallel.graph().parent(index));
+            assertEquals(sequential.graph().salaryCents(index), parallel.graph().salaryCents(index));
+        }
+        assertEquals(sequential.graph().employee(4000), parallel.graph().employee(4000));
+    }
+
+    @Test
+    void read_withReusedBuffersMatchesFreshRead(@TempDir Path tempDir) throws IOException {
+        Path large = tempDir.resolve("large.csv");
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n1,Root,Manager,100000,\n");
+        for (int id = 2; id <= 3000; id++) {
+            content.append(id).append(",First").append(id).append(",Last").append(id).append(",2000,").append(id / 2).append('\n');
+        }
+        Files.writeString(large, content);
+        Path small = tempDir.resolve("small.csv");
+        Files.writeString(small, "id,firstName,lastName,salary,managerId\n7,Solo,Lead,900.50,\n8,Only,Report,x,7\n9,Last,Row,100,7\n");
+        CsvParseBuffers buffers = new CsvParseBuffers();
+
+        CsvReadResult first = MappedCsvReader.read(MappedCsvFile.map(large), buffers);
+        CsvReadResult second = MappedCsvReader.read(MappedCsvFile.map(small), buffers);
+
+        assertEquals(3000, first.graph().size());
+        assertEquals(new Employee(3000, "First3000", "Last3000", new BigDecimal("2000"), 1500), first.graph().employee(2999));
+        assertEquals(2, second.graph().size());
+        assertEquals(2, second.rowOffsets().length);
+        assertEquals(new Employee(9, "Last", "Row", new BigDecimal("100"), 7), second.graph().employee(1));
+        assertEquals(new BigDecimal("900.50"), second.graph().salary(0));
+        assertEquals(1, second.malformedRows().size());
+        assertEquals(3, second.malformedRows().get(0).lineNumber());
+        assertEquals(first.graph().indexOf(1500), first.graph().parent(2999));
+    }
+
+    @Test
+    void read_withNameDictionarySharesRepeatedNames(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n1,Root,Manager,100000.5,\n");
+        for (int id = 2; id <= 2000; id++) {
+            content.append(id).append(",First").append(id % 10).append(",Last").append(id % 7).append(",2000.25,").append(id / 2).append('\n');
+        }
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+        MappedCsvFile file = MappedCsvFile.map(filePath, 4 << 10);
+
+        CsvReadResult mapped = MappedCsvReader.read(file, 1);
+        CsvReadResult dictionary = MappedCsvReader.read(file, 4, NameStorage.DICTIONARY);
+
+        for (int index = 0; index < mapped.graph().size(); index++) {
+            Employee expected = mapped.graph().employee(index);
+            Employee actual = dictionary.graph().employee(index);
+            assertEquals(expected.id(), actual.id());
+            assertEquals(expected.firstName(), actual.firstName());
+            assertEquals(expected.lastName(), actual.lastName());
+            assertEquals(expected.salary(), actual.salary());
+            assertEquals(expected.managerId(), actual.managerId());
+        }
+        assertSame(dictionary.graph().employee(10).firstName(), dictionary.graph().employee(20).firstName());
+        assertNotSame(mapped.graph().employee(10).firstName(), mapped.graph().employee(20).firstName());
+    }
+}
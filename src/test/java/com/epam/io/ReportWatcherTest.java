@@ -0,0 +1,51 @@
+package com.epam.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWatcherTest {
+    private static final String HEADER = "id,firstName,lastName,salary,managerId\n";
+
+    @Test
+    void awaitChange_collapsesBurstOfWritesIntoOneChange(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("report.csv");
+        Files.writeString(file, HEADER);
+        AtomicInteger changes = new AtomicInteger();
+        CountDownLatch firstChange = new CountDownLatch(1);
+
+        try (ReportWatcher watcher = new ReportWatcher(file, Duration.ofMillis(300))) {
+            Thread waiter = new Thread(() -> {
+                try {
+                    while (true) {
+                        watcher.awaitChange();
+                        changes.incrementAndGet();
+                        firstChange.countDown();
+                    }
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    // Stopped by the test
+                }
+            });
+            waiter.start();
+
+            Files.writeString(tempDir.resolve("other.csv"), HEADER);
+            for (int i = 1; i <= 5; i++) {
+                Files.writeString(file, HEADER + "1,Ann,Top," + i + ",\n");
+                Thread.sleep(20);
+            }
+
+            assertTrue(firstChange.await(10, TimeUnit.SECONDS));
+            Thread.sleep(500);
+            assertEquals(1, changes.get());
+        }
+    }
+}
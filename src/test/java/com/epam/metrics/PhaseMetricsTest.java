@@ -0,0 +1,68 @@
+package com.epam.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseMetricsTest {
+
+    @BeforeEach
+    void setUp() {
+        PhaseMetrics.reset();
+    }
+
+    @Test
+    void phases_areSummedPerName() throws IOException {
+        try (Phase phase = PhaseMetrics.start("parse")) {
+            phase.rows(10);
+        }
+        try (Phase phase = PhaseMetrics.start("parse").rows(5)) {
+            assertNotNull(phase);
+        }
+        try (Phase phase = PhaseMetrics.start("report")) {
+            assertNotNull(phase);
+        }
+
+        List<PhaseMetrics.PhaseTotals> totals = PhaseMetrics.totals();
+        assertEquals(List.of("parse", "report"), totals.stream().map(PhaseMetrics.PhaseTotals::name).toList());
+        assertEquals(2, totals.get(0).count());
+        assertEquals(15, totals.get(0).rows());
+        assertTrue(totals.get(0).durationNanos() > 0);
+
+        StringWriter json = new StringWriter();
+        PhaseMetrics.writeJson(json);
+        assertTrue(json.toString().startsWith("{\"phases\":[{\"phase\":\"parse\",\"count\":2,"));
+        StringWriter text = new StringWriter();
+        PhaseMetrics.writeText(text);
+        assertEquals(2, text.toString().lines().count());
+    }
+
+    @Test
+    void phases_areRecordedAsFlightRecorderEvents(@TempDir Path tempDir) throws IOException {
+        Path recordingFile = tempDir.resolve("phases.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.epam.Phase");
+            recording.start();
+            try (Phase phase = PhaseMetrics.start("depths")) {
+                phase.rows(42);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertEquals(1, events.size());
+        assertEquals("depths", events.get(0).getString("phase"));
+        assertEquals(42, events.get(0).getLong("rows"));
+    }
+}
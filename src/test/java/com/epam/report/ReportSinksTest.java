@@ -0,0 +1,94 @@
+package com.epam.report;
+
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportSinksTest {
+
+    private final Employee brett = new Employee(305, "Brett", "Hardleaf", new BigDecimal("34000"), 300);
+    private final Employee joe = new Employee(123, "Joe \"JD\"", "Doe, Jr", new BigDecimal("60000.50"), null);
+    private final SalaryDiscrepancy less = new SalaryDiscrepancy(DiscrepancyType.LESS, new BigDecimal("15000.0"));
+
+    @Test
+    void plainText_matchesConsoleFormat() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(writer, true)) {
+            sink.longReportingLine(brett, 1);
+            sink.salaryDiscrepancy(joe, less);
+            sink.salaryDiscrepancy(brett, new SalaryDiscrepancy(DiscrepancyType.MORE, new BigDecimal("-7")));
+            sink.ruleViolation("span-of-control", joe, new BigDecimal("2"), "12 direct reports, at most 10 allowed");
+        }
+
+        assertEquals(String.format("Employee %s has a reporting line that is too long by %d%n", brett, 1) +
+                String.format("Manager %s earns less than they should by %s%n", joe, "15000.0") +
+                String.format("Manager %s earns more than they should by %s%n", brett, "-7") +
+                String.format("Employee %s breaks rule span-of-control by 2: 12 direct reports, at most 10 allowed%n", joe),
+                writer.toString());
+    }
+
+    @Test
+    void csv_writesHeaderAndQuotesNames() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (ReportSink sink = new CsvReportSink(writer, true)) {
+            sink.longReportingLine(brett, -12);
+            sink.salaryDiscrepancy(joe, less);
+            sink.ruleViolation("salary-inversion", brett, new BigDecimal("1500.50"), "earns less than direct report 306");
+        }
+
+        assertEquals("finding,id,firstName,lastName,salary,managerId,amount\n" +
+                "LONG_REPORTING_LINE,305,Brett,Hardleaf,34000,300,-12\n" +
+                "SALARY_LESS,123,\"Joe \"\"JD\"\"\",\"Doe, Jr\",60000.50,,15000.0\n" +
+                "salary-inversion,305,Brett,Hardleaf,34000,300,1500.50\n", writer.toString());
+    }
+
+    @Test
+    void jsonLines_escapesStrings() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (ReportSink sink = new JsonLinesReportSink(writer, true)) {
+            sink.longReportingLine(brett, 2);
+            sink.salaryDiscrepancy(joe, less);
+            sink.ruleViolation("single-report-manager", brett, BigDecimal.ONE, "manages a \"single\" direct report");
+        }
+
+        assertEquals("{\"finding\":\"LONG_REPORTING_LINE\",\"id\":305,\"firstName\":\"Brett\",\"lastName\":\"Hardleaf\"," +
+                "\"salary\":34000,\"managerId\":300,\"tooLongBy\":2}\n" +
+                "{\"finding\":\"SALARY_DISCREPANCY\",\"id\":123,\"firstName\":\"Joe \\\"JD\\\"\",\"lastName\":\"Doe, Jr\"," +
+                "\"salary\":60000.50,\"managerId\":null,\"type\":\"LESS\",\"amount\":15000.0}\n" +
+                "{\"finding\":\"RULE_VIOLATION\",\"id\":305,\"firstName\":\"Brett\",\"lastName\":\"Hardleaf\",\"salary\":34000," +
+                "\"managerId\":300,\"rule\":\"single-report-manager\",\"amount\":1,\"detail\":\"manages a \\\"single\\\" direct report\"}\n",
+                writer.toString());
+    }
+
+    @Test
+    void open_writesToFileOrStandardOutput(@TempDir Path tempDir) throws IOException {
+        Path output = tempDir.resolve("report.csv");
+        try (ReportSink sink = ReportSinks.open(ReportFormat.CSV, output.toString())) {
+            sink.longReportingLine(brett, 1);
+        }
+        assertEquals(CsvReportSink.HEADER + "LONG_REPORTING_LINE,305,Brett,Hardleaf,34000,300,1\n", Files.readString(output));
+
+        var out = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out));
+        try (ReportSink sink = ReportSinks.open(ReportFormat.TEXT, "-")) {
+            sink.longReportingLine(brett, 1);
+            assertEquals("", out.toString());
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertEquals(String.format("Employee %s has a reporting line that is too long by 1%n", brett), out.toString());
+    }
+}
@@ -0,0 +1,165 @@
+package com.epam.rules;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.Employee;
+import com.epam.report.PlainTextReportSink;
+import com.epam.report.ReportSink;
+import com.epam.service.OrganisationOptimisationService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEngineTest {
+
+    private static Properties properties(String rules) {
+        Properties properties = new Properties();
+        properties.setProperty("app.hierarchy.depth", "2");
+        properties.setProperty("app.salary.ration.low", "1.2");
+        properties.setProperty("app.salary.ration.high", "1.5");
+        properties.setProperty("app.rules.span-of-control.max", "2");
+        if (rules != null) {
+            properties.setProperty("app.rules", rules);
+        }
+        return properties;
+    }
+
+    private static Employee employee(int id, String salary, Integer managerId) {
+        return new Employee(id, "First" + id, "Last" + id, new BigDecimal(salary), managerId);
+    }
+
+    @Test
+    void defaultRules_matchSeparateChecks() throws IOException {
+        Random random = new Random(19);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(employee(1_000, "90000", null));
+        for (int i = 1; i < 2_000; i++) {
+            // IDs out of file order, duplicated salaries and some unknown managers
+            int id = 1_000 + (i * 7919) % 2_000;
+            Integer managerId = i % 97 == 0 ? 99_999 : employees.get(random.nextInt(i)).id();
+            employees.add(employee(id, (20_000 + random.nextInt(60) * 1_000) + ".5", managerId));
+        }
+        OrgGraph graph = OrgGraph.of(employees);
+        OrganisationOptimisationService service = new OrganisationOptimisationService(2, 1.2, 1.5);
+
+        StringWriter expected = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(expected, true)) {
+            service.reportLongReportingLines(graph, sink);
+            service.reportSalaryDiscrepancies(graph, sink);
+        }
+        StringWriter actual = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(actual, true)) {
+            RuleEngine.fromProperties(properties(null)).report(graph, sink);
+        }
+
+        assertFalse(expected.toString().isEmpty());
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void evaluate_largeOrganisationInParallelMatchesSeparateChecks() throws IOException {
+        Random random = new Random(23);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(employee(1, "900000", null));
+        for (int id = 2; id <= 60_000; id++) {
+            // Deep and wide parts under a single top-level manager
+            Integer managerId = id % 3 == 0 ? id - 1 : 1 + random.nextInt(Math.min(id - 1, 50));
+            employees.add(employee(id, (20_000 + random.nextInt(60) * 1_000) + ".5", managerId));
+        }
+        OrgGraph graph = OrgGraph.of(employees);
+        OrganisationOptimisationService service = new OrganisationOptimisationService(2, 1.2, 1.5);
+
+        StringWriter expected = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(expected, true)) {
+            service.reportLongReportingLines(graph, sink);
+            service.reportSalaryDiscrepancies(graph, sink);
+        }
+        StringWriter actual = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(actual, true)) {
+            RuleEngine.fromProperties(properties(null)).report(graph, sink);
+        }
+        FindingCollector spans = RuleEngine.fromProperties(properties("span-of-control")).evaluate(graph);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(IntStream.range(0, graph.size()).filter(index -> graph.childCount(index) > 2).boxed().toList(),
+                spans.findings("span-of-control").stream().map(Finding::index).sorted().toList());
+
+        employees.add(employee(70_000, "100", 70_001));
+        employees.add(employee(70_001, "100", 70_000));
+        OrgGraph cyclic = OrgGraph.of(employees);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> RuleEngine.fromProperties(properties(null)).evaluate(cyclic));
+        assertEquals("2 employees have reporting lines that contain a cycle", e.getMessage());
+    }
+
+    @Test
+    void evaluate_reportsEveryConfiguredRuleInOnePass() {
+        OrgGraph graph = OrgGraph.of(List.of(
+                employee(1, "100", null),
+                employee(2, "120", 1),
+                employee(3, "50.50", 1),
+                employee(4, "60", 1),
+                employee(5, "40", 2)));
+        RuleEngine engine = RuleEngine.fromProperties(properties("span-of-control, single-report-manager,salary-inversion"));
+
+        FindingCollector findings = engine.evaluate(graph);
+
+        assertEquals(List.of("span-of-control", "single-report-manager", "salary-inversion"),
+                engine.rules().stream().map(OrganisationRule::name).toList());
+        assertEquals(3, findings.size());
+        assertEquals(List.of(new Finding.RuleViolation("span-of-control", 0, BigDecimal.ONE, "3 direct reports, at most 2 allowed")),
+                findings.findings("span-of-control"));
+        assertEquals(List.of(new Finding.RuleViolation("single-report-manager", 1, BigDecimal.ONE, "manages a single direct report, employee 5")),
+                findings.findings("single-report-manager"));
+        assertEquals(List.of(new Finding.RuleViolation("salary-inversion", 0, new BigDecimal("20"), "earns less than direct report 2")),
+                findings.findings("salary-inversion"));
+        assertEquals(List.of(), findings.findings("salary-ratio"));
+    }
+
+    @Test
+    void fromProperties_loadsRuleClassesAndRejectsUnknownRules() {
+        RuleEngine engine = RuleEngine.fromProperties(properties(HighSalaryRule.class.getName()));
+        OrgGraph graph = OrgGraph.of(List.of(employee(1, "100", null), employee(2, "250", 1)));
+
+        assertEquals(List.of(1), engine.evaluate(graph).findings("high-salary").stream().map(Finding::index).toList());
+        assertThrows(IllegalArgumentException.class, () -> RuleEngine.fromProperties(properties("no-such-rule")));
+        assertThrows(IllegalArgumentException.class, () -> RuleEngine.fromProperties(properties(String.class.getName())));
+    }
+
+    @Test
+    void evaluate_rejectsCycles() {
+        OrgGraph graph = OrgGraph.of(List.of(employee(1, "100", null), employee(2, "100", 3), employee(3, "100", 2)));
+
+        assertThrows(IllegalStateException.class, () -> RuleEngine.fromProperties(properties(null)).evaluate(graph));
+    }
+
+    /**
+     * A rule loaded by class name, flagging salaries above {@code app.rules.high-salary.max}.
+     */
+    public static final class HighSalaryRule implements OrganisationRule {
+        private final long maxCents;
+
+        public HighSalaryRule(Properties properties) {
+            maxCents = Long.parseLong(properties.getProperty("app.rules.high-salary.max", "200")) * 100;
+        }
+
+        @Override
+        public String name() {
+            return "high-salary";
+        }
+
+        @Override
+        public void evaluate(RuleContext context, int index) {
+            if (context.graph().salaryCents(index) > maxCents) {
+                context.report(new Finding.RuleViolation(name(), index, BigDecimal.ONE, "earns too much"));
+            }
+        }
+    }
+}
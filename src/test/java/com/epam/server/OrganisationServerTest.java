@@ -0,0 +1,157 @@
+package com.epam.server;
+
+import com.epam.rules.RuleEngine;
+import com.epam.rules.SpanOfControlRule;
+import com.epam.service.OrganisationOptimisationService;
+import com.epam.service.ReportService;
+import com.epam.validation.OrganisationValidator;
+import com.epam.validation.ValidationMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganisationServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path report;
+    private OrganisationServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        report = tempDir.resolve("report.csv");
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n" +
+                "123,Joe,Doe,60000,\n" +
+                "124,Martin,Chekov,45000,123\n" +
+                "125,Bob,Ronstad,47000,123\n" +
+                "300,Alice,Hasacat,50000,124\n" +
+                "305,Brett,Hardleaf,34000,300\n" +
+                "306,Ann,Deep,30000,305\n" +
+                "307,Ben,Deeper,30000,306\n");
+        server = new OrganisationServer(report, new ReportService(1, false),
+                new OrganisationValidator(ValidationMode.QUARANTINE), new OrganisationOptimisationService(),
+                new RuleEngine(List.of(new SpanOfControlRule(1))));
+        server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void longReportingLines_areServedInRequestedFormat() throws Exception {
+        HttpResponse<String> jsonLines = get("/long-reporting-lines");
+        HttpResponse<String> csv = get("/long-reporting-lines?format=csv");
+
+        assertEquals(200, jsonLines.statusCode());
+        assertEquals("{\"finding\":\"LONG_REPORTING_LINE\",\"id\":307,\"firstName\":\"Ben\",\"lastName\":\"Deeper\"," +
+                "\"salary\":30000,\"managerId\":306,\"tooLongBy\":1}\n", jsonLines.body());
+        assertEquals("finding,id,firstName,lastName,salary,managerId,amount\n" +
+                "LONG_REPORTING_LINE,307,Ben,Deeper,30000,306,1\n", csv.body());
+    }
+
+    @Test
+    void salaryDiscrepancies_areOrderedByEmployeeId() throws Exception {
+        HttpResponse<String> response = get("/salary-discrepancies?format=text");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("Manager Employee{id=124,"));
+        assertEquals(3, response.body().lines().count());
+    }
+
+    @Test
+    void chain_walksUpToTheTopLevelManager() throws Exception {
+        HttpResponse<String> response = get("/employees/300/chain");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(3, response.body().lines().count());
+        assertTrue(response.body().lines().toList().get(2).startsWith("{\"id\":123,"));
+        assertEquals(404, get("/employees/999/chain").statusCode());
+        assertEquals(400, get("/employees/abc/chain").statusCode());
+        assertEquals(400, get("/long-reporting-lines?format=xml").statusCode());
+    }
+
+    @Test
+    void subtreeAndCommonManager_areAnsweredFromTheTreeIndex() throws Exception {
+        assertEquals("{\"id\":123,\"headcount\":6,\"payroll\":296000.00,\"maxDepthBelow\":5}\n",
+                get("/employees/123/subtree").body());
+        assertEquals("{\"id\":124,\"firstName\":\"Martin\",\"lastName\":\"Chekov\",\"salary\":45000,\"managerId\":123}\n",
+                get("/common-manager?a=307&b=124").body());
+        assertTrue(get("/common-manager?a=307&b=125").body().startsWith("{\"id\":123,"));
+        assertEquals(404, get("/common-manager?a=307&b=999").statusCode());
+        assertEquals(400, get("/common-manager?a=307").statusCode());
+    }
+
+    @Test
+    void reload_swapsInTheChangedReport() throws Exception {
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n");
+
+        assertEquals(405, get("/reload").statusCode());
+        HttpResponse<String> reload = client.send(HttpRequest.newBuilder(uri("/reload"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, reload.statusCode());
+        assertEquals("Reloaded 1 employees\n", reload.body());
+        assertEquals("", get("/long-reporting-lines").body());
+    }
+
+    @Test
+    void findings_ofTheConfiguredRulesAreServed() throws Exception {
+        HttpResponse<String> response = get("/findings?format=csv");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("finding,id,firstName,lastName,salary,managerId,amount\n" +
+                "span-of-control,123,Joe,Doe,60000,,1\n", response.body());
+    }
+
+    @Test
+    void reload_ofAnOverflowingPayrollKeepsThePreviousOrganisation() throws Exception {
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n" +
+                "1,X,Y,50000000000000000,\n" +
+                "2,Z,W,50000000000000000,1\n");
+
+        HttpResponse<String> reload = client.send(HttpRequest.newBuilder(uri("/reload"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(500, reload.statusCode());
+        assertTrue(reload.body().contains("cannot be indexed"));
+        assertEquals("{\"id\":123,\"headcount\":6,\"payroll\":296000.00,\"maxDepthBelow\":5}\n",
+                get("/employees/123/subtree").body());
+    }
+
+    @Test
+    void snapshot_isNotAffectedByRewritingTheReport() throws Exception {
+        Files.writeString(report, "id,firstName,lastName,salary,managerId\n1,X,Y,1,\n");
+
+        HttpResponse<String> chain = get("/employees/300/chain");
+        HttpResponse<String> commonManager = get("/common-manager?a=307&b=125");
+
+        assertEquals(200, chain.statusCode());
+        assertTrue(chain.body().startsWith("{\"id\":300,\"firstName\":\"Alice\",\"lastName\":\"Hasacat\","));
+        assertEquals(3, chain.body().lines().count());
+        assertTrue(commonManager.body().startsWith("{\"id\":123,\"firstName\":\"Joe\","));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+}
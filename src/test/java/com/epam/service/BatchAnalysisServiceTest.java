@@ -0,0 +1,100 @@
+package com.epam.service;
+
+import com.epam.report.ReportFormat;
+import com.epam.validation.ValidationMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalysisServiceTest {
+    private static final String CHAIN = "id,firstName,lastName,salary,managerId\n1,Ann,Top,100,\n2,Bob,Middle,100,1\n3,Cid,Bottom,100,2\n";
+
+    private static Properties defaults() {
+        Properties defaults = new Properties();
+        defaults.setProperty("app.hierarchy.depth", "4");
+        defaults.setProperty("app.salary.ration.low", "1.2");
+        defaults.setProperty("app.salary.ration.high", "1.5");
+        return defaults;
+    }
+
+    @Test
+    void analyze_appliesPerFileSettingsAndIsolatesFailures(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("a.csv"), CHAIN);
+        Files.writeString(tempDir.resolve("b.csv"), CHAIN);
+        Files.writeString(tempDir.resolve("b.csv.properties"), "app.hierarchy.depth=1\napp.salary.ration.low=0.5\n");
+        Files.writeString(tempDir.resolve("c.csv"), "id,firstName,lastName,salary,managerId\n1,Ann,Loop,100,2\n2,Bob,Loop,100,1\n");
+        Files.writeString(tempDir.resolve("notes.txt"), "not a report");
+        BatchAnalysisService service = new BatchAnalysisService(2, ValidationMode.FAIL_FAST, defaults());
+        StringWriter output = new StringWriter();
+
+        List<BatchFileSummary> summaries = service.analyze(tempDir.toString(), ReportFormat.TEXT, output);
+
+        assertEquals(List.of(tempDir.resolve("a.csv"), tempDir.resolve("b.csv"), tempDir.resolve("c.csv")),
+                summaries.stream().map(BatchFileSummary::file).toList());
+        assertEquals(new BatchFileSummary(tempDir.resolve("a.csv"), 3, 0, 0, 0, 0, 2, 0, null), summaries.get(0));
+        assertEquals(new BatchFileSummary(tempDir.resolve("b.csv"), 3, 0, 0, 0, 1, 0, 0, null), summaries.get(1));
+        assertTrue(summaries.get(2).failed());
+
+        String report = output.toString();
+        assertTrue(report.contains("==> " + tempDir.resolve("a.csv") + " <=="));
+        assertTrue(report.contains("==> " + tempDir.resolve("b.csv") + " <=="));
+        assertTrue(report.indexOf(tempDir.resolve("a.csv") + ": 3 employees") < report.indexOf(tempDir.resolve("b.csv") + ": 3 employees"));
+        assertTrue(report.contains("Employee Employee{id=3, firstName='Cid', lastName='Bottom', salary=100, managerId=2} has a reporting line that is too long by 1"));
+        assertTrue(report.contains(tempDir.resolve("c.csv") + ": failed: rejected, 1 structural issues found"));
+        assertTrue(report.endsWith("Analysed 3 files, 1 failed" + System.lineSeparator()));
+    }
+
+    @Test
+    void analyze_reportsUnreadableFileAsFailed(@TempDir Path tempDir) throws IOException {
+        Path present = tempDir.resolve("present.csv");
+        Files.writeString(present, CHAIN);
+        Path missing = tempDir.resolve("missing.csv");
+        BatchAnalysisService service = new BatchAnalysisService(1, ValidationMode.QUARANTINE, defaults());
+
+        List<BatchFileSummary> summaries = service.analyze(List.of(missing, present), ReportFormat.JSONL, new StringWriter());
+
+        assertTrue(summaries.get(0).failed());
+        assertFalse(summaries.get(1).failed());
+        assertEquals(2, summaries.get(1).salaryDiscrepancies());
+    }
+
+    @Test
+    void analyze_readsCompressedReports(@TempDir Path tempDir) throws IOException {
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(tempDir.resolve("a.csv.gz")))) {
+            output.write(CHAIN.getBytes());
+        }
+        BatchAnalysisService service = new BatchAnalysisService(1, ValidationMode.QUARANTINE, defaults());
+
+        List<BatchFileSummary> summaries = service.analyze(tempDir.toString(), ReportFormat.CSV, new StringWriter());
+
+        assertEquals(List.of(new BatchFileSummary(tempDir.resolve("a.csv.gz"), 3, 0, 0, 0, 0, 2, 0, null)), summaries);
+    }
+
+    @Test
+    void resolve_matchesGlobBelowBaseDirectory(@TempDir Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve("emea/uk"));
+        Files.createDirectories(tempDir.resolve("apac"));
+        Files.writeString(tempDir.resolve("emea/uk/london.csv"), CHAIN);
+        Files.writeString(tempDir.resolve("emea/paris.csv"), CHAIN);
+        Files.writeString(tempDir.resolve("apac/tokyo.csv"), CHAIN);
+        Files.writeString(tempDir.resolve("emea/paris.csv.properties"), "app.hierarchy.depth=2\n");
+        BatchAnalysisService service = new BatchAnalysisService(1, ValidationMode.QUARANTINE, defaults());
+
+        assertEquals(List.of(tempDir.resolve("emea/paris.csv"), tempDir.resolve("emea/uk/london.csv")),
+                service.resolve(tempDir + "/emea/**.csv"));
+        assertEquals(List.of(tempDir.resolve("apac/tokyo.csv"), tempDir.resolve("emea/paris.csv")),
+                service.resolve(tempDir + "/*/*.csv"));
+        assertEquals("2", service.settings(tempDir.resolve("emea/paris.csv")).getProperty("app.hierarchy.depth"));
+        assertEquals("1.2", service.settings(tempDir.resolve("emea/paris.csv")).getProperty("app.salary.ration.low"));
+    }
+}
@@ -1,21 +1,35 @@
 package com.epam.service;
 
 import com.epam.config.PropertyHolder;
+import com.epam.graph.OrgGraph;
+import com.epam.model.ChangeType;
 import com.epam.model.DiscrepancyType;
 import com.epam.model.Employee;
+import com.epam.model.EmployeeChange;
 import com.epam.model.SalaryDiscrepancy;
+import com.epam.model.SubtreeSalaryStatistics;
+import com.epam.report.PlainTextReportSink;
+import com.epam.report.ReportSink;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -120,6 +134,247 @@ public class OrganisationOptimisationServiceTest {
         System.setOut(System.out);
     }
 
+    @Test
+    public void testGetLongReportingLinesDeepChain() {
+        int chainLength = 100_000;
+        List<Employee> chain = new ArrayList<>(chainLength);
+        chain.add(new Employee(1, "Root", "Manager", new BigDecimal("100000"), null));
+        for (int id = 2; id <= chainLength; id++) {
+            chain.add(new Employee(id, "First" + id, "Last" + id, new BigDecimal("50000"), id - 1));
+        }
+
+        Map<Employee, Integer> result = service.getLongReportingLines(chain, service.buildSubordinatesMap(chain));
+
+        assertEquals(chainLength - 5, result.size());
+        assertEquals(chainLength - 1 - 4, result.get(chain.get(chainLength - 1)));
+        assertEquals(1, result.get(chain.get(5)));
+        assertFalse(result.containsKey(chain.get(4)));
+    }
+
+    @Test
+    public void testGetLongReportingLinesCycle() {
+        List<Employee> cycle = List.of(
+                new Employee(1, "Ann", "Cycle", new BigDecimal("50000"), 2),
+                new Employee(2, "Ben", "Cycle", new BigDecimal("50000"), 1)
+        );
+
+        assertThrows(IllegalStateException.class, () -> service.getLongReportingLines(cycle, service.buildSubordinatesMap(cycle)));
+    }
+
+    @Test
+    public void testOrgGraphAnalysisMatchesListAnalysis() {
+        OrgGraph graph = OrgGraph.of(employees);
+
+        assertEquals(service.getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap), service.getEmployeeWithSalaryDiscrepancies(graph));
+        assertArrayEquals(new int[]{0, 1, 1, 2, 3}, service.computeHierarchyDepths(graph));
+    }
+
+    @Test
+    public void testGetEmployeeWithSalaryDiscrepanciesRoundsAverageHalfUp() {
+        List<Employee> team = List.of(
+                new Employee(1, "Ann", "Boss", new BigDecimal("10.00"), null),
+                new Employee(2, "Ben", "Report", new BigDecimal("5"), 1),
+                new Employee(3, "Cid", "Report", new BigDecimal("6.01"), 1)
+        );
+
+        SalaryDiscrepancy discrepancy = service.getEmployeeWithSalaryDiscrepancies(OrgGraph.of(team)).get(team.get(0));
+
+        // average 5.505 rounds to 5.51, upper bound 5.51 * 1.5 = 8.265
+        assertEquals(DiscrepancyType.MORE, discrepancy.type());
+        assertEquals(new BigDecimal("1.735"), discrepancy.discrepancy());
+    }
+
+    @Test
+    public void testGetEmployeeWithSalaryDiscrepanciesKeepsSalariesBeyondCents() {
+        List<Employee> team = List.of(
+                new Employee(1, "Ann", "Boss", new BigDecimal("1234.567"), null),
+                new Employee(2, "Ben", "Report", new BigDecimal("500.0005"), 1),
+                new Employee(3, "Cid", "Report", new BigDecimal("600"), 1)
+        );
+
+        Map<Employee, SalaryDiscrepancy> discrepancies = service.getEmployeeWithSalaryDiscrepancies(team, Map.of());
+
+        // average 550.0003 (HALF_UP at scale 4), upper bound 550.0003 * 1.5 = 825.00045
+        assertEquals(new SalaryDiscrepancy(DiscrepancyType.MORE, new BigDecimal("409.56655")), discrepancies.get(team.get(0)));
+        assertEquals(service.getEmployeeWithSalaryDiscrepancies(team, Map.of()), service.analyze(team).getSalaryDiscrepancies());
+    }
+
+    @Test
+    public void testAnalyzeMatchesFullAnalysis() {
+        AnalysisState state = service.analyze(employees);
+
+        assertEquals(service.getLongReportingLines(employees, subordinatesMap), state.getLongReportingLines());
+        assertEquals(service.getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap), state.getSalaryDiscrepancies());
+    }
+
+    @Test
+    public void testUpdateAnalysisMatchesFullAnalysis() {
+        Random random = new Random(11);
+        Map<Integer, Employee> organisation = new LinkedHashMap<>();
+        organisation.put(1, new Employee(1, "Root", "Manager", new BigDecimal("200000"), null));
+        for (int id = 2; id <= 2000; id++) {
+            organisation.put(id, new Employee(id, "First" + id, "Last" + id, BigDecimal.valueOf(30000 + random.nextInt(50000)), 1 + random.nextInt(id - 1)));
+        }
+        AnalysisState state = service.analyze(new ArrayList<>(organisation.values()));
+
+        for (int round = 0; round < 20; round++) {
+            List<EmployeeChange> changes = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                int id = 2 + random.nextInt(2100);
+                int kind = random.nextInt(4);
+                if (kind == 0 && organisation.containsKey(id)) {
+                    organisation.remove(id);
+                    changes.add(new EmployeeChange(ChangeType.DELETE, id, null));
+                } else {
+                    // Managers are picked among lower IDs so that moves never create cycles
+                    Integer managerId = kind == 1 ? Integer.valueOf(1 + random.nextInt(Math.min(id - 1, 2000))) : null;
+                    Employee previous = organisation.get(id);
+                    if (managerId == null) {
+                        managerId = previous != null ? previous.managerId() : 1;
+                    }
+                    Employee employee = new Employee(id, "First" + id, "Last" + id, BigDecimal.valueOf(30000 + random.nextInt(50000), random.nextInt(3)), managerId);
+                    organisation.put(id, employee);
+                    changes.add(new EmployeeChange(ChangeType.UPSERT, id, employee));
+                }
+            }
+            service.updateAnalysis(state, changes);
+
+            List<Employee> current = new ArrayList<>(organisation.values());
+            Map<Integer, List<Employee>> currentSubordinates = service.buildSubordinatesMap(current);
+            assertEquals(current.size(), state.size());
+            assertEquals(service.getLongReportingLines(current, currentSubordinates), state.getLongReportingLines());
+            assertEquals(service.getEmployeeWithSalaryDiscrepancies(current, currentSubordinates), state.getSalaryDiscrepancies());
+            state.getSalaryDiscrepancies().keySet().forEach(manager -> assertSame(organisation.get(manager.id()), manager));
+        }
+    }
+
+    @Test
+    public void testUpdateAnalysisRejectsCycle() {
+        AnalysisState state = service.analyze(employees);
+
+        assertThrows(IllegalStateException.class, () -> service.updateAnalysis(state,
+                List.of(new EmployeeChange(ChangeType.UPSERT, 124, new Employee(124, "Martin", "Chekov", new BigDecimal("45000"), 305)))));
+    }
+
+    @Test
+    public void testReportToSinkIsOrderedByEmployeeId() throws IOException {
+        List<Employee> organisation = new ArrayList<>();
+        organisation.add(new Employee(1, "Root", "Manager", new BigDecimal("200000"), null));
+        for (int id = 2; id <= 10; id++) {
+            organisation.add(new Employee(id, "First" + id, "Last" + id, new BigDecimal("50000"), id - 1));
+        }
+        organisation.add(new Employee(20, "Zed", "Report", new BigDecimal("10000"), 4));
+        organisation.add(new Employee(11, "Eli", "Report", new BigDecimal("10000"), 4));
+        Collections.reverse(organisation);
+        OrgGraph graph = OrgGraph.of(organisation);
+
+        StringWriter writer = new StringWriter();
+        try (ReportSink sink = new PlainTextReportSink(writer, true)) {
+            service.reportLongReportingLines(graph, sink);
+            service.reportSalaryDiscrepancies(graph, sink);
+        }
+
+        List<Integer> reportedIds = writer.toString().lines()
+                .map(line -> Integer.valueOf(line.substring(line.indexOf("id=") + 3, line.indexOf(','))))
+                .toList();
+        assertEquals(List.of(6, 7, 8, 9, 10, 1, 2, 3, 4, 5, 6, 7, 8, 9), reportedIds);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    public void testTopKMatchesSortedFullAnalysis(int partitions) {
+        Random random = new Random(5);
+        List<Employee> organisation = new ArrayList<>();
+        organisation.add(new Employee(1, "Root", "Manager", new BigDecimal("200000"), null));
+        for (int id = 2; id <= 3000; id++) {
+            organisation.add(new Employee(id, "First" + id, "Last" + id, BigDecimal.valueOf(3000000 + random.nextInt(5000000), 2),
+                    Math.max(1, id - 1 - random.nextInt(40))));
+        }
+        Collections.shuffle(organisation, random);
+        OrgGraph graph = OrgGraph.of(organisation);
+
+        List<Map.Entry<Employee, Integer>> expectedLines = new ArrayList<>(service.getLongReportingLines(graph).entrySet());
+        expectedLines.sort(Map.Entry.<Employee, Integer>comparingByValue().reversed()
+                .thenComparing(entry -> entry.getKey().id()));
+        List<Map.Entry<Employee, SalaryDiscrepancy>> expectedSalaries = new ArrayList<>(service.getEmployeeWithSalaryDiscrepancies(graph).entrySet());
+        expectedSalaries.sort(Comparator.<Map.Entry<Employee, SalaryDiscrepancy>, BigDecimal>comparing(entry -> entry.getValue().discrepancy()).reversed()
+                .thenComparing(entry -> entry.getKey().id()));
+
+        assertTrue(expectedLines.size() > 100);
+        assertTrue(expectedSalaries.size() > 50);
+        assertEquals(expectedLines.subList(0, 100), service.getTopLongReportingLines(graph, 100, partitions));
+        assertEquals(expectedSalaries.subList(0, 50), service.getTopSalaryDiscrepancies(graph, 50, partitions));
+        assertEquals(expectedSalaries, service.getTopSalaryDiscrepancies(graph, expectedSalaries.size() + 10, partitions));
+        assertEquals(List.of(), service.getTopLongReportingLines(graph, 0, partitions));
+    }
+
+    @Test
+    public void testTopSalaryDiscrepanciesFromEmployeeList() {
+        List<Map.Entry<Employee, SalaryDiscrepancy>> top = service.getTopSalaryDiscrepancies(employees, 1);
+
+        assertEquals(1, top.size());
+        assertEquals(124, top.get(0).getKey().id());
+        assertEquals(new SalaryDiscrepancy(DiscrepancyType.LESS, new BigDecimal("15000.0")), top.get(0).getValue());
+        assertEquals(List.of(), service.getTopLongReportingLines(employees, 10));
+    }
+
+    @Test
+    public void testSubtreeSalaryStatisticsMatchCollectedSubtrees() {
+        Random random = new Random(8);
+        List<Employee> organisation = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            Integer managerId = id <= 2 ? null : 1 + random.nextInt(Math.min(id - 1, 2 + id / 3));
+            organisation.add(new Employee(id, "First" + id, "Last" + id, BigDecimal.valueOf(1000000 + random.nextInt(9000000), 2), managerId));
+        }
+        Map<Integer, List<Employee>> subordinates = service.buildSubordinatesMap(organisation);
+
+        Map<Employee, SubtreeSalaryStatistics> statistics = service.getSubtreeSalaryStatistics(organisation, 0.01);
+
+        assertEquals(subordinates.size(), statistics.size());
+        assertEquals(statistics.keySet().stream().sorted(Comparator.comparing(Employee::id)).toList(), List.copyOf(statistics.keySet()));
+        statistics.forEach((manager, actual) -> {
+            List<Double> salaries = new ArrayList<>();
+            List<Employee> pending = new ArrayList<>(subordinates.get(manager.id()));
+            while (!pending.isEmpty()) {
+                Employee employee = pending.remove(pending.size() - 1);
+                salaries.add(employee.salary().doubleValue());
+                pending.addAll(subordinates.getOrDefault(employee.id(), List.of()));
+            }
+            Collections.sort(salaries);
+            double median = salaries.get((salaries.size() - 1) / 2);
+            double p90 = salaries.get((int) (0.9 * (salaries.size() - 1)));
+
+            assertEquals(salaries.size(), actual.subordinates());
+            assertEquals(salaries.stream().mapToDouble(Double::doubleValue).average().orElseThrow(), actual.mean(), 1e-6);
+            assertEquals(median, actual.median(), 0.01 * median);
+            assertEquals(p90, actual.p90(), 0.01 * p90);
+            assertEquals(salaries.get(0), actual.min());
+            assertEquals(salaries.get(salaries.size() - 1), actual.max());
+        });
+    }
+
+    @Test
+    public void testSubtreeSalaryStatisticsOfLongReportingLineAndCycle() {
+        List<Employee> chain = new ArrayList<>();
+        for (int id = 1; id <= 100_000; id++) {
+            chain.add(new Employee(id, "First" + id, "Last" + id, BigDecimal.valueOf(id), id == 1 ? null : id - 1));
+        }
+
+        Map<Employee, SubtreeSalaryStatistics> statistics = service.getSubtreeSalaryStatistics(chain, 0.01);
+
+        assertEquals(99_999, statistics.size());
+        assertEquals(99_999, statistics.get(chain.get(0)).subordinates());
+        assertEquals(100_000, statistics.get(chain.get(0)).max());
+        assertEquals(1, statistics.get(chain.get(99_998)).subordinates());
+
+        List<Employee> cycle = List.of(
+                new Employee(1, "Ann", "Top", new BigDecimal("500"), null),
+                new Employee(2, "Bob", "Loop", new BigDecimal("300"), 3),
+                new Employee(3, "Cid", "Loop", new BigDecimal("300"), 2));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> service.getSubtreeSalaryStatistics(cycle, 0.01));
+        assertEquals("2 employees have reporting lines that contain a cycle", e.getMessage());
+    }
+
     @ParameterizedTest
     @MethodSource("provideEmployeesAndExpectedDepths")
     public void getHierarchyDepth(Employee employee, int expectedDepth) {
@@ -142,4 +397,24 @@ public class OrganisationOptimisationServiceTest {
                 Arguments.of(new Employee(125, "Bob", "Ronstad", new BigDecimal("47000"), 124), 2)
         );
     }
+
+    @ParameterizedTest
+    @MethodSource("provideEmployeeIdsAndExpectedDepths")
+    public void computeHierarchyDepths(int id, int expectedDepth) {
+        OrgGraph graph = OrgGraph.of(employees);
+
+        int[] depths = service.computeHierarchyDepths(graph);
+
+        assertEquals(expectedDepth, depths[graph.indexOf(id)]);
+    }
+
+    private static Stream<Arguments> provideEmployeeIdsAndExpectedDepths() {
+        return Stream.of(
+                Arguments.of(123, 0),
+                Arguments.of(124, 1),
+                Arguments.of(125, 1),
+                Arguments.of(300, 2),
+                Arguments.of(305, 3)
+        );
+    }
 }
@@ -0,0 +1,104 @@
+package com.epam.service;
+
+import com.epam.benchmark.SyntheticOrganisation;
+import com.epam.graph.OrgGraph;
+import com.epam.io.CsvReadResult;
+import com.epam.io.MappedCsvFile;
+import com.epam.io.MappedCsvReader;
+import com.epam.model.Employee;
+import com.epam.report.ReportFormat;
+import com.epam.report.ReportSink;
+import com.epam.report.ReportSinks;
+import com.epam.rules.RuleEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedAnalysisServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Properties settings() {
+        Properties settings = new Properties();
+        settings.setProperty("app.hierarchy.depth", "3");
+        settings.setProperty("app.salary.ration.low", "1.2");
+        settings.setProperty("app.salary.ration.high", "1.5");
+        settings.setProperty("app.rules", "reporting-line-depth,salary-ratio,span-of-control,single-report-manager,salary-inversion");
+        settings.setProperty("app.rules.span-of-control.max", "3");
+        return settings;
+    }
+
+    private static String report(ReportSinkWriter writer) throws IOException {
+        StringWriter output = new StringWriter();
+        try (ReportSink sink = ReportSinks.create(ReportFormat.CSV, output, true)) {
+            writer.write(sink);
+        }
+        return output.toString();
+    }
+
+    @FunctionalInterface
+    private interface ReportSinkWriter {
+        void write(ReportSink sink) throws IOException;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void report_matchesSingleProcessAnalysis(int workers) throws IOException {
+        Path path = tempDir.resolve("report.csv");
+        SyntheticOrganisation.write(path, SyntheticOrganisation.Shape.BALANCED, 3_000, 11);
+        MappedCsvFile file = MappedCsvFile.map(path);
+        CsvReadResult result = MappedCsvReader.read(file, 1);
+        OrgGraph graph = result.graph();
+        RuleEngine ruleEngine = RuleEngine.fromProperties(settings());
+        PartitionedAnalysisService service = new PartitionedAnalysisService(workers, settings());
+
+        String expected = report(sink -> ruleEngine.report(graph, sink));
+        String actual = report(sink -> service.report(graph, file, result.rowOffsets(), sink));
+
+        assertTrue(expected.lines().count() > 100);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void partition_spreadsSubtreesWithTheirTopLevelManagers() {
+        List<Employee> employees = List.of(
+                new Employee(1, "Ann", "Top", new BigDecimal("500"), null),
+                new Employee(2, "Bob", "Big", new BigDecimal("300"), 1),
+                new Employee(3, "Cid", "Small", new BigDecimal("300"), 1),
+                new Employee(4, "Dan", "Under", new BigDecimal("100"), 2),
+                new Employee(5, "Eve", "Under", new BigDecimal("100"), 2),
+                new Employee(6, "Fay", "Alone", new BigDecimal("100"), null),
+                new Employee(7, "Gus", "Orphan", new BigDecimal("100"), 42),
+                new Employee(8, "Hal", "Under", new BigDecimal("100"), 7));
+        OrgGraph graph = OrgGraph.of(employees);
+
+        List<int[]> partitions = new PartitionedAnalysisService(2, settings()).partition(graph);
+
+        assertEquals(2, partitions.size());
+        assertArrayEquals(new int[]{0, 1, 3, 4}, partitions.get(0));
+        assertArrayEquals(new int[]{0, 2, 6, 7}, partitions.get(1));
+    }
+
+    @Test
+    void partition_rejectsCycles() {
+        OrgGraph graph = OrgGraph.of(List.of(
+                new Employee(1, "Ann", "Top", new BigDecimal("500"), null),
+                new Employee(2, "Bob", "Loop", new BigDecimal("300"), 3),
+                new Employee(3, "Cid", "Loop", new BigDecimal("300"), 2)));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new PartitionedAnalysisService(2, settings()).partition(graph));
+        assertEquals("2 employees have reporting lines that contain a cycle", e.getMessage());
+    }
+}
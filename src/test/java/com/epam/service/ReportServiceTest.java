@@ -1,18 +1,28 @@
 package com.epam.service;
 
+import com.epam.graph.OrgGraph;
+import com.epam.model.ChangeType;
 import com.epam.model.Employee;
+import com.epam.model.EmployeeChange;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,10 +68,193 @@ class ReportServiceTest {
         assertTrue(employees.isEmpty());
     }
 
+    @Test
+    void readEmployeesFromCsv_readsGzipCompressedReport(@TempDir Path tempDir) throws IOException {
+        String content = "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n124,Martin,Chekov,45000,123\n";
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+        Path compressedPath = tempDir.resolve("employees.csv.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressedPath))) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(reportService.readEmployeesFromCsv(filePath.toString()),
+                reportService.readEmployeesFromCsv(compressedPath.toString()));
+        assertFalse(Files.exists(tempDir.resolve("employees.csv.gz" + ReportService.SNAPSHOT_SUFFIX)));
+    }
+
     @Test
     void readEmployeesFromCsv_ioException() {
         List<Employee> employees = reportService.readEmployeesFromCsv("nonexistentfile.csv");
 
         assertTrue(employees.isEmpty());
     }
+
+    @Test
+    void readEmployeesFromCsv_skipsMalformedRows(@TempDir Path tempDir) throws IOException {
+        String content = "id,firstName,lastName,salary,managerId\r\n" +
+                "123,Joe,Doe,60000.50,\r\n" +
+                "abc,Bad,Id,1000,123\r\n" +
+                "\r\n" +
+                "124,Martin,Chekov,45000,123\r\n" +
+                "125,Bad,Salary,4x5,123\r\n" +
+                "126,Too,Short\r\n";
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+
+        var err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err));
+        List<Employee> employees;
+        try {
+            employees = reportService.readEmployeesFromCsv(filePath.toString());
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(List.of(
+                new Employee(123, "Joe", "Doe", new BigDecimal("60000.50"), null),
+                new Employee(124, "Martin", "Chekov", new BigDecimal("45000"), 123)), employees);
+        assertEquals("Doe", employees.get(0).lastName());
+        assertEquals(new BigDecimal("60000.50"), employees.get(0).salary());
+        assertEquals(String.format(
+                "Skipping malformed row at line 3: invalid id 'abc'%n" +
+                "Skipping malformed row at line 6: invalid salary '4x5'%n" +
+                "Skipping malformed row at line 7: expected at least 4 columns but found 3%n"), err.toString());
+    }
+
+    @Test
+    void readOrgGraphFromCsv_successful() throws URISyntaxException {
+        String filePath = Paths.get(Objects.requireNonNull(ReportServiceTest.class.getClassLoader().getResource("report.csv")).toURI()).toString();
+
+        OrgGraph graph = reportService.readOrgGraphFromCsv(filePath);
+
+        assertEquals(2, graph.size());
+        assertEquals(0, graph.parent(1));
+        assertEquals(4500000, graph.salaryCents(1));
+        assertEquals("Martsin", graph.employee(1).firstName());
+    }
+
+    @Test
+    void readOrgGraphFromCsv_loadsSnapshotWhileFileIsUnchanged(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n" +
+                "123,Joe,Doe,60000,\n" +
+                "abc,Bad,Id,1000,123\n" +
+                "124,Martin,Chekov,45000.5,123\n");
+        Path snapshot = Path.of(filePath + ReportService.SNAPSHOT_SUFFIX);
+        ReportService snapshotReportService = new ReportService(1, true);
+
+        var err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err));
+        OrgGraph parsed;
+        OrgGraph loaded;
+        try {
+            parsed = snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+            assertTrue(Files.exists(snapshot));
+            loaded = snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(String.format("Skipping malformed row at line 3: invalid id 'abc'%n"), err.toString());
+        assertEquals(parsed.size(), loaded.size());
+        assertEquals(0, loaded.parent(1));
+        assertEquals(4500050, loaded.salaryCents(1));
+        assertEquals(new Employee(124, "Martin", "Chekov", new BigDecimal("45000.5"), 123), loaded.employee(1));
+        assertEquals("Chekov", loaded.employee(1).lastName());
+    }
+
+    @Test
+    void readOrgGraphFromCsv_writesSnapshotOnlyWhenEnabled(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n");
+        Path snapshot = Path.of(filePath + ReportService.SNAPSHOT_SUFFIX);
+
+        new ReportService().readOrgGraphFromCsv(filePath.toString());
+        assertFalse(Files.exists(snapshot));
+
+        Properties settings = new Properties();
+        settings.setProperty("app.snapshot.enabled", "true");
+        new ReportService(settings).readOrgGraphFromCsv(filePath.toString());
+        assertTrue(Files.exists(snapshot));
+    }
+
+    @Test
+    void readOrgGraphFromCsv_ignoresSnapshotOfLargeReportRewrittenInPlace(@TempDir Path tempDir) throws IOException {
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n1,Root,Manager,100000,\n");
+        for (int id = 2; id <= 100_000; id++) {
+            content.append(id).append(",First,Last,").append(40000 + id % 1000).append(",1\n");
+        }
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+        ReportService snapshotReportService = new ReportService(1, true);
+        snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+
+        // A single digit changed in the middle of a report larger than 1 MB, same size and modification time
+        FileTime lastModified = Files.getLastModifiedTime(filePath);
+        int position = content.indexOf("50001,First,Last,") + "50001,First,Last,".length();
+        content.setCharAt(position, '9');
+        Files.writeString(filePath, content);
+        Files.setLastModifiedTime(filePath, lastModified);
+
+        OrgGraph graph = snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+        assertTrue(Files.size(filePath) > 1 << 20);
+        assertEquals(new BigDecimal("90001"), graph.salary(graph.indexOf(50001)));
+    }
+
+    @Test
+    void readOrgGraphFromCsv_ignoresStaleOrCorruptedSnapshot(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n");
+        Path snapshot = Path.of(filePath + ReportService.SNAPSHOT_SUFFIX);
+        ReportService snapshotReportService = new ReportService(1, true);
+        snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n124,Martin,Chekov,45000,123\n");
+        Files.setLastModifiedTime(snapshot, Files.getLastModifiedTime(filePath));
+        assertEquals(2, snapshotReportService.readOrgGraphFromCsv(filePath.toString()).size());
+
+        // Rewritten in place with the same size and modification time
+        FileTime lastModified = Files.getLastModifiedTime(filePath);
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,60000,\n124,Martin,Chekov,45000,125\n");
+        Files.setLastModifiedTime(filePath, lastModified);
+        assertEquals(125, snapshotReportService.readOrgGraphFromCsv(filePath.toString()).managerId(1));
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+        var err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err));
+        OrgGraph graph;
+        try {
+            graph = snapshotReportService.readOrgGraphFromCsv(filePath.toString());
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(2, graph.size());
+        assertTrue(err.toString().startsWith("Ignoring snapshot"));
+    }
+
+    @Test
+    void readChangesFromCsv_successful(@TempDir Path tempDir) throws IOException {
+        String content = "change,id,firstName,lastName,salary,managerId\n" +
+                "UPSERT,126,Ann,Lee,50000.5,123\n" +
+                "DELETE,124\n" +
+                "MOVE,125\n" +
+                "UPSERT,127,Bob,Ray,61000,\n";
+        Path filePath = tempDir.resolve("changes.csv");
+        Files.writeString(filePath, content);
+
+        List<EmployeeChange> changes = reportService.readChangesFromCsv(filePath.toString());
+
+        assertEquals(List.of(
+                new EmployeeChange(ChangeType.UPSERT, 126, new Employee(126, "Ann", "Lee", new BigDecimal("50000.5"), 123)),
+                new EmployeeChange(ChangeType.DELETE, 124, null),
+                new EmployeeChange(ChangeType.UPSERT, 127, new Employee(127, "Bob", "Ray", new BigDecimal("61000"), null))), changes);
+        assertNull(changes.get(2).employee().managerId());
+    }
 }
@@ -0,0 +1,102 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalaryDiscrepancyEngineTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "1000, 1.2, 1.5",
+            "50000, 1.2, 1.5",
+            "50000, 1.125, 1.75",
+            "50000, 0.9, 3"
+    })
+    void evaluate_matchesBigDecimalComputation(int size, double low, double high) {
+        Random random = new Random(size);
+        List<Employee> employees = new ArrayList<>(size);
+        employees.add(new Employee(0, "Root", "Manager", new BigDecimal("250000"), null));
+        for (int id = 1; id < size; id++) {
+            int scale = random.nextInt(3);
+            BigDecimal salary = BigDecimal.valueOf(20_000_00L + random.nextInt(80_000_00), 2).setScale(scale, RoundingMode.DOWN);
+            employees.add(new Employee(id, "First" + id, "Last" + id, salary, random.nextInt(Math.min(id, 1 + id / 4))));
+        }
+
+        Map<Employee, SalaryDiscrepancy> actual = new SalaryDiscrepancyEngine(low, high).evaluate(OrgGraph.of(employees));
+        Map<Employee, SalaryDiscrepancy> expected = evaluateWithBigDecimal(employees, low, high);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "5, 2, 3",
+            "-5, 2, -3",
+            "7, 3, 2",
+            "-7, 3, -2",
+            "8, 3, 3",
+            "-8, -3, 3"
+    })
+    void divideHalfUp_roundsTiesAwayFromZero(long dividend, long divisor, long expected) {
+        assertEquals(expected, SalaryDiscrepancyEngine.divideHalfUp(dividend, divisor));
+        assertEquals(expected, BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), RoundingMode.HALF_UP).longValueExact());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "92233720368547758.07, LESS",
+            "1, LESS"
+    })
+    void evaluate_fallsBackToBigDecimalOnOverflow(String subordinateSalary, DiscrepancyType type) {
+        List<Employee> employees = List.of(
+                new Employee(1, "Ann", "Boss", BigDecimal.ONE, null),
+                new Employee(2, "Ben", "Report", new BigDecimal(subordinateSalary), 1),
+                new Employee(3, "Cid", "Report", new BigDecimal(subordinateSalary), 1)
+        );
+
+        Map<Employee, SalaryDiscrepancy> actual = new SalaryDiscrepancyEngine(1.2, 1.5).evaluate(OrgGraph.of(employees));
+
+        assertEquals(evaluateWithBigDecimal(employees, 1.2, 1.5), actual);
+        assertEquals(type, actual.get(employees.get(0)).type());
+    }
+
+    private static Map<Employee, SalaryDiscrepancy> evaluateWithBigDecimal(List<Employee> employees, double low, double high) {
+        Map<Integer, List<Employee>> subordinatesMap = employees.stream()
+                .filter(emp -> emp.managerId() != null)
+                .collect(Collectors.groupingBy(Employee::managerId));
+        Map<Employee, SalaryDiscrepancy> result = new HashMap<>();
+        for (Employee manager : employees) {
+            List<Employee> subordinates = subordinatesMap.get(manager.id());
+            if (subordinates != null) {
+                BigDecimal averageSalary = subordinates.stream()
+                        .map(Employee::salary)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add)
+                        .divide(BigDecimal.valueOf(subordinates.size()), RoundingMode.HALF_UP);
+                BigDecimal lowerBound = averageSalary.multiply(BigDecimal.valueOf(low));
+                BigDecimal upperBound = averageSalary.multiply(BigDecimal.valueOf(high));
+                if (manager.salary().compareTo(lowerBound) < 0) {
+                    result.put(manager, new SalaryDiscrepancy(DiscrepancyType.LESS, lowerBound.subtract(manager.salary())));
+                } else if (manager.salary().compareTo(upperBound) > 0) {
+                    result.put(manager, new SalaryDiscrepancy(DiscrepancyType.MORE, manager.salary().subtract(upperBound)));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.epam.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalarySketchTest {
+
+    private static double[] randomSalaries(long seed, int count) {
+        Random random = new Random(seed);
+        double[] salaries = new double[count];
+        for (int i = 0; i < count; i++) {
+            salaries[i] = Math.round(Math.exp(7 + 6 * random.nextDouble())) / 100.0 * (random.nextInt(50) == 0 ? -1 : 1);
+        }
+        salaries[0] = 0;
+        return salaries;
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.05, 0.01, 0.001})
+    void quantile_isWithinRelativeAccuracy(double relativeAccuracy) {
+        double[] salaries = randomSalaries(5, 10_000);
+        SalarySketch sketch = new SalarySketch(relativeAccuracy);
+        Arrays.stream(salaries).forEach(sketch::add);
+        double[] sorted = salaries.clone();
+        Arrays.sort(sorted);
+
+        for (double quantile : new double[]{0, 0.01, 0.1, 0.5, 0.9, 0.99, 1}) {
+            double exact = sorted[(int) (quantile * (sorted.length - 1))];
+            assertEquals(exact, sketch.quantile(quantile), relativeAccuracy * Math.abs(exact) + 1e-9, "quantile " + quantile);
+        }
+        assertEquals(sorted[0], sketch.min());
+        assertEquals(sorted[sorted.length - 1], sketch.max());
+        assertEquals(Arrays.stream(salaries).average().orElseThrow(), sketch.mean(), 1e-6);
+    }
+
+    @Test
+    void merge_equalsAddingEverySalary() {
+        double[] salaries = randomSalaries(9, 1_000);
+        SalarySketch whole = new SalarySketch(0.01);
+        SalarySketch left = new SalarySketch(0.01);
+        SalarySketch right = new SalarySketch(0.01);
+        for (int i = 0; i < salaries.length; i++) {
+            whole.add(salaries[i]);
+            (i % 3 == 0 ? left : right).add(salaries[i]);
+        }
+
+        left.merge(right);
+
+        assertEquals(whole.count(), left.count());
+        assertEquals(whole.mean(), left.mean(), 1e-6);
+        assertEquals(whole.standardDeviation(), left.standardDeviation(), 1e-6);
+        for (double quantile : new double[]{0.1, 0.5, 0.9}) {
+            assertEquals(whole.quantile(quantile), left.quantile(quantile));
+        }
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new SalarySketch(0.02)));
+    }
+
+    @Test
+    void buckets_growAsAccuracyIsRaised() {
+        double[] salaries = randomSalaries(3, 10_000);
+        SalarySketch coarse = new SalarySketch(0.05);
+        SalarySketch fine = new SalarySketch(0.001);
+        Arrays.stream(salaries).forEach(coarse::add);
+        Arrays.stream(salaries).forEach(fine::add);
+
+        assertTrue(coarse.buckets() * 10 < fine.buckets());
+        assertTrue(fine.buckets() < salaries.length);
+        assertTrue(Double.isNaN(new SalarySketch(0.01).quantile(0.5)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.epam.service;
+
+import com.epam.config.PropertyHolder;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingAnalysisServiceTest {
+
+    private StreamingAnalysisService streamingService;
+    private OrganisationOptimisationService organisationService;
+
+    @BeforeEach
+    void setUp() {
+        PropertyHolder.properties.setProperty("app.hierarchy.depth", "4");
+        PropertyHolder.properties.setProperty("app.salary.ration.low", "1.2");
+        PropertyHolder.properties.setProperty("app.salary.ration.high", "1.5");
+
+        streamingService = new StreamingAnalysisService();
+        organisationService = new OrganisationOptimisationService();
+    }
+
+    @Test
+    void analyze_matchesInMemoryAnalysis(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(7);
+        StringBuilder content = new StringBuilder("id,firstName,lastName,salary,managerId\n");
+        // Managers are listed after some of their subordinates, manager 99999 has no row, and some salaries have
+        // more fraction digits than cents
+        for (int id = 5000; id >= 1; id--) {
+            String managerId = id == 1 ? "" : id % 1000 == 0 ? "99999" : String.valueOf(random.nextInt(id - 1) + 1);
+            content.append(id).append(",First").append(id).append(",Last").append(id).append(',')
+                    .append(30000 + random.nextInt(60000)).append('.').append(random.nextInt(10))
+                    .append(id % 97 == 0 ? "05" : "").append(',')
+                    .append(managerId).append('\n');
+        }
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, content);
+
+        Map<Employee, Integer> longReportingLines = new LinkedHashMap<>();
+        Map<Employee, SalaryDiscrepancy> salaryDiscrepancies = new LinkedHashMap<>();
+        streamingService.analyze(filePath, longReportingLines::put, salaryDiscrepancies::put);
+
+        List<Employee> employees = new ReportService(1).readEmployeesFromCsv(filePath.toString());
+        var subordinatesMap = organisationService.buildSubordinatesMap(employees);
+        assertFalse(longReportingLines.isEmpty());
+        assertFalse(salaryDiscrepancies.isEmpty());
+        assertEquals(organisationService.getLongReportingLines(employees, subordinatesMap), longReportingLines);
+        assertEquals(organisationService.getEmployeeWithSalaryDiscrepancies(employees, subordinatesMap), salaryDiscrepancies);
+
+        // Results are produced in file order
+        List<Integer> ids = new ArrayList<>();
+        longReportingLines.keySet().forEach(employee -> ids.add(employee.id()));
+        assertEquals(ids.stream().sorted((a, b) -> b - a).toList(), ids);
+    }
+
+    @Test
+    void analyze_keepsTheScaleOfLongZeroFractions(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n" +
+                "1,Ann,Boss,100." + "0".repeat(137) + ",\n" +
+                "2,Ben,Report,100." + "0".repeat(150) + ",1\n" +
+                "3,Cid,Report,100,1\n");
+
+        Map<Employee, SalaryDiscrepancy> salaryDiscrepancies = new LinkedHashMap<>();
+        streamingService.analyze(filePath, (employee, depth) -> { }, salaryDiscrepancies::put);
+
+        List<Employee> employees = new ReportService(1).readEmployeesFromCsv(filePath.toString());
+        var expected = organisationService.getEmployeeWithSalaryDiscrepancies(employees, organisationService.buildSubordinatesMap(employees));
+        assertEquals(1, salaryDiscrepancies.size());
+        assertEquals(expected, salaryDiscrepancies);
+        assertEquals(0, new BigDecimal("20").compareTo(salaryDiscrepancies.values().iterator().next().discrepancy()));
+    }
+
+    @Test
+    void analyze_usesTheGivenSettings(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n123,Joe,Doe,70000,\n124,Martin,Chekov,60000,123\n" +
+                "300,Alice,Hasacat,50000,124\n");
+        Properties settings = new Properties(PropertyHolder.properties);
+        settings.setProperty("app.hierarchy.depth", "1");
+
+        Map<Employee, Integer> longReportingLines = new LinkedHashMap<>();
+        new StreamingAnalysisService(settings).analyze(filePath, longReportingLines::put, (employee, discrepancy) -> { });
+
+        assertEquals(Map.of(new Employee(300, "Alice", "Hasacat", new BigDecimal("50000"), 124), 1), longReportingLines);
+    }
+
+    @Test
+    void report_printsInFileOrder(@TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("employees.csv");
+        Files.writeString(filePath, "id,firstName,lastName,salary,managerId\n" +
+                "123,Joe,Doe,70000,\n" +
+                "124,Martin,Chekov,45000,123\n" +
+                "125,Bob,Ronstad,47000,123\n" +
+                "300,Alice,Hasacat,50000,124\n" +
+                "305,Brett,Hardleaf,34000,300\n");
+
+        var out = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            streamingService.report(filePath.toString());
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        Employee joe = new Employee(123, "Joe", "Doe", new BigDecimal("70000"), null);
+        Employee martin = new Employee(124, "Martin", "Chekov", new BigDecimal("45000"), 123);
+        String expectedOutput = String.format(
+                "Manager %s earns more than they should by %s%nManager %s earns less than they should by %s%n",
+                joe, "1000.0", martin, "15000.0");
+        assertEquals(expectedOutput, out.toString());
+    }
+}
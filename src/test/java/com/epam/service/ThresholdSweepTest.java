@@ -0,0 +1,108 @@
+package com.epam.service;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.DiscrepancyType;
+import com.epam.model.Employee;
+import com.epam.model.SalaryDiscrepancy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdSweepTest {
+    private static final int[] DEPTHS = {0, 1, 2, 3, 4, 6};
+    private static final double[] RATIOS = {0.0, 0.5, 1.0, 1.1, 1.2, 1.25, 1.5, 2.0};
+
+    private static List<Employee> randomOrganisation(long seed, int size) {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>();
+        for (int id = 1; id <= size; id++) {
+            Integer managerId = id == 1 || random.nextInt(20) == 0 ? null : 1 + random.nextInt(id - 1);
+            // Round salaries make many ratios fall exactly on a threshold
+            BigDecimal salary = random.nextBoolean()
+                    ? BigDecimal.valueOf(100 * (1 + random.nextInt(8)))
+                    : BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            employees.add(new Employee(id, "First" + id, "Last" + id, salary, managerId));
+        }
+        return employees;
+    }
+
+    private static List<Employee> sortedById(Iterable<Employee> employees) {
+        List<Employee> sorted = new ArrayList<>();
+        employees.forEach(sorted::add);
+        sorted.sort(Comparator.comparingInt(Employee::id));
+        return sorted;
+    }
+
+    @Test
+    void queries_matchAnalysisForEveryThreshold() {
+        OrgGraph graph = OrgGraph.of(randomOrganisation(42, 2_000));
+        ThresholdSweep sweep = new OrganisationOptimisationService(4, 1.2, 1.5).prepareThresholdSweep(graph);
+
+        for (int depth : DEPTHS) {
+            Map<Employee, Integer> expected = new OrganisationOptimisationService(depth, 1.2, 1.5).getLongReportingLines(graph);
+            assertEquals(sortedById(expected.keySet()), sweep.getLongReportingLines(depth), "depth " + depth);
+            assertEquals(expected.size(), sweep.countLongReportingLines(depth));
+        }
+        for (double ratio : RATIOS) {
+            Map<Employee, SalaryDiscrepancy> discrepancies =
+                    new OrganisationOptimisationService(4, ratio, ratio).getEmployeeWithSalaryDiscrepancies(graph);
+            List<Employee> underpaid = sortedById(discrepancies.entrySet().stream()
+                    .filter(entry -> entry.getValue().type() == DiscrepancyType.LESS).map(Map.Entry::getKey).toList());
+            List<Employee> overpaid = sortedById(discrepancies.entrySet().stream()
+                    .filter(entry -> entry.getValue().type() == DiscrepancyType.MORE).map(Map.Entry::getKey).toList());
+
+            assertEquals(underpaid, sweep.getUnderpaidManagers(ratio), "low ratio " + ratio);
+            assertEquals(overpaid, sweep.getOverpaidManagers(ratio), "high ratio " + ratio);
+            assertEquals(underpaid.size(), sweep.countUnderpaidManagers(ratio));
+            assertEquals(overpaid.size(), sweep.countOverpaidManagers(ratio));
+        }
+    }
+
+    @Test
+    void queries_flagManagersExactlyOnTheBoundAsInRange() {
+        OrgGraph graph = OrgGraph.of(List.of(
+                new Employee(1, "Ann", "Exact", new BigDecimal("120.00"), null),
+                new Employee(2, "Bob", "Sub", new BigDecimal("100"), 1),
+                new Employee(3, "Cid", "Zero", new BigDecimal("5"), null),
+                new Employee(4, "Dan", "Unpaid", BigDecimal.ZERO, 3)));
+        ThresholdSweep sweep = new OrganisationOptimisationService().prepareThresholdSweep(graph);
+
+        Employee exact = graph.employee(graph.indexOf(1));
+        Employee unpaidSubordinates = graph.employee(graph.indexOf(3));
+
+        assertEquals(List.of(), sweep.getUnderpaidManagers(1.2));
+        assertEquals(List.of(exact), sweep.getUnderpaidManagers(1.2000001));
+        // Subordinates without salary make any positive salary too high, for every ratio
+        assertEquals(List.of(unpaidSubordinates), sweep.getOverpaidManagers(1.2));
+        assertEquals(List.of(exact, unpaidSubordinates), sweep.getOverpaidManagers(1.1999999));
+    }
+
+    @Test
+    void sweep_countsEveryCombination() {
+        OrgGraph graph = OrgGraph.of(randomOrganisation(7, 500));
+        ThresholdSweep sweep = new OrganisationOptimisationService().prepareThresholdSweep(graph);
+        int[] depths = {2, 4};
+        double[] lows = {1.0, 1.2};
+        double[] highs = {1.5};
+
+        List<SweepPoint> points = sweep.sweep(depths, lows, highs);
+
+        assertEquals(4, points.size());
+        assertEquals(new SweepPoint(4, 1.0, 1.5, sweep.countLongReportingLines(4),
+                sweep.countUnderpaidManagers(1.0), sweep.countOverpaidManagers(1.5)), points.get(2));
+        for (SweepPoint point : points) {
+            OrganisationOptimisationService service = new OrganisationOptimisationService(
+                    point.hierarchyDepthThreshold(), point.lowSalaryRation(), point.highSalaryRation());
+            assertEquals(service.getLongReportingLines(graph).size(), point.longReportingLines());
+            assertEquals(service.getEmployeeWithSalaryDiscrepancies(graph).size(),
+                    point.underpaidManagers() + point.overpaidManagers());
+        }
+    }
+}
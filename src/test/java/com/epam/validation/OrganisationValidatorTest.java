@@ -0,0 +1,90 @@
+package com.epam.validation;
+
+import com.epam.graph.OrgGraph;
+import com.epam.model.Employee;
+import com.epam.service.OrganisationOptimisationService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganisationValidatorTest {
+
+    private final List<Employee> employees = List.of(
+            new Employee(1, "Joe", "Doe", new BigDecimal("70000"), null),
+            new Employee(2, "Martin", "Chekov", new BigDecimal("45000"), 1),
+            new Employee(3, "Bob", "Ronstad", new BigDecimal("47000"), 2),
+            new Employee(2, "Martin", "Duplicate", new BigDecimal("46000"), 1),
+            new Employee(4, "Brett", "Hardleaf", new BigDecimal("34000"), 999),
+            new Employee(10, "Ann", "Cycle", new BigDecimal("50000"), 12),
+            new Employee(11, "Ben", "Cycle", new BigDecimal("50000"), 10),
+            new Employee(12, "Cid", "Cycle", new BigDecimal("50000"), 11),
+            new Employee(13, "Dan", "Below", new BigDecimal("40000"), 11),
+            new Employee(14, "Eve", "Self", new BigDecimal("40000"), 14)
+    );
+
+    @Test
+    void validate_reportsEveryIssue() {
+        ValidationResult result = new OrganisationValidator(ValidationMode.QUARANTINE).validate(OrgGraph.of(employees));
+
+        assertEquals(List.of(
+                new ValidationIssue(IssueType.DUPLICATE_ID, 2, "Employee id 2 appears 2 times"),
+                new ValidationIssue(IssueType.ORPHAN, 4, "Employee 4 reports to unknown manager 999"),
+                new ValidationIssue(IssueType.CYCLE, 10, "Reporting lines form a cycle: 10 -> 12 -> 11 -> 10"),
+                new ValidationIssue(IssueType.CYCLE, 14, "Reporting lines form a cycle: 14 -> 14")), result.issues());
+        assertFalse(result.isValid());
+    }
+
+    @Test
+    void validate_quarantinesDuplicatesAndCycles() {
+        ValidationResult result = new OrganisationValidator(ValidationMode.QUARANTINE).validate(OrgGraph.of(employees));
+        OrgGraph graph = result.graph();
+
+        assertEquals(6, result.quarantined());
+        List<Integer> ids = new ArrayList<>();
+        for (int index = 0; index < graph.size(); index++) {
+            ids.add(graph.id(index));
+        }
+        assertEquals(List.of(1, 3, 2, 4), ids);
+        assertEquals("Duplicate", graph.employee(graph.indexOf(2)).lastName());
+        assertEquals(graph.indexOf(2), graph.parent(graph.indexOf(3)));
+        assertArrayEquals(new int[]{0, 2, 1, 1}, new OrganisationOptimisationService().computeHierarchyDepths(graph));
+    }
+
+    @Test
+    void validate_failFastRejectsOrganisationWithIssues() {
+        OrganisationValidator validator = new OrganisationValidator(ValidationMode.FAIL_FAST);
+
+        OrganisationValidationException exception = assertThrows(OrganisationValidationException.class,
+                () -> validator.validate(OrgGraph.of(employees)));
+        assertEquals(4, exception.getIssues().size());
+    }
+
+    @Test
+    void validate_acceptsValidOrganisation() {
+        OrgGraph graph = OrgGraph.of(employees.subList(0, 3));
+
+        ValidationResult result = new OrganisationValidator(ValidationMode.FAIL_FAST).validate(graph);
+
+        assertTrue(result.isValid());
+        assertSame(graph, result.graph());
+        assertEquals(0, result.quarantined());
+    }
+
+    @Test
+    void validate_handlesLongChainsWithoutRecursion() {
+        List<Employee> chain = new ArrayList<>();
+        for (int id = 1; id <= 200_000; id++) {
+            chain.add(new Employee(id, "First", "Last", new BigDecimal("50000"), id == 1 ? 200_000 : id - 1));
+        }
+
+        ValidationResult result = new OrganisationValidator(ValidationMode.QUARANTINE).validate(OrgGraph.of(chain));
+
+        assertEquals(1, result.issues().size());
+        assertEquals(200_000, result.quarantined());
+        assertEquals(0, result.graph().size());
+    }
+}